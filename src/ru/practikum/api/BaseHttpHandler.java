@@ -2,14 +2,25 @@ package ru.practikum.api;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.practikum.exception.TaskTimeConflictException;
 import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public abstract class BaseHttpHandler implements HttpHandler {
     protected final TaskManager manager;
@@ -38,6 +49,29 @@ public abstract class BaseHttpHandler implements HttpHandler {
         sendText(exchange, text, 200);
     }
 
+    /**
+     * Отдаёт JSON-массив потоком: source передаёт элементы по одному, и каждый сразу пишется в ответ.
+     * Длина ответа заранее не известна, поэтому он уходит chunked, а память не зависит от размера списка.
+     * Если обход или сериализация падают посередине, код 200 уже отправлен: writer не закрывается,
+     * чтобы не завершить тело, а обработчик прерывает обмен через {@link ResponseAbortedException}.
+     */
+    protected void sendJsonArray(HttpExchange exchange, Consumer<Consumer<Object>> source) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(
+                new BufferedOutputStream(exchange.getResponseBody()), StandardCharsets.UTF_8));
+        try {
+            writer.beginArray();
+            source.accept(item -> gson.toJson(item, item.getClass(), writer));
+            writer.endArray();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Потоковый ответ прерван: " + e.getMessage());
+            throw new ResponseAbortedException(e);
+        }
+        writer.close();
+        exchange.close();
+    }
+
     protected void sendCreated(HttpExchange exchange, String text) throws IOException {
         if (text == null) {
             sendBadRequest(exchange, "Не удалось создать");
@@ -90,6 +124,58 @@ public abstract class BaseHttpHandler implements HttpHandler {
         return Integer.parseInt(parts[2]);
     }
 
+    protected Map<String, String> parseQuery(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    protected LocalDateTime parseDateTime(String name, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Параметр " + name + " обязателен");
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректная дата в параметре " + name + ": " + value);
+        }
+    }
+
+    // Фильтр ?status= необязателен: null означает «без фильтра»
+    protected Status parseStatusFilter(HttpExchange exchange) {
+        String value = parseQuery(exchange).get("status");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Status.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус: " + value);
+        }
+    }
+
+    protected boolean isAutoPlace(HttpExchange exchange) {
+        return Boolean.parseBoolean(parseQuery(exchange).get("autoPlace"));
+    }
+
+    // Окно подбирается не раньше времени начала из запроса, а если его нет — не раньше текущего момента
+    protected LocalDateTime placementStart(Task task) {
+        if (task.getDuration() == null) {
+            throw new IllegalArgumentException("Для автоматического размещения нужна длительность");
+        }
+        return task.getStartTime() != null ? task.getStartTime() : LocalDateTime.now().withSecond(0).withNano(0);
+    }
+
     protected void handleException(HttpExchange exchange, Exception e) throws IOException {
         if (e instanceof IllegalArgumentException) {
             sendBadRequest(exchange, e.getMessage());
@@ -0,0 +1,117 @@
+package ru.practikum.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import ru.practikum.manager.BoardRegistry;
+import ru.practikum.manager.TaskManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * /boards — список досок, /boards/prioritized и /boards/search?q= — запросы по всем доскам,
+ * /boards/{id}/... — те же ресурсы, что и у сервера без досок, но в менеджере доски {id}.
+ * Доску создаёт только POST, который создал в ней задачу (ответ 201); остальные запросы к несуществующей
+ * доске получают 404, а неудачный POST не оставляет пустой доски, чтобы случайные адреса не множили доски.
+ */
+public class BoardsHandler extends BaseHttpHandler {
+    private static final Map<String, Function<TaskManager, HttpHandler>> RESOURCES = Map.of(
+            "tasks", TasksHandler::new,
+            "subtasks", SubtasksHandler::new,
+            "epics", EpicsHandler::new,
+            "history", HistoryHandler::new,
+            "prioritized", PrioritizedHandler::new,
+            "search", SearchHandler::new,
+            "schedule", ScheduleHandler::new,
+            "stats", StatsHandler::new);
+
+    private final BoardRegistry boards;
+    private final Map<String, Map<String, HttpHandler>> boardHandlers = new ConcurrentHashMap<>();
+
+    public BoardsHandler(BoardRegistry boards) {
+        // Своего менеджера нет: запросы уходят в менеджеры досок
+        super(null);
+        this.boards = boards;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String[] parts = exchange.getRequestURI().getRawPath().split("/", 4);
+            if (parts.length >= 4) {
+                delegate(exchange, parts[2], "/" + parts[3]);
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                sendNotFound(exchange);
+            } else if (path.equals("/boards")) {
+                sendSuccess(exchange, gson.toJson(boards.getBoardIds()));
+            } else if (path.equals("/boards/prioritized")) {
+                sendSuccess(exchange, gson.toJson(boards.getPrioritizedTasks()));
+            } else if (path.equals("/boards/search")) {
+                String query = parseQuery(exchange).get("q");
+                if (query == null || query.isBlank()) {
+                    sendBadRequest(exchange, "Параметр q обязателен");
+                    return;
+                }
+                sendSuccess(exchange, gson.toJson(boards.search(query)));
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (ResponseAbortedException e) {
+            throw e;
+        } catch (Exception e) {
+            handleException(exchange, e);
+        }
+    }
+
+    private void delegate(HttpExchange exchange, String boardId, String path) throws IOException {
+        String resource = path.split("/", 3)[1];
+        if (!RESOURCES.containsKey(resource)) {
+            sendNotFound(exchange);
+            return;
+        }
+        URI uri = exchange.getRequestURI();
+        BoardExchange boardExchange = new BoardExchange(exchange, URI.create(path
+                + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery())));
+        TaskManager manager = boards.findBoard(boardId);
+        if (manager != null) {
+            boardHandlers.computeIfAbsent(boardId, id -> createHandlers(manager)).get(resource).handle(boardExchange);
+        } else if ("POST".equals(exchange.getRequestMethod())) {
+            create(boardId, resource, boardExchange);
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+
+    // Запрос выполняется над менеджером новой доски, а в реестр она попадает только после успешного создания
+    private void create(String boardId, String resource, BoardExchange exchange) throws IOException {
+        try {
+            boards.createBoard(boardId, manager -> {
+                Map<String, HttpHandler> handlers = createHandlers(manager);
+                try {
+                    handlers.get(resource).handle(exchange);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (exchange.getResponseCode() != 201) {
+                    return false;
+                }
+                boardHandlers.putIfAbsent(boardId, handlers);
+                return true;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, HttpHandler> createHandlers(TaskManager manager) {
+        Map<String, HttpHandler> handlers = new HashMap<>();
+        RESOURCES.forEach((resource, constructor) -> handlers.put(resource, constructor.apply(manager)));
+        return handlers;
+    }
+}
@@ -3,6 +3,7 @@ package ru.practikum.api;
 import com.sun.net.httpserver.HttpExchange;
 import ru.practikum.manager.TaskManager;
 import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
 
 import java.io.IOException;
 
@@ -31,6 +32,8 @@ public class EpicsHandler extends BaseHttpHandler {
                 default:
                     sendNotFound(exchange);
             }
+        } catch (ResponseAbortedException e) {
+            throw e;
         } catch (Exception e) {
             handleException(exchange, e);
         }
@@ -38,8 +41,12 @@ public class EpicsHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String path) throws IOException {
         if (path.equals("/epics")) {
-            String response = gson.toJson(manager.getAllEpics());
-            sendSuccess(exchange, response);
+            Status status = parseStatusFilter(exchange);
+            if (status == null) {
+                sendJsonArray(exchange, manager::forEachEpic);
+            } else {
+                sendSuccess(exchange, gson.toJson(manager.getEpicsByStatus(status)));
+            }
         } else if (path.matches("/epics/\\d+")) {
             int id = extractIdFromPath(path);
             Epic epic = manager.getEpicById(id);
@@ -55,8 +62,7 @@ public class EpicsHandler extends BaseHttpHandler {
             if (epic == null) {
                 sendNotFound(exchange);
             } else {
-                String response = gson.toJson(manager.getSubtasksByEpicId(id));
-                sendSuccess(exchange, response);
+                sendJsonArray(exchange, action -> manager.forEachSubtaskOfEpic(id, action));
             }
         } else {
             sendNotFound(exchange);
@@ -15,11 +15,19 @@ public class HistoryHandler extends BaseHttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                String response = gson.toJson(manager.getHistory());
-                sendSuccess(exchange, response);
+                String limit = parseQuery(exchange).get("limit");
+                if (limit == null) {
+                    sendJsonArray(exchange, manager::forEachInHistory);
+                } else if (limit.matches("\\d{1,9}")) {
+                    sendSuccess(exchange, gson.toJson(manager.getHistory(Integer.parseInt(limit))));
+                } else {
+                    sendBadRequest(exchange, "Параметр limit должен быть неотрицательным числом");
+                }
             } else {
                 sendNotFound(exchange);
             }
+        } catch (ResponseAbortedException e) {
+            throw e;
         } catch (Exception e) {
             sendInternalError(exchange);
         }
@@ -2,6 +2,7 @@ package ru.practikum.api;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpServer;
+import ru.practikum.manager.BoardRegistry;
 import ru.practikum.manager.Managers;
 import ru.practikum.manager.TaskManager;
 
@@ -12,6 +13,7 @@ public class HttpTaskServer {
     private static final int PORT = 8080;
     private final HttpServer server;
     private final TaskManager taskManager;
+    private final BoardRegistry boards;
     private final Gson gson;
 
     public HttpTaskServer() throws IOException {
@@ -19,7 +21,12 @@ public class HttpTaskServer {
     }
 
     public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, new BoardRegistry());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, BoardRegistry boards) throws IOException {
         this.taskManager = taskManager;
+        this.boards = boards;
         this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
         this.gson = JsonAdapter.createGson();
         configureHandlers();
@@ -31,6 +38,10 @@ public class HttpTaskServer {
         server.createContext("/epics", new EpicsHandler(taskManager));
         server.createContext("/history", new HistoryHandler(taskManager));
         server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        server.createContext("/search", new SearchHandler(taskManager));
+        server.createContext("/schedule", new ScheduleHandler(taskManager));
+        server.createContext("/stats", new StatsHandler(taskManager));
+        server.createContext("/boards", new BoardsHandler(boards));
     }
 
     public void start() {
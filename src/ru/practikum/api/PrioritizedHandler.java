@@ -4,6 +4,10 @@ import com.sun.net.httpserver.HttpExchange;
 import ru.practikum.manager.TaskManager;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler {
 
@@ -14,14 +18,44 @@ public class PrioritizedHandler extends BaseHttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
-            if ("GET".equals(exchange.getRequestMethod())) {
-                String response = gson.toJson(manager.getPrioritizedTasks());
-                sendSuccess(exchange, response);
+            String path = exchange.getRequestURI().getPath();
+            if ("GET".equals(exchange.getRequestMethod()) && path.equals("/prioritized/free-slot")) {
+                handleFreeSlot(exchange);
+            } else if ("GET".equals(exchange.getRequestMethod()) && path.equals("/prioritized")) {
+                Map<String, String> params = parseQuery(exchange);
+                if (params.containsKey("from") || params.containsKey("to")) {
+                    LocalDateTime from = parseDateTime("from", params.get("from"));
+                    LocalDateTime to = parseDateTime("to", params.get("to"));
+                    sendSuccess(exchange, gson.toJson(manager.getTasksBetween(from, to)));
+                } else {
+                    sendJsonArray(exchange, manager::forEachPrioritized);
+                }
             } else {
                 sendNotFound(exchange);
             }
+        } catch (ResponseAbortedException e) {
+            throw e;
         } catch (Exception e) {
-            sendInternalError(exchange);
+            handleException(exchange, e);
         }
     }
-}
\ No newline at end of file
+
+    private void handleFreeSlot(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange);
+        String minutes = params.get("duration");
+        if (minutes == null || !minutes.matches("\\d+")) {
+            sendBadRequest(exchange, "Параметр duration (в минутах) обязателен");
+            return;
+        }
+        Duration duration = Duration.ofMinutes(Long.parseLong(minutes));
+        LocalDateTime notBefore = params.containsKey("notBefore")
+                ? parseDateTime("notBefore", params.get("notBefore"))
+                : LocalDateTime.now().withSecond(0).withNano(0);
+
+        LocalDateTime start = manager.findNextFreeSlot(duration, notBefore);
+        Map<String, LocalDateTime> slot = new LinkedHashMap<>();
+        slot.put("startTime", start);
+        slot.put("endTime", start.plus(duration));
+        sendSuccess(exchange, gson.toJson(slot));
+    }
+}
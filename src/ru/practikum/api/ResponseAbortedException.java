@@ -0,0 +1,13 @@
+package ru.practikum.api;
+
+import java.io.IOException;
+
+/**
+ * Потоковый ответ оборвался после отправки заголовков. Обработчик выпускает это исключение наружу,
+ * и сервер закрывает соединение, не дописав chunked-тело: клиент видит обрыв, а не успешный ответ.
+ */
+class ResponseAbortedException extends IOException {
+    ResponseAbortedException(Throwable cause) {
+        super("Потоковый ответ прерван", cause);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practikum.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practikum.manager.TaskManager;
+import ru.practikum.manager.TaskScheduler;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * POST /schedule расставляет задачи без начала по свободному времени.
+ * Параметры: policy=fifo|shortest_first, notBefore, workStart и workEnd (ЧЧ:ММ), dryRun=true — только показать план.
+ */
+public class ScheduleHandler extends BaseHttpHandler {
+
+    public ScheduleHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("POST".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().equals("/schedule")) {
+                Map<String, String> params = parseQuery(exchange);
+                TaskScheduler scheduler = new TaskScheduler(parsePolicy(params.get("policy")),
+                        parseTime("workStart", params.get("workStart")), parseTime("workEnd", params.get("workEnd")));
+                LocalDateTime notBefore = params.containsKey("notBefore")
+                        ? parseDateTime("notBefore", params.get("notBefore"))
+                        : LocalDateTime.now().withSecond(0).withNano(0);
+                TaskScheduler.Plan plan = Boolean.parseBoolean(params.get("dryRun"))
+                        ? scheduler.plan(manager, notBefore)
+                        : scheduler.apply(manager, notBefore);
+                sendSuccess(exchange, gson.toJson(plan));
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception e) {
+            handleException(exchange, e);
+        }
+    }
+
+    private TaskScheduler.Policy parsePolicy(String value) {
+        if (value == null) {
+            return TaskScheduler.Policy.FIFO;
+        }
+        try {
+            return TaskScheduler.Policy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестная политика планирования: " + value);
+        }
+    }
+
+    private LocalTime parseTime(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректное время в параметре " + name + ": " + value);
+        }
+    }
+}
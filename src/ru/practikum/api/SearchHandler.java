@@ -0,0 +1,32 @@
+package ru.practikum.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practikum.manager.TaskManager;
+
+import java.io.IOException;
+
+public class SearchHandler extends BaseHttpHandler {
+
+    public SearchHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().equals("/search")) {
+                String query = parseQuery(exchange).get("q");
+                if (query == null || query.isBlank()) {
+                    sendBadRequest(exchange, "Параметр q обязателен");
+                    return;
+                }
+                String response = gson.toJson(manager.search(query));
+                sendSuccess(exchange, response);
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception e) {
+            handleException(exchange, e);
+        }
+    }
+}
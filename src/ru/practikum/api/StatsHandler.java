@@ -0,0 +1,26 @@
+package ru.practikum.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practikum.manager.TaskManager;
+
+import java.io.IOException;
+
+public class StatsHandler extends BaseHttpHandler {
+
+    public StatsHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().equals("/stats")) {
+                sendSuccess(exchange, gson.toJson(manager.statistics()));
+            } else {
+                sendNotFound(exchange);
+            }
+        } catch (Exception e) {
+            handleException(exchange, e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practikum.api;
 
 import com.sun.net.httpserver.HttpExchange;
 import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
 
 import java.io.IOException;
@@ -31,6 +32,8 @@ public class SubtasksHandler extends BaseHttpHandler {
                 default:
                     sendNotFound(exchange);
             }
+        } catch (ResponseAbortedException e) {
+            throw e;
         } catch (Exception e) {
             handleException(exchange, e);
         }
@@ -38,8 +41,12 @@ public class SubtasksHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String path) throws IOException {
         if (path.equals("/subtasks")) {
-            String response = gson.toJson(manager.getAllSubtasks());
-            sendSuccess(exchange, response);
+            Status status = parseStatusFilter(exchange);
+            if (status == null) {
+                sendJsonArray(exchange, manager::forEachSubtask);
+            } else {
+                sendSuccess(exchange, gson.toJson(manager.getSubtasksByStatus(status)));
+            }
         } else if (path.matches("/subtasks/\\d+")) {
             int id = extractIdFromPath(path);
             Subtask subtask = manager.getSubtaskById(id);
@@ -61,7 +68,9 @@ public class SubtasksHandler extends BaseHttpHandler {
                 sendBadRequest(exchange, "Название подзадачи обязательно");
                 return;
             }
-            Subtask createdSubtask = manager.createSubtask(subtask);
+            Subtask createdSubtask = isAutoPlace(exchange)
+                    ? manager.createSubtaskInFreeSlot(subtask, placementStart(subtask))
+                    : manager.createSubtask(subtask);
             if (createdSubtask == null) {
                 sendBadRequest(exchange, "Не удалось создать подзадачу - эпик не найден");
             } else {
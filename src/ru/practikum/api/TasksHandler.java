@@ -2,6 +2,7 @@ package ru.practikum.api;
 
 import com.sun.net.httpserver.HttpExchange;
 import ru.practikum.manager.TaskManager;
+import ru.practikum.model.Status;
 import ru.practikum.model.Task;
 
 import java.io.IOException;
@@ -31,6 +32,8 @@ public class TasksHandler extends BaseHttpHandler {
                 default:
                     sendNotFound(exchange);
             }
+        } catch (ResponseAbortedException e) {
+            throw e;
         } catch (Exception e) {
             handleException(exchange, e);
         }
@@ -38,8 +41,12 @@ public class TasksHandler extends BaseHttpHandler {
 
     private void handleGet(HttpExchange exchange, String path) throws IOException {
         if (path.equals("/tasks")) {
-            String response = gson.toJson(manager.getAllTasks());
-            sendSuccess(exchange, response);
+            Status status = parseStatusFilter(exchange);
+            if (status == null) {
+                sendJsonArray(exchange, manager::forEachTask);
+            } else {
+                sendSuccess(exchange, gson.toJson(manager.getTasksByStatus(status)));
+            }
         } else if (path.matches("/tasks/\\d+")) {
             int id = extractIdFromPath(path);
             Task task = manager.getTaskById(id);
@@ -61,7 +68,9 @@ public class TasksHandler extends BaseHttpHandler {
                 sendBadRequest(exchange, "Название задачи обязательно");
                 return;
             }
-            Task createdTask = manager.createTask(task);
+            Task createdTask = isAutoPlace(exchange)
+                    ? manager.createTaskInFreeSlot(task, placementStart(task))
+                    : manager.createTask(task);
             String response = gson.toJson(createdTask);
             sendCreated(exchange, response);
         } else {
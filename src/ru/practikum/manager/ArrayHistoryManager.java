@@ -0,0 +1,152 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+import ru.practikum.util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * История просмотров без объектов-узлов: задачи лежат в массиве слотов, связи списка — в int[] prev и next,
+ * а id → слот — в IntIntHashMap. Освобождённые слоты уходят в список свободных и переиспользуются,
+ * поэтому в установившемся режиме add и remove ничего не выделяют; память растёт, только пока растёт сама история.
+ * Ёмкость ограничивается так же, как в InMemoryHistoryManager: при переполнении вытесняется самый давний просмотр.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+    private static final int MAX_PREALLOCATED = 1 << 16;
+
+    private final int capacity;
+    private final IntIntHashMap slotOf;
+    private Task[] tasks;
+    private int[] ids;
+    private int[] prev;
+    private int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeSlot = NONE;
+    private int slotCount;
+
+    public ArrayHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    public ArrayHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+        // Ограниченная история выделяет массивы сразу, и таблица id → слот остаётся заполненной не больше чем наполовину:
+        // промахи при просмотре новых задач тогда заканчиваются за одну-две пробы
+        int initial = capacity == InMemoryHistoryManager.UNBOUNDED ? 64 : Math.min(capacity, MAX_PREALLOCATED);
+        slotOf = new IntIntHashMap(initial);
+        tasks = new Task[initial];
+        ids = new int[initial];
+        prev = new int[initial];
+        next = new int[initial];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        int slot = slotOf.get(task.getId());
+        if (slot != IntIntHashMap.MISSING) {
+            unlink(slot);
+        } else {
+            if (slotOf.size() == capacity) {
+                remove(ids[head]);
+            }
+            slot = allocate();
+            slotOf.put(task.getId(), slot);
+            ids[slot] = task.getId();
+        }
+        tasks[slot] = task;
+        append(slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slotOf.remove(id);
+        if (slot == IntIntHashMap.MISSING) {
+            return;
+        }
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = freeSlot;
+        freeSlot = slot;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(slotOf.size());
+        forEach(history::add);
+        return history;
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит истории не может быть отрицательным");
+        }
+        Task[] recent = new Task[Math.min(limit, slotOf.size())];
+        int slot = tail;
+        for (int i = recent.length - 1; i >= 0; i--) {
+            recent[i] = tasks[slot];
+            slot = prev[slot];
+        }
+        return new ArrayList<>(Arrays.asList(recent));
+    }
+
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            action.accept(tasks[slot]);
+        }
+    }
+
+    private int allocate() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next[slot];
+            return slot;
+        }
+        if (slotCount == tasks.length) {
+            int grown = (int) Math.min((long) capacity, tasks.length * 2L);
+            tasks = Arrays.copyOf(tasks, grown);
+            ids = Arrays.copyOf(ids, grown);
+            prev = Arrays.copyOf(prev, grown);
+            next = Arrays.copyOf(next, grown);
+        }
+        return slotCount++;
+    }
+
+    private void append(int slot) {
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+import ru.practikum.util.IntIntHashMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Двоичный снимок задач. Раскладка файла (порядок байтов little-endian):
+ * заголовок (MAGIC, VERSION), записи фиксированной длины RECORD_SIZE — сначала задачи, затем эпики,
+ * затем подзадачи, каждая группа по возрастанию id, — порядок приоритета как номера записей,
+ * таблица строк в UTF-8 и подвал фиксированной длины с размерами и смещениями секций.
+ * Читатель отображает файл в память через FileChannel.map, по подвалу находит секции и собирает задачи,
+ * не разбирая текст: из таблицы строк копируются только сами названия и описания.
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x4E534D54;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 64;
+    private static final int FOOTER_SIZE = 56;
+    private static final int NONE = -1;
+
+    // Поля записи
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int EPIC_ID = 8;
+    private static final int TITLE_OFFSET = 12;
+    private static final int TITLE_LENGTH = 16;
+    private static final int DESCRIPTION_OFFSET = 20;
+    private static final int DESCRIPTION_LENGTH = 24;
+    private static final int DURATION_NANO = 28;
+    private static final int DURATION_SECONDS = 32;
+    private static final int START_SECONDS = 40;
+    private static final int START_NANO = 48;
+    private static final int END_NANO = 52;
+    private static final int END_SECONDS = 56;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    /**
+     * Задачи снимка в порядке записей и они же в порядке приоритета (только те, у которых есть начало).
+     */
+    static final class Contents {
+        private final List<Task> tasks;
+        private final List<Task> prioritized;
+
+        Contents(List<Task> tasks, List<Task> prioritized) {
+            this.tasks = tasks;
+            this.prioritized = prioritized;
+        }
+
+        List<Task> getTasks() {
+            return tasks;
+        }
+
+        List<Task> getPrioritized() {
+            return prioritized;
+        }
+    }
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(File file) {
+        if (file.length() < HEADER_SIZE + FOOTER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Пишет снимок. order — порядок приоритета менеджера: по нему раскладывается секция приоритета,
+     * чтобы при загрузке не сортировать задачи заново.
+     */
+    static void write(File target, Collection<? extends Task> all, Comparator<Task> order, boolean sync)
+            throws IOException {
+        List<Task> records = new ArrayList<>(all.size());
+        for (TaskType type : TYPES) {
+            int from = records.size();
+            for (Task task : all) {
+                if (task.getType() == type) {
+                    records.add(task);
+                }
+            }
+            records.subList(from, records.size()).sort(Comparator.comparingInt(Task::getId));
+        }
+        int[] counts = new int[TYPES.length];
+        IntIntHashMap indexOf = new IntIntHashMap(records.size());
+        List<Task> prioritized = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            Task task = records.get(i);
+            counts[task.getType().ordinal()]++;
+            indexOf.put(task.getId(), i);
+            if (task.getStartTime() != null && task.getType() != TaskType.EPIC) {
+                prioritized.add(task);
+            }
+        }
+        prioritized.sort(order);
+
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        ByteBuffer body = ByteBuffer.allocate(HEADER_SIZE + records.size() * RECORD_SIZE
+                + prioritized.size() * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        body.putInt(MAGIC).putInt(VERSION);
+        for (Task task : records) {
+            int base = body.position();
+            body.putInt(base + ID, task.getId());
+            body.put(base + TYPE, (byte) task.getType().ordinal());
+            body.put(base + STATUS, (byte) (task.getStatus() == null ? NONE : task.getStatus().ordinal()));
+            body.putInt(base + EPIC_ID, task instanceof Subtask subtask ? subtask.getEpicId() : 0);
+            putString(body, base + TITLE_OFFSET, task.getTitle(), strings);
+            putString(body, base + DESCRIPTION_OFFSET, task.getDescription(), strings);
+            Duration duration = task.getDuration();
+            body.putInt(base + DURATION_NANO, duration == null ? NONE : duration.getNano());
+            body.putLong(base + DURATION_SECONDS, duration == null ? 0 : duration.getSeconds());
+            putTime(body, base + START_SECONDS, base + START_NANO, task.getStartTime());
+            putTime(body, base + END_SECONDS, base + END_NANO,
+                    task instanceof Epic epic ? epic.getEndTime() : null);
+            body.position(base + RECORD_SIZE);
+        }
+        long prioritizedOffset = body.position();
+        for (Task task : prioritized) {
+            body.putInt(indexOf.get(task.getId()));
+        }
+        body.flip();
+
+        ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        footer.putInt(counts[TaskType.TASK.ordinal()]).putInt(counts[TaskType.EPIC.ordinal()])
+                .putInt(counts[TaskType.SUBTASK.ordinal()]).putInt(prioritized.size())
+                .putLong(HEADER_SIZE).putLong(prioritizedOffset)
+                .putLong(body.limit()).putLong(strings.size())
+                .putInt(VERSION).putInt(MAGIC);
+        footer.flip();
+
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {body, ByteBuffer.wrap(strings.toByteArray()), footer};
+            while (footer.hasRemaining()) {
+                channel.write(buffers);
+            }
+            if (sync) {
+                channel.force(true);
+            }
+        }
+    }
+
+    private static void putString(ByteBuffer body, int field, String value, ByteArrayOutputStream strings) {
+        if (value == null) {
+            body.putInt(field, 0);
+            body.putInt(field + Integer.BYTES, NONE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        body.putInt(field, strings.size());
+        body.putInt(field + Integer.BYTES, bytes.length);
+        strings.writeBytes(bytes);
+    }
+
+    private static void putTime(ByteBuffer body, int secondsField, int nanoField, LocalDateTime time) {
+        body.putLong(secondsField, time == null ? 0 : time.toEpochSecond(ZoneOffset.UTC));
+        body.putInt(nanoField, time == null ? NONE : time.getNano());
+    }
+
+    static Contents read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerLoadException("Снимок больше 2 ГБ не поддерживается: " + file.getName());
+            }
+            if (size < HEADER_SIZE + FOOTER_SIZE) {
+                throw new ManagerLoadException("Снимок повреждён: " + file.getName());
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN), (int) size, file.getName());
+        }
+    }
+
+    private static Contents read(ByteBuffer buffer, int size, String name) {
+        int footer = size - FOOTER_SIZE;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(footer + FOOTER_SIZE - Integer.BYTES) != MAGIC) {
+            throw new ManagerLoadException("Файл не является двоичным снимком: " + name);
+        }
+        int version = buffer.getInt(footer + FOOTER_SIZE - 2 * Integer.BYTES);
+        if (buffer.getInt(4) != VERSION || version != VERSION) {
+            throw new ManagerLoadException("Неподдерживаемая версия снимка " + version + ": " + name);
+        }
+        long count = (long) buffer.getInt(footer) + buffer.getInt(footer + 4) + buffer.getInt(footer + 8);
+        int prioritizedCount = buffer.getInt(footer + 12);
+        int recordsOffset = (int) buffer.getLong(footer + 16);
+        int prioritizedOffset = (int) buffer.getLong(footer + 24);
+        int stringsOffset = (int) buffer.getLong(footer + 32);
+        long stringsLength = buffer.getLong(footer + 40);
+        if (buffer.getInt(footer) < 0 || buffer.getInt(footer + 4) < 0 || buffer.getInt(footer + 8) < 0
+                || prioritizedCount < 0 || stringsLength < 0 || recordsOffset != HEADER_SIZE
+                || recordsOffset + count * RECORD_SIZE != prioritizedOffset
+                || prioritizedOffset + (long) prioritizedCount * Integer.BYTES != stringsOffset
+                || stringsOffset + stringsLength != footer) {
+            throw new ManagerLoadException("Снимок повреждён: " + name);
+        }
+
+        Task[] tasks = new Task[(int) count];
+        for (int i = 0; i < count; i++) {
+            int base = recordsOffset + i * RECORD_SIZE;
+            try {
+                tasks[i] = readRecord(buffer, base, stringsOffset, (int) stringsLength, name);
+            } catch (DateTimeException | ArithmeticException e) {
+                throw new ManagerLoadException("Снимок повреждён: запись " + i + " в " + name, e);
+            }
+        }
+        Task[] prioritized = new Task[prioritizedCount];
+        for (int i = 0; i < prioritizedCount; i++) {
+            int index = buffer.getInt(prioritizedOffset + i * Integer.BYTES);
+            if (index < 0 || index >= count) {
+                throw new ManagerLoadException("Снимок повреждён: номер записи " + index
+                        + " в порядке приоритета вне таблицы: " + name);
+            }
+            prioritized[i] = tasks[index];
+        }
+        return new Contents(Arrays.asList(tasks), Arrays.asList(prioritized));
+    }
+
+    // Поля записи проверяются до разыменования: повреждённый снимок даёт ManagerLoadException,
+    // а не чтение чужих байтов или выход за границы буфера
+    private static Task readRecord(ByteBuffer buffer, int base, int strings, int stringsLength, String name) {
+        String title = getString(buffer, base + TITLE_OFFSET, strings, stringsLength, name);
+        String description = getString(buffer, base + DESCRIPTION_OFFSET, strings, stringsLength, name);
+        int statusOrdinal = buffer.get(base + STATUS);
+        if (statusOrdinal != NONE && (statusOrdinal < 0 || statusOrdinal >= STATUSES.length)) {
+            throw new ManagerLoadException("Снимок повреждён: неизвестный статус " + statusOrdinal + ": " + name);
+        }
+        Status status = statusOrdinal == NONE ? null : STATUSES[statusOrdinal];
+        int durationNano = buffer.getInt(base + DURATION_NANO);
+        Duration duration = durationNano == NONE ? null
+                : Duration.ofSeconds(buffer.getLong(base + DURATION_SECONDS), durationNano);
+        LocalDateTime start = getTime(buffer, base + START_SECONDS, base + START_NANO);
+        int typeOrdinal = buffer.get(base + TYPE);
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+            throw new ManagerLoadException("Снимок повреждён: неизвестный тип " + typeOrdinal + ": " + name);
+        }
+
+        Task task;
+        switch (TYPES[typeOrdinal]) {
+            case EPIC:
+                Epic epic = new Epic(title, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(start);
+                epic.setEndTime(getTime(buffer, base + END_SECONDS, base + END_NANO));
+                task = epic;
+                break;
+            case SUBTASK:
+                task = new Subtask(title, description, status, buffer.getInt(base + EPIC_ID), duration, start);
+                break;
+            default:
+                task = new Task(title, description, status, duration, start);
+                break;
+        }
+        task.setId(buffer.getInt(base + ID));
+        return task;
+    }
+
+    private static String getString(ByteBuffer buffer, int field, int strings, int stringsLength, String name) {
+        int length = buffer.getInt(field + Integer.BYTES);
+        if (length == NONE) {
+            return null;
+        }
+        int offset = buffer.getInt(field);
+        if (offset < 0 || length < 0 || (long) offset + length > stringsLength) {
+            throw new ManagerLoadException("Снимок повреждён: строка вне таблицы строк: " + name);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(strings + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer, int secondsField, int nanoField) {
+        int nano = buffer.getInt(nanoField);
+        return nano == NONE ? null : LocalDateTime.ofEpochSecond(buffer.getLong(secondsField), nano, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Доски (проекты) одного сервера. У каждой доски свой менеджер, а значит свои id, индексы и блокировки;
+ * доска создаётся при первом обращении через board или createBoard, а findBoard досок не создаёт.
+ * Имена общих запросов по всем доскам зарезервированы и доской быть не могут. Запросы по всем доскам идут параллельно в ForkJoinPool:
+ * доски делятся пополам до одной, а ответы половин сливаются уже упорядоченными.
+ */
+public class BoardRegistry {
+    private static final Pattern BOARD_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final Set<String> RESERVED_IDS = Set.of("prioritized", "search");
+    private static final Comparator<BoardTask> BY_BOARD = Comparator.comparing(BoardTask::getBoard);
+    private static final Comparator<BoardTask> BY_START = Comparator
+            .comparing((BoardTask item) -> item.getTask().getStartTime())
+            .thenComparing(BY_BOARD)
+            .thenComparingInt(item -> item.getTask().getId());
+
+    private final Map<String, TaskManager> boards = new ConcurrentHashMap<>();
+    // Создания досок идут по очереди: createBoard держит его, пока решает, оставлять ли новую доску
+    private final Object creation = new Object();
+    private final Supplier<TaskManager> factory;
+    private final ForkJoinPool pool;
+
+    public BoardRegistry() {
+        this(Managers::getConcurrent);
+    }
+
+    public BoardRegistry(Supplier<TaskManager> factory) {
+        this(factory, ForkJoinPool.commonPool());
+    }
+
+    public BoardRegistry(Supplier<TaskManager> factory, ForkJoinPool pool) {
+        this.factory = factory;
+        this.pool = pool;
+    }
+
+    /**
+     * Менеджер доски; при первом обращении доска создаётся.
+     */
+    public TaskManager board(String boardId) {
+        checkBoardId(boardId);
+        TaskManager manager = boards.get(boardId);
+        if (manager != null) {
+            return manager;
+        }
+        synchronized (creation) {
+            return boards.computeIfAbsent(boardId, id -> factory.get());
+        }
+    }
+
+    /**
+     * Выполняет init над менеджером доски. Если доски ещё нет, init получает новый менеджер,
+     * и доска остаётся, только когда init вернул true. Возвращает менеджер доски или null, если доска не создана.
+     */
+    public TaskManager createBoard(String boardId, Predicate<TaskManager> init) {
+        checkBoardId(boardId);
+        synchronized (creation) {
+            TaskManager manager = boards.get(boardId);
+            if (manager != null) {
+                init.test(manager);
+                return manager;
+            }
+            manager = factory.get();
+            if (!init.test(manager)) {
+                return null;
+            }
+            boards.put(boardId, manager);
+            return manager;
+        }
+    }
+
+    /**
+     * Менеджер существующей доски или null, если такой доски нет.
+     */
+    public TaskManager findBoard(String boardId) {
+        checkBoardId(boardId);
+        return boards.get(boardId);
+    }
+
+    private static void checkBoardId(String boardId) {
+        if (boardId == null || !BOARD_ID.matcher(boardId).matches() || RESERVED_IDS.contains(boardId)) {
+            throw new IllegalArgumentException("Некорректный id доски: " + boardId);
+        }
+    }
+
+    public List<String> getBoardIds() {
+        List<String> ids = new ArrayList<>(boards.keySet());
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Задачи всех досок по времени начала; при равном начале — по доске и id.
+     */
+    public List<BoardTask> getPrioritizedTasks() {
+        return query(TaskManager::getPrioritizedTasks, BY_START);
+    }
+
+    /**
+     * Поиск по всем доскам: результаты сгруппированы по доскам, внутри доски порядок её собственного поиска.
+     */
+    public List<BoardTask> search(String query) {
+        return query(manager -> manager.search(query), BY_BOARD);
+    }
+
+    private List<BoardTask> query(Function<TaskManager, List<? extends Task>> request, Comparator<BoardTask> order) {
+        List<String> ids = getBoardIds();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return pool.invoke(new BoardQuery(ids, 0, ids.size(), request, order));
+    }
+
+    private class BoardQuery extends RecursiveTask<List<BoardTask>> {
+        private final List<String> ids;
+        private final int from;
+        private final int to;
+        private final Function<TaskManager, List<? extends Task>> request;
+        private final Comparator<BoardTask> order;
+
+        BoardQuery(List<String> ids, int from, int to, Function<TaskManager, List<? extends Task>> request,
+                   Comparator<BoardTask> order) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.request = request;
+            this.order = order;
+        }
+
+        @Override
+        protected List<BoardTask> compute() {
+            if (to - from == 1) {
+                String boardId = ids.get(from);
+                List<? extends Task> tasks = request.apply(boards.get(boardId));
+                List<BoardTask> result = new ArrayList<>(tasks.size());
+                for (Task task : tasks) {
+                    result.add(new BoardTask(boardId, task));
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            BoardQuery left = new BoardQuery(ids, from, middle, request, order);
+            left.fork();
+            List<BoardTask> right = new BoardQuery(ids, middle, to, request, order).compute();
+            return merge(left.join(), right, order);
+        }
+    }
+
+    // При равенстве первым идёт элемент левой половины, поэтому слияние устойчиво
+    private static List<BoardTask> merge(List<BoardTask> left, List<BoardTask> right, Comparator<BoardTask> order) {
+        List<BoardTask> merged = new ArrayList<>(left.size() + right.size());
+        int i = 0;
+        int j = 0;
+        while (i < left.size() && j < right.size()) {
+            if (order.compare(right.get(j), left.get(i)) < 0) {
+                merged.add(right.get(j++));
+            } else {
+                merged.add(left.get(i++));
+            }
+        }
+        merged.addAll(left.subList(i, left.size()));
+        merged.addAll(right.subList(j, right.size()));
+        return merged;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+/**
+ * Задача в ответе на запрос по всем доскам: id уникальны только внутри доски, поэтому рядом с задачей — её доска.
+ */
+public final class BoardTask {
+    private final String board;
+    private final Task task;
+
+    BoardTask(String board, Task task) {
+        this.board = board;
+        this.task = task;
+    }
+
+    public String getBoard() {
+        return board;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardTask{" +
+                "board='" + board + '\'' +
+                ", task=" + task +
+                '}';
+    }
+}
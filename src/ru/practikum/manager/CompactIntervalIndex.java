@@ -0,0 +1,419 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Task;
+import ru.practikum.util.IntLongHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс интервалов на примитивных массивах, отсортированных по (начало, id). Записи лежат блоками
+ * до BLOCK_CAPACITY штук: вставка и удаление сдвигают хвост только своего блока, а полный блок делится пополам,
+ * поэтому стоимость изменения не растёт с размером индекса. Время хранится как long — наносекунды от эпохи,
+ * так что проверки и поиск идут бинарным поиском и последовательным проходом по массивам,
+ * без LocalDateTime и без аллокаций. Позицию задачи при удалении находит тот же бинарный поиск
+ * по началу, запомненному при вставке.
+ * Наносекунды, а не минуты: API принимает время с секундами, и округление изменило бы результат проверок.
+ * Цена — диапазон: long вмещает примерно 1677–2262 годы. Время вне него индекс отклоняет
+ * с IllegalArgumentException уже в hasConflictWith и findBatchConflict, то есть до любых изменений в менеджере,
+ * поэтому ограничение действует только для движка COMPACT.
+ * Ссылки на задачи хранятся рядом с ключами только для findRunningAt, который возвращает саму задачу.
+ */
+class CompactIntervalIndex implements TimeIndex {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int BLOCK_CAPACITY = 512;
+
+    private long[][] starts = new long[1][];
+    private long[][] ends = new long[1][];
+    private int[][] ids = new int[1][];
+    private Task[][] tasks = new Task[1][];
+    private int[] sizes = new int[1];
+    // Блок есть всегда, пустым бывает только единственный
+    private int blockCount = 1;
+    private int size;
+    private final IntLongHashMap startById;
+
+    CompactIntervalIndex() {
+        this(16);
+    }
+
+    CompactIntervalIndex(int capacity) {
+        allocateBlock(0, Math.min(Math.max(capacity, 4), BLOCK_CAPACITY));
+        startById = new IntLongHashMap(capacity);
+    }
+
+    private void allocateBlock(int block, int capacity) {
+        starts[block] = new long[capacity];
+        ends[block] = new long[capacity];
+        ids[block] = new int[capacity];
+        tasks[block] = new Task[capacity];
+        sizes[block] = 0;
+    }
+
+    static long toNanos(LocalDateTime time) {
+        try {
+            return Math.addExact(Math.multiplyExact(time.toEpochSecond(ZoneOffset.UTC), NANOS_PER_SECOND),
+                    time.getNano());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Время вне поддерживаемого диапазона: " + time);
+        }
+    }
+
+    // Для расчётов, которым достаточно порядка моментов: время вне диапазона прижимается к его границе
+    static long saturatedToNanos(LocalDateTime time) {
+        try {
+            return toNanos(time);
+        } catch (IllegalArgumentException e) {
+            return time.getYear() < 1970 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+
+    private static boolean isIndexable(Task task) {
+        return task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    private static long endNanos(Task task, long start) {
+        return endNanos(start, task.getDuration());
+    }
+
+    static long endNanos(long start, Duration duration) {
+        try {
+            return Math.addExact(start, duration.toNanos());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Время окончания вне поддерживаемого диапазона");
+        }
+    }
+
+    /**
+     * Проверяет, что время задачи, включая конец эпика, укладывается в наносекунды long.
+     * Нужна хранилищам, которые держат в наносекундах всю запись, как OffHeapTaskManager.
+     */
+    static void checkRange(Task task) {
+        if (task.getStartTime() != null) {
+            long start = toNanos(task.getStartTime());
+            if (task.getDuration() != null) {
+                endNanos(start, task.getDuration());
+            }
+        }
+        if (task instanceof Epic epic && epic.getEndTime() != null) {
+            toNanos(epic.getEndTime());
+        }
+    }
+
+    /**
+     * Сумма, которая вместо переполнения упирается в границу long: конец интервала, не влезающий в диапазон,
+     * считается позже любого представимого момента.
+     */
+    static long saturatedAdd(long time, long length) {
+        long sum = time + length;
+        if (((time ^ sum) & (length ^ sum)) < 0) {
+            return length > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return sum;
+    }
+
+    static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    // Позиция в индексе: номер блока в старших 32 битах, смещение внутри блока в младших
+    private static long position(int block, int offset) {
+        return (long) block << 32 | offset;
+    }
+
+    private static int blockOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+
+    private boolean isBefore(int block, int offset, long start, int id) {
+        long current = starts[block][offset];
+        return current < start || current == start && ids[block][offset] < id;
+    }
+
+    // Первая позиция, ключ которой не меньше (start, id). Если таких нет — позиция сразу за последним блоком
+    private long lowerBound(long start, int id) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (isBefore(middle, sizes[middle] - 1, start, id)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int block = low;
+        int from = 0;
+        int to = sizes[block];
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (isBefore(block, middle, start, id)) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return position(block, from);
+    }
+
+    @Override
+    public void add(Task task) {
+        put(task.getId(), task);
+    }
+
+    private void put(int key, Task task) {
+        remove(key);
+        if (!isIndexable(task)) {
+            return;
+        }
+        long start = toNanos(task.getStartTime());
+        long end = endNanos(task, start);
+        long at = lowerBound(start, key);
+        int block = blockOf(at);
+        int offset = offsetOf(at);
+        if (sizes[block] == ids[block].length) {
+            if (ids[block].length < BLOCK_CAPACITY) {
+                grow(block);
+            } else if (block == blockCount - 1 && offset == sizes[block]) {
+                // Вставка в конец: новый блок вместо деления, чтобы задачи по возрастанию заполняли блоки целиком
+                insertBlock(++block);
+                offset = 0;
+            } else {
+                split(block);
+                int half = sizes[block];
+                if (offset > half) {
+                    block++;
+                    offset -= half;
+                }
+            }
+        }
+        int tail = sizes[block] - offset;
+        System.arraycopy(starts[block], offset, starts[block], offset + 1, tail);
+        System.arraycopy(ends[block], offset, ends[block], offset + 1, tail);
+        System.arraycopy(ids[block], offset, ids[block], offset + 1, tail);
+        System.arraycopy(tasks[block], offset, tasks[block], offset + 1, tail);
+        starts[block][offset] = start;
+        ends[block][offset] = end;
+        ids[block][offset] = key;
+        tasks[block][offset] = task;
+        sizes[block]++;
+        startById.put(key, start);
+        size++;
+    }
+
+    private void grow(int block) {
+        int capacity = Math.min(ids[block].length * 2, BLOCK_CAPACITY);
+        starts[block] = Arrays.copyOf(starts[block], capacity);
+        ends[block] = Arrays.copyOf(ends[block], capacity);
+        ids[block] = Arrays.copyOf(ids[block], capacity);
+        tasks[block] = Arrays.copyOf(tasks[block], capacity);
+    }
+
+    private void insertBlock(int block) {
+        if (blockCount == sizes.length) {
+            int capacity = blockCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            tasks = Arrays.copyOf(tasks, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        int tail = blockCount - block;
+        System.arraycopy(starts, block, starts, block + 1, tail);
+        System.arraycopy(ends, block, ends, block + 1, tail);
+        System.arraycopy(ids, block, ids, block + 1, tail);
+        System.arraycopy(tasks, block, tasks, block + 1, tail);
+        System.arraycopy(sizes, block, sizes, block + 1, tail);
+        blockCount++;
+        allocateBlock(block, BLOCK_CAPACITY);
+    }
+
+    // Вторая половина полного блока переезжает в новый блок сразу за ним
+    private void split(int block) {
+        insertBlock(block + 1);
+        int half = sizes[block] / 2;
+        int moved = sizes[block] - half;
+        System.arraycopy(starts[block], half, starts[block + 1], 0, moved);
+        System.arraycopy(ends[block], half, ends[block + 1], 0, moved);
+        System.arraycopy(ids[block], half, ids[block + 1], 0, moved);
+        System.arraycopy(tasks[block], half, tasks[block + 1], 0, moved);
+        Arrays.fill(tasks[block], half, sizes[block], null);
+        sizes[block] = half;
+        sizes[block + 1] = moved;
+    }
+
+    private void removeBlock(int block) {
+        int tail = blockCount - block - 1;
+        System.arraycopy(starts, block + 1, starts, block, tail);
+        System.arraycopy(ends, block + 1, ends, block, tail);
+        System.arraycopy(ids, block + 1, ids, block, tail);
+        System.arraycopy(tasks, block + 1, tasks, block, tail);
+        System.arraycopy(sizes, block + 1, sizes, block, tail);
+        blockCount--;
+        starts[blockCount] = null;
+        ends[blockCount] = null;
+        ids[blockCount] = null;
+        tasks[blockCount] = null;
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!startById.containsKey(id)) {
+            return;
+        }
+        long at = lowerBound(startById.getOrDefault(id, 0), id);
+        int block = blockOf(at);
+        int offset = offsetOf(at);
+        int tail = sizes[block] - offset - 1;
+        System.arraycopy(starts[block], offset + 1, starts[block], offset, tail);
+        System.arraycopy(ends[block], offset + 1, ends[block], offset, tail);
+        System.arraycopy(ids[block], offset + 1, ids[block], offset, tail);
+        System.arraycopy(tasks[block], offset + 1, tasks[block], offset, tail);
+        tasks[block][--sizes[block]] = null;
+        if (sizes[block] == 0 && blockCount > 1) {
+            removeBlock(block);
+        }
+        startById.remove(id);
+        size--;
+    }
+
+    @Override
+    public void clear() {
+        for (int block = 0; block < blockCount; block++) {
+            Arrays.fill(tasks[block], 0, sizes[block], null);
+            sizes[block] = 0;
+        }
+        for (int block = 1; block < blockCount; block++) {
+            starts[block] = null;
+            ends[block] = null;
+            ids[block] = null;
+            tasks[block] = null;
+        }
+        blockCount = 1;
+        startById.clear();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasConflictWith(Task task) {
+        if (!isIndexable(task)) {
+            return false;
+        }
+        long start = toNanos(task.getStartTime());
+        int id = task.getId();
+        return hasConflict(start, endNanos(task, start), key -> key == id);
+    }
+
+    @Override
+    public boolean hasConflictWith(Task task, IntPredicate replaced) {
+        if (!isIndexable(task)) {
+            return false;
+        }
+        long start = toNanos(task.getStartTime());
+        int id = task.getId();
+        return hasConflict(start, endNanos(task, start), key -> key == id || replaced.test(key));
+    }
+
+    // Идёт назад от последней задачи, начавшейся до end
+    private boolean hasConflict(long start, long end, IntPredicate skipped) {
+        long at = lowerBound(end, Integer.MIN_VALUE);
+        for (int block = blockOf(at), offset = offsetOf(at); block >= 0; offset = --block >= 0 ? sizes[block] : 0) {
+            while (--offset >= 0) {
+                if (skipped.test(ids[block][offset])) {
+                    continue;
+                }
+                if (ends[block][offset] > start) {
+                    return true;
+                }
+                // Непустой интервал закончился до начала задачи: все более ранние закончились ещё раньше
+                if (ends[block][offset] > starts[block][offset]) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Task findBatchConflict(List<? extends Task> batch, IntPredicate replaced) {
+        // Задачи пакета могут быть ещё без id, поэтому внутри пакета ключом служит позиция
+        CompactIntervalIndex accepted = new CompactIntervalIndex(batch.size());
+        for (int position = 0; position < batch.size(); position++) {
+            Task task = batch.get(position);
+            if (!isIndexable(task)) {
+                continue;
+            }
+            long start = toNanos(task.getStartTime());
+            if (hasConflictWith(task, replaced) || accepted.hasConflict(start, endNanos(task, start), key -> false)) {
+                return task;
+            }
+            accepted.put(position, task);
+        }
+        return null;
+    }
+
+    // Позиция задачи, которая началась раньше момента и ещё идёт, или -1
+    private long runningAt(long moment) {
+        long from = lowerBound(moment, Integer.MIN_VALUE);
+        for (int block = blockOf(from), offset = offsetOf(from); block >= 0; offset = --block >= 0 ? sizes[block] : 0) {
+            while (--offset >= 0) {
+                if (ends[block][offset] > starts[block][offset]) {
+                    return ends[block][offset] > moment ? position(block, offset) : -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Task findRunningAt(LocalDateTime at) {
+        long running = runningAt(toNanos(at));
+        return running < 0 ? null : tasks[blockOf(running)][offsetOf(running)];
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        long candidate = toNanos(notBefore);
+        long length = saturatedNanos(duration);
+        long running = runningAt(candidate);
+        if (running >= 0) {
+            candidate = ends[blockOf(running)][offsetOf(running)];
+        }
+        long from = lowerBound(candidate, Integer.MIN_VALUE);
+        for (int block = blockOf(from), offset = offsetOf(from); block < blockCount; block++, offset = 0) {
+            for (; offset < sizes[block]; offset++) {
+                if (starts[block][offset] >= saturatedAdd(candidate, length)) {
+                    return fromNanos(candidate);
+                }
+                // Пустой интервал мешает, только если лежит строго внутри промежутка
+                if (ends[block][offset] > candidate) {
+                    candidate = ends[block][offset];
+                }
+            }
+        }
+        return fromNanos(candidate);
+    }
+}
@@ -0,0 +1,210 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасная история, в которой просмотры не спорят за общую блокировку. Поток пишет add и remove
+ * в свою полосу буфера (по id потока) с отметкой System.nanoTime(), и только при заполнении полосы
+ * или при чтении истории накопленное под одной блокировкой сливается в ArrayHistoryManager
+ * в порядке отметок. При слиянии берутся события не позже момента его начала: отметка ставится
+ * под блокировкой полосы вместе с записью, поэтому всё, что произошло раньше, уже лежит в буферах,
+ * и более раннее событие не попадёт в историю после более позднего. Чтения сначала сливают буферы,
+ * так что getHistory видит все завершившиеся просмотры, упорядоченные и без повторов.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int STRIPE_CAPACITY = 64;
+    private static final int FOLD_THRESHOLD = STRIPE_CAPACITY / 2;
+
+    private static final class Stripe {
+        final long[] stamps = new long[STRIPE_CAPACITY];
+        final Task[] tasks = new Task[STRIPE_CAPACITY];
+        final int[] ids = new int[STRIPE_CAPACITY];
+        int size;
+    }
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final ReentrantLock foldLock = new ReentrantLock();
+    // Всё ниже меняется только под foldLock
+    private final HistoryManager history;
+    private final long[] stamps;
+    private final Task[] tasks;
+    private final int[] ids;
+    private final int[] order;
+    private final int[] buffer;
+    private final int[] runs;
+
+    public ConcurrentHistoryManager() {
+        this(InMemoryHistoryManager.UNBOUNDED);
+    }
+
+    public ConcurrentHistoryManager(int capacity) {
+        history = new ArrayHistoryManager(capacity);
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = stripeCount - 1;
+        int total = stripeCount * STRIPE_CAPACITY;
+        stamps = new long[total];
+        tasks = new Task[total];
+        ids = new int[total];
+        order = new int[total];
+        buffer = new int[total];
+        runs = new int[stripeCount];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task != null) {
+            record(task, task.getId());
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        record(null, id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        foldLock.lock();
+        try {
+            fold();
+            return history.getHistory();
+        } finally {
+            foldLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        foldLock.lock();
+        try {
+            fold();
+            return history.getHistory(limit);
+        } finally {
+            foldLock.unlock();
+        }
+    }
+
+    // Обход идёт по копии, чтобы действие не выполнялось под блокировкой слияния
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        getHistory().forEach(action);
+    }
+
+    private void record(Task task, int id) {
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & mask];
+        int size;
+        while (true) {
+            synchronized (stripe) {
+                size = stripe.size;
+                if (size < STRIPE_CAPACITY) {
+                    stripe.stamps[size] = System.nanoTime();
+                    stripe.tasks[size] = task;
+                    stripe.ids[size] = id;
+                    stripe.size = ++size;
+                    break;
+                }
+            }
+            // Полоса заполнена: ждём слияния, иначе событие потерялось бы
+            foldLock.lock();
+            try {
+                fold();
+            } finally {
+                foldLock.unlock();
+            }
+        }
+        if (size >= FOLD_THRESHOLD && foldLock.tryLock()) {
+            try {
+                fold();
+            } finally {
+                foldLock.unlock();
+            }
+        }
+    }
+
+    private void fold() {
+        long cut = System.nanoTime();
+        int count = 0;
+        int runCount = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.size > 0 && stripe.stamps[0] <= cut) {
+                    runs[runCount++] = count;
+                }
+                int taken = 0;
+                while (taken < stripe.size && stripe.stamps[taken] <= cut) {
+                    stamps[count] = stripe.stamps[taken];
+                    tasks[count] = stripe.tasks[taken];
+                    ids[count] = stripe.ids[taken];
+                    count++;
+                    taken++;
+                }
+                int rest = stripe.size - taken;
+                if (taken > 0) {
+                    System.arraycopy(stripe.stamps, taken, stripe.stamps, 0, rest);
+                    System.arraycopy(stripe.tasks, taken, stripe.tasks, 0, rest);
+                    System.arraycopy(stripe.ids, taken, stripe.ids, 0, rest);
+                    Arrays.fill(stripe.tasks, rest, stripe.size, null);
+                    stripe.size = rest;
+                }
+            }
+        }
+        sortByStamp(count, runCount);
+        for (int i = 0; i < count; i++) {
+            int event = order[i];
+            if (tasks[event] != null) {
+                history.add(tasks[event]);
+                tasks[event] = null;
+            } else {
+                history.remove(ids[event]);
+            }
+        }
+    }
+
+    // Устойчивая сортировка слиянием по отметкам. Внутри полосы события уже упорядочены, поэтому сливаются
+    // готовые серии полос, а не отдельные элементы; равные отметки разных полос остаются в порядке полос
+    private void sortByStamp(int count, int runCount) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int[] from = order;
+        int[] to = buffer;
+        while (runCount > 1) {
+            int merged = 0;
+            for (int run = 0; run < runCount; run += 2) {
+                int left = runs[run];
+                int middle = run + 1 < runCount ? runs[run + 1] : count;
+                int right = run + 2 < runCount ? runs[run + 2] : count;
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    to[k++] = stamps[from[j]] < stamps[from[i]] ? from[j++] : from[i++];
+                }
+                while (i < middle) {
+                    to[k++] = from[i++];
+                }
+                while (j < right) {
+                    to[k++] = from[j++];
+                }
+                runs[merged++] = left;
+            }
+            runCount = merged;
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, count);
+        }
+    }
+}
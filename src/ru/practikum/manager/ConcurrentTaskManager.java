@@ -0,0 +1,1025 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.TaskTimeConflictException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * Чтение по id идёт без блокировок из ConcurrentHashMap, а списки отдаются из опубликованного
+ * неизменяемого среза {@link TaskSnapshot} за O(1), без копирования. Эпик, который меняют писатели,
+ * наружу не отдаётся: после каждого изменения публикуется его копия. Изменения подзадач и эпиков
+ * берут блокировку полосы своего эпика, поэтому записи в разные эпики идут параллельно.
+ * Глобальный индекс времени защищён отдельной блокировкой, которая держится только на время
+ * проверки пересечения и резервирования слота. Порядок захвата: полоса эпика, затем индекс времени.
+ * События операции встают в очередь рассылки до снятия её внешней блокировки, поэтому подписчики получают
+ * изменения одной сущности в том порядке, в котором они сделаны.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final Map<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final Map<Integer, Epic> epicViews = new ConcurrentHashMap<>();
+    private final Map<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+    private final HistoryManager historyManager = Managers.getConcurrentHistory();
+    private final ReentrantLock[] epicLocks;
+
+    private final ReentrantLock timeLock = new ReentrantLock();
+    private final TimeIndex intervalIndex = new IntervalIndex();
+    private final Map<Integer, TimeSlot> slotKeys = new ConcurrentHashMap<>();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final TaskEventBus eventBus = new TaskEventBus();
+
+    private final AtomicReference<TaskSnapshot> snapshot = new AtomicReference<>(TaskSnapshot.EMPTY);
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentTaskManager(int stripes) {
+        epicLocks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock epicLock(int epicId) {
+        return epicLocks[Math.floorMod(epicId, epicLocks.length)];
+    }
+
+    private void lockAllEpics() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllEpics() {
+        for (int i = epicLocks.length - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private int generateId() {
+        return nextId.getAndIncrement();
+    }
+
+    // Вызывается под timeLock
+    private TimeSlot addToPrioritized(Task task) {
+        if (task.getStartTime() == null) {
+            return null;
+        }
+        TimeSlot slot = new TimeSlot(task);
+        slotKeys.put(task.getId(), slot);
+        intervalIndex.add(task);
+        return slot;
+    }
+
+    // Вызывается под timeLock
+    private TimeSlot removeFromPrioritized(int id) {
+        TimeSlot slot = slotKeys.remove(id);
+        if (slot != null) {
+            intervalIndex.remove(id);
+        }
+        return slot;
+    }
+
+    // Публикуется под той же блокировкой, что защищает изменение, поэтому версии одной сущности
+    // выходят в порядке изменений; изменения разных полос сливаются через CAS
+    private void publish(UnaryOperator<TaskSnapshot> change) {
+        TaskSnapshot current;
+        TaskSnapshot next;
+        do {
+            current = snapshot.get();
+            next = change.apply(current).nextVersion();
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    public TaskSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Слот подзадачи меняет только владелец блокировки её эпика, поэтому проверку можно делать без timeLock:
+    // подзадаче без времени, которая и раньше была без времени, глобальный индекс не нужен
+    private boolean needsTimeLock(Subtask subtask) {
+        return subtask.getStartTime() != null || slotKeys.containsKey(subtask.getId());
+    }
+
+    private void checkTimeConflict(Task task, String kind) {
+        if (intervalIndex.hasConflictWith(task)) {
+            throw new TaskTimeConflictException(kind + " '" + task.getTitle() +
+                    "' пересекается по времени с существующей задачей");
+        }
+    }
+
+    // Удаление убирает сущность из карты раньше, чем из истории. Просмотр, разминувшийся с удалением,
+    // видит это при повторной проверке и сам убирает из истории уже удалённую сущность
+    private <T extends Task> T view(Map<Integer, T> storage, int id) {
+        T task = storage.get(id);
+        if (task != null) {
+            historyManager.add(task);
+            if (!storage.containsKey(id)) {
+                historyManager.remove(id);
+            }
+        }
+        return task;
+    }
+
+    // Одна сущность меняется только под своей блокировкой, а общие индексы защищены собственными мониторами
+    private void reindex(Task task) {
+        synchronized (statusIndex) {
+            statusIndex.update(task);
+        }
+        reindexText(task);
+    }
+
+    private void reindexText(Task task) {
+        synchronized (searchIndex) {
+            searchIndex.update(task);
+        }
+    }
+
+    private void unindex(int id) {
+        synchronized (statusIndex) {
+            statusIndex.remove(id);
+        }
+        synchronized (searchIndex) {
+            searchIndex.remove(id);
+        }
+    }
+
+    // Вызывается под блокировкой полосы эпика. Читатели видят только копию: живой эпик меняется по полю,
+    // и без копии ответ мог бы собрать новый статус со старым временем или упасть на обходе списка подзадач
+    private Epic publishedCopyOf(Epic epic) {
+        Epic copy = (Epic) TaskEventBus.copyOf(epic);
+        epicViews.put(epic.getId(), copy);
+        return copy;
+    }
+
+    // Вызывается под блокировкой полосы эпика; копию эпика вызывающий публикует вместе со своими изменениями
+    private Epic updateEpicRollup(Epic epic) {
+        Task before = eventBus.captureRollup(epic);
+        epic.setStatus(epic.calculateStatus());
+        synchronized (statusIndex) {
+            statusIndex.update(epic);
+        }
+        epic.setDuration(epic.calculateDuration());
+        epic.setStartTime(epic.calculateStartTime());
+        epic.setEndTime(epic.calculateEndTime());
+        eventBus.rolledUp(before, epic);
+        return publishedCopyOf(epic);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return snapshot.get().getPrioritizedTasks();
+    }
+
+    // Под timeLock индекс времени и опубликованный срез описывают одно и то же состояние
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода не может быть позже его конца");
+        }
+        timeLock.lock();
+        try {
+            List<Task> window = new ArrayList<>();
+            Task running = intervalIndex.findRunningAt(from);
+            if (running != null) {
+                window.add(running);
+            }
+            window.addAll(snapshot.get().getPrioritizedTasksStartingBetween(from, to));
+            return window;
+        } finally {
+            timeLock.unlock();
+        }
+    }
+
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime notBefore) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность должна быть неотрицательной");
+        }
+        timeLock.lock();
+        try {
+            return intervalIndex.findFreeSlot(duration, notBefore);
+        } finally {
+            timeLock.unlock();
+        }
+    }
+
+    // Поиск окна и создание идут под одной блокировкой, поэтому найденное окно никто не успеет занять
+    @Override
+    public Task createTaskInFreeSlot(Task task, LocalDateTime notBefore) {
+        timeLock.lock();
+        eventBus.begin();
+        try {
+            task.setStartTime(findNextFreeSlot(task.getDuration(), notBefore));
+            return createTask(task);
+        } finally {
+            eventBus.end();
+            timeLock.unlock();
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public Subtask createSubtaskInFreeSlot(Subtask subtask, LocalDateTime notBefore) {
+        ReentrantLock lock = epicLock(subtask.getEpicId());
+        lock.lock();
+        eventBus.begin();
+        try {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                return null;
+            }
+            timeLock.lock();
+            try {
+                subtask.setStartTime(findNextFreeSlot(subtask.getDuration(), notBefore));
+                return createSubtask(subtask);
+            } finally {
+                timeLock.unlock();
+            }
+        } finally {
+            eventBus.end();
+            lock.unlock();
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return snapshot.get().getTasks();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        timeLock.lock();
+        try {
+            List<Integer> removedIds = new ArrayList<>();
+            List<TimeSlot> removedSlots = new ArrayList<>();
+            for (Integer id : tasks.keySet()) {
+                eventBus.deleted(tasks.remove(id));
+                unindex(id);
+                removedIds.add(id);
+                removedSlots.add(removeFromPrioritized(id));
+                historyManager.remove(id);
+            }
+            publish(current -> {
+                for (int i = 0; i < removedIds.size(); i++) {
+                    current = current.withoutTask(removedIds.get(i)).withoutSlot(removedSlots.get(i));
+                }
+                return current;
+            });
+        } finally {
+            eventBus.commit();
+            timeLock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return view(tasks, id);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        timeLock.lock();
+        try {
+            checkTimeConflict(task, "Задача");
+            task.setId(generateId());
+            tasks.put(task.getId(), task);
+            reindex(task);
+            TimeSlot slot = addToPrioritized(task);
+            publish(current -> current.withTask(task).withSlot(slot, task));
+            eventBus.created(task);
+        } finally {
+            eventBus.commit();
+            timeLock.unlock();
+        }
+        eventBus.flush();
+        return task;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        timeLock.lock();
+        try {
+            if (!tasks.containsKey(task.getId())) {
+                return;
+            }
+            checkTimeConflict(task, "Задача");
+            Task before = eventBus.capture(tasks.get(task.getId()));
+            TimeSlot oldSlot = removeFromPrioritized(task.getId());
+            tasks.put(task.getId(), task);
+            reindex(task);
+            TimeSlot slot = addToPrioritized(task);
+            publish(current -> current.withoutSlot(oldSlot).withTask(task).withSlot(slot, task));
+            eventBus.updated(before, task);
+        } finally {
+            eventBus.commit();
+            timeLock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        timeLock.lock();
+        try {
+            Task task = tasks.remove(id);
+            if (task == null) {
+                return;
+            }
+            unindex(id);
+            TimeSlot slot = removeFromPrioritized(id);
+            publish(current -> current.withoutTask(id).withoutSlot(slot));
+            eventBus.deleted(task);
+        } finally {
+            eventBus.commit();
+            timeLock.unlock();
+        }
+        historyManager.remove(id);
+        eventBus.flush();
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return snapshot.get().getEpics();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAllEpics();
+        try {
+            timeLock.lock();
+            try {
+                List<TimeSlot> removedSlots = new ArrayList<>();
+                for (Integer id : subtasks.keySet()) {
+                    eventBus.deleted(subtasks.remove(id));
+                    unindex(id);
+                    removedSlots.add(removeFromPrioritized(id));
+                    historyManager.remove(id);
+                }
+                for (Integer id : epics.keySet()) {
+                    eventBus.deleted(epics.remove(id));
+                    epicViews.remove(id);
+                    unindex(id);
+                    historyManager.remove(id);
+                }
+                publish(current -> {
+                    for (TimeSlot slot : removedSlots) {
+                        current = current.withoutSlot(slot);
+                    }
+                    return current.withoutAllEpicsAndSubtasks();
+                });
+            } finally {
+                timeLock.unlock();
+            }
+        } finally {
+            eventBus.commit();
+            unlockAllEpics();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return view(epicViews, id);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        int id = generateId();
+        ReentrantLock lock = epicLock(id);
+        lock.lock();
+        try {
+            epic.setId(id);
+            epics.put(id, epic);
+            Epic view = publishedCopyOf(epic);
+            reindex(epic);
+            publish(current -> current.withEpic(view));
+            eventBus.created(epic);
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+        return epic;
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = epicLock(epic.getId());
+        lock.lock();
+        try {
+            Epic savedEpic = epics.get(epic.getId());
+            if (savedEpic != null) {
+                Task before = eventBus.capture(savedEpic);
+                savedEpic.setTitle(epic.getTitle());
+                savedEpic.setDescription(epic.getDescription());
+                reindexText(savedEpic);
+                Epic view = publishedCopyOf(savedEpic);
+                publish(current -> current.withEpic(view));
+                eventBus.updated(before, savedEpic);
+            }
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        ReentrantLock lock = epicLock(id);
+        lock.lock();
+        try {
+            Epic epic = epics.remove(id);
+            if (epic == null) {
+                return;
+            }
+            epicViews.remove(id);
+            unindex(id);
+            int[] subtaskIds = epic.getSubtaskIdArray();
+            timeLock.lock();
+            try {
+                TimeSlot[] removedSlots = new TimeSlot[subtaskIds.length];
+                for (int i = 0; i < subtaskIds.length; i++) {
+                    Subtask subtask = subtasks.remove(subtaskIds[i]);
+                    if (subtask != null) {
+                        eventBus.deleted(subtask);
+                    }
+                    unindex(subtaskIds[i]);
+                    removedSlots[i] = removeFromPrioritized(subtaskIds[i]);
+                }
+                publish(current -> {
+                    for (int i = 0; i < subtaskIds.length; i++) {
+                        current = current.withoutSubtask(subtaskIds[i]).withoutSlot(removedSlots[i]);
+                    }
+                    return current.withoutEpic(id);
+                });
+            } finally {
+                timeLock.unlock();
+            }
+            for (int subtaskId : subtaskIds) {
+                historyManager.remove(subtaskId);
+            }
+            historyManager.remove(id);
+            eventBus.deleted(epic);
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return snapshot.get().getSubtasks();
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        lockAllEpics();
+        try {
+            timeLock.lock();
+            try {
+                List<TimeSlot> removedSlots = new ArrayList<>();
+                for (Integer id : subtasks.keySet()) {
+                    eventBus.deleted(subtasks.remove(id));
+                    unindex(id);
+                    removedSlots.add(removeFromPrioritized(id));
+                    historyManager.remove(id);
+                }
+                publish(current -> {
+                    for (TimeSlot slot : removedSlots) {
+                        current = current.withoutSlot(slot);
+                    }
+                    return current.withoutAllSubtasks();
+                });
+            } finally {
+                timeLock.unlock();
+            }
+            List<Epic> views = new ArrayList<>(epics.size());
+            for (Epic epic : epics.values()) {
+                epic.clearSubtaskIds();
+                epic.untrackAllSubtasks();
+                views.add(updateEpicRollup(epic));
+            }
+            publish(current -> {
+                for (Epic view : views) {
+                    current = current.withEpic(view);
+                }
+                return current;
+            });
+        } finally {
+            eventBus.commit();
+            unlockAllEpics();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return view(subtasks, id);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        int epicId = subtask.getEpicId();
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return null;
+            }
+            boolean timed = needsTimeLock(subtask);
+            if (timed) {
+                timeLock.lock();
+            }
+            try {
+                checkTimeConflict(subtask, "Подзадача");
+                subtask.setId(generateId());
+                subtasks.put(subtask.getId(), subtask);
+                reindex(subtask);
+                TimeSlot slot = addToPrioritized(subtask);
+                publish(current -> current.withSubtask(subtask).withSlot(slot, subtask));
+                eventBus.created(subtask);
+            } finally {
+                if (timed) {
+                    timeLock.unlock();
+                }
+            }
+            epic.addSubtaskId(subtask.getId());
+            epic.trackSubtask(subtask);
+            Epic view = updateEpicRollup(epic);
+            publish(current -> current.withEpic(view));
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+        return subtask;
+    }
+
+    @Override
+    public void updateSubtask(Subtask update) {
+        Subtask savedSubtask = subtasks.get(update.getId());
+        if (savedSubtask == null) {
+            return;
+        }
+        int epicId = savedSubtask.getEpicId();
+        Subtask subtask = InMemoryTaskManager.keepEpic(update, epicId);
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            if (!subtasks.containsKey(subtask.getId())) {
+                return;
+            }
+            boolean timed = needsTimeLock(subtask);
+            if (timed) {
+                timeLock.lock();
+            }
+            try {
+                checkTimeConflict(subtask, "Подзадача");
+                Task before = eventBus.capture(subtasks.get(subtask.getId()));
+                TimeSlot oldSlot = removeFromPrioritized(subtask.getId());
+                subtasks.put(subtask.getId(), subtask);
+                reindex(subtask);
+                TimeSlot slot = addToPrioritized(subtask);
+                publish(current -> current.withoutSlot(oldSlot).withSubtask(subtask).withSlot(slot, subtask));
+                eventBus.updated(before, subtask);
+            } finally {
+                if (timed) {
+                    timeLock.unlock();
+                }
+            }
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.trackSubtask(subtask);
+                Epic view = updateEpicRollup(epic);
+                publish(current -> current.withEpic(view));
+            }
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        Subtask savedSubtask = subtasks.get(id);
+        if (savedSubtask == null) {
+            return;
+        }
+        int epicId = savedSubtask.getEpicId();
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            boolean timed = needsTimeLock(savedSubtask);
+            if (timed) {
+                timeLock.lock();
+            }
+            try {
+                Subtask subtask = subtasks.remove(id);
+                if (subtask == null) {
+                    return;
+                }
+                unindex(id);
+                TimeSlot slot = removeFromPrioritized(id);
+                publish(current -> current.withoutSubtask(id).withoutSlot(slot));
+                eventBus.deleted(subtask);
+            } finally {
+                if (timed) {
+                    timeLock.unlock();
+                }
+            }
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.removeSubtaskId(id);
+                epic.untrackSubtask(id);
+                Epic view = updateEpicRollup(epic);
+                publish(current -> current.withEpic(view));
+            }
+            historyManager.remove(id);
+        } finally {
+            eventBus.commit();
+            lock.unlock();
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        List<Subtask> epicSubtasks = new ArrayList<>();
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.forEachSubtaskId(subtaskId -> {
+                    Subtask subtask = subtasks.get(subtaskId);
+                    if (subtask != null) {
+                        epicSubtasks.add(subtask);
+                    }
+                });
+            }
+        } finally {
+            lock.unlock();
+        }
+        return epicSubtasks;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        synchronized (statusIndex) {
+            return statusIndex.collect(TaskType.TASK, status, tasks::get);
+        }
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        synchronized (statusIndex) {
+            return statusIndex.collect(TaskType.EPIC, status, epicViews::get);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        synchronized (statusIndex) {
+            return statusIndex.collect(TaskType.SUBTASK, status, subtasks::get);
+        }
+    }
+
+    @Override
+    public List<Task> search(String query) {
+        int[] ids;
+        synchronized (searchIndex) {
+            ids = searchIndex.search(query);
+        }
+        List<Task> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = epicViews.get(id);
+            }
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    // Списки берутся из опубликованного среза, поэтому обход не держит блокировок и не копирует
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        snapshot.get().getTasks().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        snapshot.get().getEpics().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        snapshot.get().getSubtasks().forEach(action);
+    }
+
+    // Под блокировкой полосы снимаются только id, чтобы медленный потребитель не держал запись в эпик
+    @Override
+    public void forEachSubtaskOfEpic(int epicId, Consumer<? super Subtask> action) {
+        int[] subtaskIds;
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                return;
+            }
+            subtaskIds = epic.getSubtaskIdArray();
+        } finally {
+            lock.unlock();
+        }
+        for (int subtaskId : subtaskIds) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                action.accept(subtask);
+            }
+        }
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        snapshot.get().getPrioritizedTasks().forEach(action);
+    }
+
+    // История короткая, а обходить её под монитором с записью в сеть нельзя, поэтому она копируется
+    @Override
+    public void forEachInHistory(Consumer<? super Task> action) {
+        getHistory().forEach(action);
+    }
+
+    // Вызывается под всеми блокировками
+    private void checkBatchConflicts(List<? extends Task> items, Set<Integer> replacedIds) {
+        List<Task> timed = new ArrayList<>(items.size());
+        for (Task item : items) {
+            if (item.getType() != TaskType.EPIC) {
+                timed.add(item);
+            }
+        }
+        Task conflicting = intervalIndex.findBatchConflict(timed, replacedIds::contains);
+        if (conflicting != null) {
+            throw new TaskTimeConflictException("Пакет отклонён: задача '" + conflicting.getTitle() +
+                    "' пересекается по времени с другой задачей");
+        }
+    }
+
+    // Пакет держит все полосы и индекс времени, поэтому весь пакет публикуется одной версией среза
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        lockAllEpics();
+        try {
+            timeLock.lock();
+            try {
+                for (Task item : items) {
+                    if (item instanceof Subtask subtask && !epics.containsKey(subtask.getEpicId())) {
+                        throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден");
+                    }
+                }
+                checkBatchConflicts(items, Set.of());
+
+                List<UnaryOperator<TaskSnapshot>> changes = new ArrayList<>(items.size());
+                Set<Epic> touchedEpics = new LinkedHashSet<>();
+                for (Task item : items) {
+                    item.setId(generateId());
+                    reindex(item);
+                    eventBus.created(item);
+                    switch (item.getType()) {
+                        case EPIC:
+                            Epic epic = (Epic) item;
+                            epics.put(epic.getId(), epic);
+                            Epic view = publishedCopyOf(epic);
+                            changes.add(current -> current.withEpic(view));
+                            break;
+                        case SUBTASK:
+                            Subtask subtask = (Subtask) item;
+                            subtasks.put(subtask.getId(), subtask);
+                            TimeSlot subtaskSlot = addToPrioritized(subtask);
+                            changes.add(current -> current.withSubtask(subtask).withSlot(subtaskSlot, subtask));
+                            Epic parent = epics.get(subtask.getEpicId());
+                            parent.addSubtaskId(subtask.getId());
+                            parent.trackSubtask(subtask);
+                            touchedEpics.add(parent);
+                            break;
+                        case TASK:
+                            tasks.put(item.getId(), item);
+                            TimeSlot slot = addToPrioritized(item);
+                            changes.add(current -> current.withTask(item).withSlot(slot, item));
+                    }
+                }
+                for (Epic touched : touchedEpics) {
+                    Epic view = updateEpicRollup(touched);
+                    changes.add(current -> current.withEpic(view));
+                }
+                publish(current -> {
+                    for (UnaryOperator<TaskSnapshot> change : changes) {
+                        current = change.apply(current);
+                    }
+                    return current;
+                });
+            } finally {
+                timeLock.unlock();
+            }
+        } finally {
+            eventBus.commit();
+            unlockAllEpics();
+        }
+        eventBus.flush();
+        return new ArrayList<>(items);
+    }
+
+    @Override
+    public void updateAll(List<? extends Task> items) {
+        lockAllEpics();
+        try {
+            timeLock.lock();
+            try {
+                List<Task> known = new ArrayList<>(items.size());
+                Set<Integer> replacedIds = new HashSet<>();
+                for (Task item : items) {
+                    Map<Integer, ? extends Task> storage = item.getType() == TaskType.EPIC ? epics
+                            : item.getType() == TaskType.SUBTASK ? subtasks : tasks;
+                    if (storage.containsKey(item.getId())) {
+                        if (!replacedIds.add(item.getId())) {
+                            throw new IllegalArgumentException("Задача с id " + item.getId() + " встречается в пакете дважды");
+                        }
+                        known.add(item);
+                    }
+                }
+                checkBatchConflicts(known, replacedIds);
+
+                List<UnaryOperator<TaskSnapshot>> changes = new ArrayList<>(known.size() * 2);
+                List<Task> before = new ArrayList<>(known.size());
+                for (Task item : known) {
+                    Map<Integer, ? extends Task> storage = item.getType() == TaskType.EPIC ? epics
+                            : item.getType() == TaskType.SUBTASK ? subtasks : tasks;
+                    before.add(eventBus.capture(storage.get(item.getId())));
+                    if (item.getType() != TaskType.EPIC) {
+                        TimeSlot oldSlot = removeFromPrioritized(item.getId());
+                        changes.add(current -> current.withoutSlot(oldSlot));
+                    }
+                }
+                Set<Epic> touchedEpics = new LinkedHashSet<>();
+                for (int i = 0; i < known.size(); i++) {
+                    Task item = known.get(i);
+                    switch (item.getType()) {
+                        case EPIC:
+                            Epic savedEpic = epics.get(item.getId());
+                            savedEpic.setTitle(item.getTitle());
+                            savedEpic.setDescription(item.getDescription());
+                            reindexText(savedEpic);
+                            Epic view = publishedCopyOf(savedEpic);
+                            changes.add(current -> current.withEpic(view));
+                            eventBus.updated(before.get(i), savedEpic);
+                            break;
+                        case SUBTASK:
+                            int epicId = subtasks.get(item.getId()).getEpicId();
+                            Subtask subtask = InMemoryTaskManager.keepEpic((Subtask) item, epicId);
+                            subtasks.put(subtask.getId(), subtask);
+                            reindex(subtask);
+                            eventBus.updated(before.get(i), subtask);
+                            TimeSlot subtaskSlot = addToPrioritized(subtask);
+                            changes.add(current -> current.withSubtask(subtask).withSlot(subtaskSlot, subtask));
+                            Epic epic = epics.get(epicId);
+                            if (epic != null) {
+                                epic.trackSubtask(subtask);
+                                touchedEpics.add(epic);
+                            }
+                            break;
+                        case TASK:
+                            tasks.put(item.getId(), item);
+                            reindex(item);
+                            eventBus.updated(before.get(i), item);
+                            TimeSlot slot = addToPrioritized(item);
+                            changes.add(current -> current.withTask(item).withSlot(slot, item));
+                    }
+                }
+                for (Epic touched : touchedEpics) {
+                    Epic view = updateEpicRollup(touched);
+                    changes.add(current -> current.withEpic(view));
+                }
+                publish(current -> {
+                    for (UnaryOperator<TaskSnapshot> change : changes) {
+                        current = change.apply(current);
+                    }
+                    return current;
+                });
+            } finally {
+                timeLock.unlock();
+            }
+        } finally {
+            eventBus.commit();
+            unlockAllEpics();
+        }
+        eventBus.flush();
+    }
+
+    // Блокировки реентерабельны: одиночные удаления внутри пакета берут уже захваченные полосы,
+    // а их события встают в очередь одним пакетом до снятия блокировок и уходят подписчикам после
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        lockAllEpics();
+        eventBus.begin();
+        try {
+            timeLock.lock();
+            try {
+                for (int id : ids) {
+                    if (tasks.containsKey(id)) {
+                        deleteTaskById(id);
+                    } else if (subtasks.containsKey(id)) {
+                        deleteSubtaskById(id);
+                    } else {
+                        deleteEpicById(id);
+                    }
+                }
+            } finally {
+                timeLock.unlock();
+            }
+        } finally {
+            eventBus.end();
+            unlockAllEpics();
+        }
+        eventBus.flush();
+    }
+
+    // Счётчики, эпики и загрузка считаются по одному опубликованному срезу: индекс статусов живой
+    // и может опередить срез, тогда сводка разошлась бы сама с собой
+    @Override
+    public TaskStatistics statistics() {
+        TaskSnapshot current = snapshot.get();
+        int[][] counts = new int[TaskType.values().length][Status.values().length];
+        Stream.of(current.getTasks(), current.getEpics(), current.getSubtasks())
+                .flatMap(List::stream)
+                .filter(task -> task.getStatus() != null)
+                .forEach(task -> counts[task.getType().ordinal()][task.getStatus().ordinal()]++);
+        return new TaskStatistics(TaskStatistics.countsOf((type, status) -> counts[type.ordinal()][status.ordinal()]),
+                TaskStatistics.plannedOf(current.getEpics().stream()),
+                TaskStatistics.workloadOf(Stream.concat(current.getTasks().parallelStream(),
+                        current.getSubtasks().parallelStream())));
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        eventBus.subscribe(listener);
+    }
+
+    @Override
+    public void subscribeAsync(TaskEventListener listener, Executor executor, int maxBatch) {
+        eventBus.subscribeAsync(listener, executor, maxBatch);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        eventBus.unsubscribe(listener);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practikum.manager;
+
+import java.time.Duration;
+
+/**
+ * Когда запись журнала считается сохранённой. Выбирается при создании менеджера, то есть на развёртывание.
+ */
+public final class Durability {
+    public enum Mode {
+        /**
+         * Операция ждёт FileChannel.force для своей записи. Записи, пришедшие одновременно
+         * из разных потоков, всё равно сбрасываются одной пачкой.
+         */
+        PER_WRITE,
+        /**
+         * Пишущий поток ждёт до maxDelay, собирая пачку, и делает один force на всю пачку;
+         * операция ждёт, пока её пачка не окажется на диске. Ожидание включается, только когда записи
+         * идут из нескольких потоков сразу, поэтому единственный пишущий поток задержки не платит.
+         */
+        BATCHED,
+        /**
+         * Операция не ждёт диска: пачки пишутся в фоне без force, данные сбрасывает операционная система.
+         * При падении машины теряются последние записи.
+         */
+        ASYNC
+    }
+
+    private static final Durability PER_WRITE = new Durability(Mode.PER_WRITE, Duration.ZERO);
+    private static final Durability ASYNC = new Durability(Mode.ASYNC, Duration.ZERO);
+
+    private final Mode mode;
+    private final Duration maxDelay;
+
+    private Durability(Mode mode, Duration maxDelay) {
+        this.mode = mode;
+        this.maxDelay = maxDelay;
+    }
+
+    public static Durability perWrite() {
+        return PER_WRITE;
+    }
+
+    public static Durability batched(Duration maxDelay) {
+        if (maxDelay == null || maxDelay.isNegative()) {
+            throw new IllegalArgumentException("Задержка пачки не может быть отрицательной");
+        }
+        return new Durability(Mode.BATCHED, maxDelay);
+    }
+
+    public static Durability async() {
+        return ASYNC;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.BATCHED ? mode + "(" + maxDelay.toMillis() + " мс)" : mode.toString();
+    }
+}
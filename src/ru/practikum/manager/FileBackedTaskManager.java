@@ -6,86 +6,378 @@ import ru.practikum.model.*;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 public class FileBackedTaskManager extends InMemoryTaskManager {
+    private static final int MIN_JOURNAL_BYTES = 1 << 20;
+    private static final ExecutorService SNAPSHOT_WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final File file;
+    private final PersistentHistoryManager historyLog;
+    private final Durability durability;
+    private final SnapshotFormat format;
+    private final TaskJournal journal;
+    private CompletableFuture<Void> snapshot = CompletableFuture.completedFuture(null);
+    // Ошибка снимка или переключения журнала, ещё не отданная awaitSnapshot
+    private Throwable snapshotFailure;
+    private volatile long snapshotBytes;
     private static final String HEADER = "id,type,name,status,description,duration,startTime,endTime,epic\n";
 
     public FileBackedTaskManager(File file) {
+        this(file, StorageEngine.HASH_MAP);
+    }
+
+    // Файл переписывается один раз на каждую изменяющую операцию, в том числе на пакетную.
+    // История просмотров пишется отдельно, в журнал рядом с файлом, и без ожидания диска
+    public FileBackedTaskManager(File file, StorageEngine engine) {
+        this(file, engine, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, StorageEngine engine, PersistenceMode mode) {
+        this(file, engine, mode, Durability.perWrite());
+    }
+
+    /**
+     * durability действует в режиме JOURNAL: от неё зависит, ждёт ли операция fsync своей записи журнала.
+     */
+    public FileBackedTaskManager(File file, StorageEngine engine, PersistenceMode mode, Durability durability) {
+        this(file, engine, mode, durability, SnapshotFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File file, StorageEngine engine, PersistenceMode mode, Durability durability,
+                                 SnapshotFormat format) {
+        this(file, engine, mode, durability, format,
+                new PersistentHistoryManager(Managers.getDefaultHistory(), historyFileOf(file)));
+    }
+
+    private FileBackedTaskManager(File file, StorageEngine engine, PersistenceMode mode, Durability durability,
+                                  SnapshotFormat format, PersistentHistoryManager historyLog) {
+        super(engine, historyLog, true);
         this.file = file;
+        this.historyLog = historyLog;
+        this.durability = durability;
+        this.format = format;
+        this.journal = mode == PersistenceMode.JOURNAL ? new TaskJournal(file, durability) : null;
+        this.snapshotBytes = file.length();
     }
 
-    protected void save() {
-        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(file))) {
-            bufferedWriter.write(HEADER);
+    /**
+     * Файл журнала истории для файла задач.
+     */
+    public static File historyFileOf(File file) {
+        return new File(file.getPath() + ".history");
+    }
 
-            Map<Integer, Task> sortedTasks = new TreeMap<>();
-            sortedTasks.putAll(tasks);
-            sortedTasks.putAll(epics);
-            sortedTasks.putAll(subtasks);
+    /**
+     * Дожидается записи накопленных просмотров в журнал истории.
+     */
+    public void flushHistory() {
+        historyLog.flush();
+    }
 
-            for (Task task : sortedTasks.values()) {
-                bufferedWriter.write(toString(task));
-                bufferedWriter.newLine();
+    /**
+     * Дожидается, пока журнал окажется в файле; нужно в режиме Durability.ASYNC, где операции диска не ждут.
+     */
+    public void flushJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при записи журнала", e);
+            }
+        }
+    }
+
+    /**
+     * Дожидается фонового снимка, если он пишется. Ошибку снимка бросает здесь, один раз:
+     * сами операции после записи в журнал не падают, а неудавшийся снимок повторится на следующем переключении.
+     */
+    public void awaitSnapshot() {
+        collectSnapshot();
+        if (snapshotFailure != null) {
+            Throwable cause = snapshotFailure;
+            snapshotFailure = null;
+            throw new ManagerSaveException("Ошибка при сохранении снимка", cause);
+        }
+    }
+
+    private void collectSnapshot() {
+        try {
+            snapshot.join();
+        } catch (CompletionException e) {
+            snapshotFailure = e.getCause();
+            snapshot = CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    protected void onEvents(List<TaskEvent> events) {
+        if (journal == null) {
+            save();
+            return;
+        }
+        List<String> records = new ArrayList<>(events.size());
+        for (TaskEvent event : events) {
+            if (event.getKind() == TaskEvent.Kind.DELETED) {
+                records.add("D," + event.getId());
+            } else {
+                records.add("U," + toString(event.getAfter()));
+            }
+        }
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи журнала", e);
+        }
+        if (journal.size() > Math.max(MIN_JOURNAL_BYTES, snapshotBytes)) {
+            checkpoint();
+        }
+    }
+
+    // Под вызывающим потоком снимаются только копии задач и откладывается журнал;
+    // форматирование и запись файла идут в фоне. Следующий снимок ждёт предыдущего.
+    // Операция к этому моменту уже в журнале, поэтому ошибки здесь только запоминаются для awaitSnapshot
+    private void checkpoint() {
+        collectSnapshot();
+        List<Task> state = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        tasks.values().forEach(task -> state.add(TaskEventBus.copyOf(task)));
+        epics.values().forEach(epic -> state.add(TaskEventBus.copyOf(epic)));
+        subtasks.values().forEach(subtask -> state.add(TaskEventBus.copyOf(subtask)));
+        try {
+            journal.rotate();
+        } catch (IOException e) {
+            snapshotFailure = e;
+            return;
+        }
+        snapshot = CompletableFuture.runAsync(() -> {
+            state.sort(Comparator.comparingInt(Task::getId));
+            try {
+                Path temp = file.toPath().resolveSibling(file.getName() + ".tmp");
+                write(temp.toFile(), format, state, durability.getMode() != Durability.Mode.ASYNC);
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshotBytes = file.length();
+                journal.dropRotated();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        }, SNAPSHOT_WRITER);
+    }
 
+    protected void save() {
+        export(file, format);
+    }
+
+    /**
+     * Записывает текущее состояние в файл target в заданном формате, например чтобы выгрузить CSV
+     * из менеджера, который сам хранит задачи в двоичном снимке.
+     */
+    public void export(File target, SnapshotFormat format) {
+        Map<Integer, Task> sortedTasks = new TreeMap<>();
+        sortedTasks.putAll(tasks);
+        sortedTasks.putAll(epics);
+        sortedTasks.putAll(subtasks);
+        try {
+            write(target, format, sortedTasks.values(), false);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении", e);
         }
     }
 
+    // Снимок, после которого удаляется журнал, сбрасывается на диск: иначе падение машины потеряло бы и то и другое
+    private void write(File target, SnapshotFormat format, Collection<Task> sortedTasks, boolean sync)
+            throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            BinarySnapshot.write(target, sortedTasks, PRIORITY_ORDER, sync);
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(target);
+             BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(out))) {
+            bufferedWriter.write(HEADER);
+            for (Task task : sortedTasks) {
+                bufferedWriter.write(toString(task));
+                bufferedWriter.newLine();
+            }
+            bufferedWriter.flush();
+            if (sync) {
+                out.getFD().sync();
+            }
+        }
+    }
+
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+        return loadFromFile(file, StorageEngine.HASH_MAP);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, StorageEngine engine) {
+        return loadFromFile(file, engine, PersistenceMode.SNAPSHOT);
+    }
 
-        if (!file.exists()) {
+    /**
+     * Загружает снимок и применяет к нему журналы, если они есть. После этого всё сводится в один файл,
+     * а журналы удаляются: последняя строка журнала могла оборваться, и дописывать после неё нельзя.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, StorageEngine engine, PersistenceMode mode) {
+        return loadFromFile(file, engine, mode, Durability.perWrite());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, StorageEngine engine, PersistenceMode mode,
+                                                     Durability durability) {
+        return loadFromFile(file, engine, mode, durability,
+                BinarySnapshot.isBinary(file) ? SnapshotFormat.BINARY : SnapshotFormat.CSV);
+    }
+
+    /**
+     * Файл читается в том формате, в каком записан; format задаёт, в каком формате менеджер будет сохранять
+     * его дальше. Если они различаются, файл сразу переписывается в новом формате.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, StorageEngine engine, PersistenceMode mode,
+                                                     Durability durability, SnapshotFormat format) {
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, engine, mode, durability,
+                format);
+        boolean journaled = TaskJournal.exists(file);
+
+        if (!file.exists() && !journaled) {
             throw new ManagerLoadException("Файл: " + file.getName() + " не существует");
         }
 
         try {
-            List<String> lines = Files.readAllLines(file.toPath());
-            if (lines.size() <= 1) return fileBackedTaskManager;
+            SnapshotFormat stored = format;
+            List<Task> loaded = new ArrayList<>();
+            List<Task> prioritized = null;
+            if (file.exists() && BinarySnapshot.isBinary(file)) {
+                stored = SnapshotFormat.BINARY;
+                BinarySnapshot.Contents contents = BinarySnapshot.read(file);
+                loaded = contents.getTasks();
+                prioritized = contents.getPrioritized();
+            } else if (file.exists()) {
+                stored = SnapshotFormat.CSV;
+                loaded = fileBackedTaskManager.readCsv(file);
+            }
+            if (journaled) {
+                loaded = fileBackedTaskManager.applyJournal(loaded);
+                prioritized = null;
+            }
+            fileBackedTaskManager.install(loaded, prioritized);
 
-            int maxId = 0;
+            if (journaled || stored != format) {
+                fileBackedTaskManager.save();
+                new TaskJournal(file, durability).reset();
+                fileBackedTaskManager.snapshotBytes = file.length();
+            }
+            fileBackedTaskManager.restoreHistory();
 
-            for (int i = 1; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
-                Task task = fileBackedTaskManager.fromString(line);
-                if (task.getId() > maxId) {
-                    maxId = task.getId();
-                }
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка чтения данных из файла: " + file.getName(), e);
+        }
+        return fileBackedTaskManager;
+    }
 
-                switch (task.getType()) {
-                    case TASK:
-                        fileBackedTaskManager.tasks.put(task.getId(), task);
-                        break;
-                    case EPIC:
-                        Epic epic = (Epic) task;
-                        fileBackedTaskManager.epics.put(epic.getId(), epic);
-                        break;
-                    case SUBTASK:
-                        Subtask subtask = (Subtask) task;
-                        fileBackedTaskManager.subtasks.put(subtask.getId(), subtask);
-                        Epic subEpic = fileBackedTaskManager.epics.get(subtask.getEpicId());
-                        if (subEpic != null) {
-                            subEpic.addSubtaskId(subtask.getId());
-                        }
-                        break;
+    private List<Task> readCsv(File file) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath());
+        List<Task> loaded = new ArrayList<>(lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (!line.isEmpty()) {
+                loaded.add(fromString(line));
+            }
+        }
+        return loaded;
+    }
+
+    private List<Task> applyJournal(List<Task> loaded) throws IOException {
+        SortedMap<Integer, Task> byId = new TreeMap<>();
+        loaded.forEach(task -> byId.put(task.getId(), task));
+        for (String record : TaskJournal.read(file)) {
+            String row = record.substring(2);
+            switch (record.charAt(0)) {
+                case 'U':
+                    byId.put(idOf(row), fromString(row));
+                    break;
+                case 'D':
+                    byId.remove(Integer.parseInt(row));
+                    break;
+                default:
+                    throw new ManagerLoadException("Неизвестная запись в журнале: " + record);
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    // Подзадачи привязываются вторым проходом, когда все эпики уже на месте. Приоритетный список строится
+    // одним упорядоченным набором: из двоичного снимка он приходит готовым, иначе сортируется здесь
+    private void install(List<Task> loaded, List<Task> prioritized) {
+        int maxId = 0;
+        for (Task task : loaded) {
+            if (task.getId() > maxId) {
+                maxId = task.getId();
+            }
+            reindex(task);
+
+            switch (task.getType()) {
+                case TASK:
+                    tasks.put(task.getId(), task);
+                    break;
+                case EPIC:
+                    epics.put(task.getId(), (Epic) task);
+                    break;
+                case SUBTASK:
+                    subtasks.put(task.getId(), (Subtask) task);
+                    break;
+            }
+        }
+        for (Task task : loaded) {
+            if (task instanceof Subtask subtask) {
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null) {
+                    attachSubtask(epic, subtask);
                 }
             }
+        }
+        if (prioritized == null) {
+            prioritized = new ArrayList<>();
+            for (Task task : loaded) {
+                if (task.getStartTime() != null && task.getType() != TaskType.EPIC) {
+                    prioritized.add(task);
+                }
+            }
+            prioritized.sort(PRIORITY_ORDER);
+        }
+        addAllToPrioritized(prioritized);
+        nextId = maxId + 1;
+    }
 
-            fileBackedTaskManager.nextId = maxId + 1;
+    private static int idOf(String row) {
+        return Integer.parseInt(row.substring(0, row.indexOf(',')));
+    }
 
-        } catch (IOException e) {
-            throw new ManagerLoadException("Ошибка чтения данных из файла: " + file.getName(), e);
+    private void restoreHistory() {
+        List<Task> viewed = new ArrayList<>();
+        for (int id : PersistentHistoryManager.replay(historyFileOf(file))) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = epics.get(id);
+            }
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task != null) {
+                viewed.add(task);
+            }
         }
-        return fileBackedTaskManager;
+        historyLog.restore(viewed);
     }
 
     protected String toString(Task task) {
@@ -152,7 +444,6 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             case TASK:
                 Task task = new Task(title, description, status, duration, startTime);
                 task.setId(id);
-                sortedTasks.add(task);
                 return task;
 
             case EPIC:
@@ -168,85 +459,9 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                 int epicId = Integer.parseInt(fields[8]);
                 Subtask subtask = new Subtask(title, description, status, epicId, duration, startTime);
                 subtask.setId(id);
-                sortedTasks.add(subtask);
                 return subtask;
             default:
                 throw new ManagerSaveException("Неизвестный тип задачи: " + type);
         }
     }
-
-    @Override
-    public Task createTask(Task task) {
-        Task createdTask = super.createTask(task);
-        save();
-        return createdTask;
-    }
-
-    @Override
-    public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
-    }
-
-    @Override
-    public void deleteTaskById(int id) {
-        super.deleteTaskById(id);
-        save();
-    }
-
-    @Override
-    public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
-    }
-
-    @Override
-    public Epic createEpic(Epic epic) {
-        Epic createdEpic = super.createEpic(epic);
-        save();
-        return createdEpic;
-    }
-
-    @Override
-    public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
-    }
-
-    @Override
-    public void deleteEpicById(int id) {
-        super.deleteEpicById(id);
-        save();
-    }
-
-    @Override
-    public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
-    }
-
-    @Override
-    public Subtask createSubtask(Subtask subtask) {
-        Subtask createdSubtask = super.createSubtask(subtask);
-        save();
-        return createdSubtask;
-    }
-
-    @Override
-    public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
-    }
-
-    @Override
-    public void deleteSubtaskById(int id) {
-        super.deleteSubtaskById(id);
-        save();
-    }
-
-    @Override
-    public void deleteAllSubtasks() {
-        super.deleteAllSubtasks();
-        save();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,192 @@
+package ru.practikum.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Дописывает байты в конец файла из своего потока. Вызывающие только ставят запись в очередь и получают future;
+ * поток забирает всё накопившееся, пишет одним gathering-write и, если режим этого требует,
+ * делает один FileChannel.force на пачку. Так одновременные операции платят за один fsync вместе.
+ * В режиме BATCHED поток ждёт добора пачки, только если записи приходят из нескольких потоков:
+ * одиночная запись при пустой очереди после одиночной же пачки уходит сразу, ждать ей некого.
+ * Порядок записей в файле совпадает с порядком вызовов append.
+ */
+final class GroupCommitWriter {
+    private static final int MAX_BATCH_BYTES = 1 << 20;
+
+    private static final class Request {
+        final ByteBuffer bytes;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Request(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final Path path;
+    private final Durability durability;
+    // Под монитором this
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private int queuedBytes;
+    private long batchStarted;
+    private int lastBatchSize;
+    private boolean closed;
+    private IOException failure;
+    private Thread thread;
+
+    GroupCommitWriter(Path path, Durability durability) {
+        this.path = path;
+        this.durability = durability;
+    }
+
+    /**
+     * Ставит байты в очередь. Future завершается, когда они записаны и, кроме режима ASYNC, сброшены на диск.
+     * В режиме ASYNC ошибка записи не теряется: её бросит следующий append или close.
+     */
+    synchronized CompletableFuture<Void> append(ByteBuffer bytes) throws IOException {
+        if (closed) {
+            throw new IOException("Журнал закрыт: " + path);
+        }
+        rethrowFailure();
+        Request request = new Request(bytes);
+        if (queue.isEmpty()) {
+            batchStarted = System.nanoTime();
+        }
+        queue.add(request);
+        queuedBytes += bytes.remaining();
+        if (thread == null) {
+            thread = new Thread(this::run, "journal-writer-" + path.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+        notifyAll();
+        return request.done;
+    }
+
+    /**
+     * Дожидается записи всего, что уже в очереди, сбрасывает файл на диск и закрывает его.
+     */
+    void close() throws IOException {
+        Thread writer;
+        synchronized (this) {
+            closed = true;
+            writer = thread;
+            notifyAll();
+        }
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Прервано ожидание журнала: " + path, e);
+            }
+        }
+        synchronized (this) {
+            rethrowFailure();
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        if (failure != null) {
+            IOException cause = failure;
+            failure = null;
+            throw cause;
+        }
+    }
+
+    private void run() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            List<Request> batch;
+            while ((batch = nextBatch()) != null) {
+                write(channel, batch);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Поток завершается; ждущие получают ошибку сразу, а в режиме ASYNC её бросит следующий append.
+    // Следующий append запустит поток заново
+    private synchronized void fail(IOException e) {
+        for (Request request : queue) {
+            request.done.completeExceptionally(e);
+        }
+        queue.clear();
+        queuedBytes = 0;
+        if (durability.getMode() == Durability.Mode.ASYNC || closed) {
+            failure = e;
+        }
+        thread = null;
+    }
+
+    private synchronized List<Request> nextBatch() throws InterruptedException {
+        while (queue.isEmpty() && !closed) {
+            wait();
+        }
+        if (queue.isEmpty()) {
+            return null;
+        }
+        if (durability.getMode() == Durability.Mode.BATCHED && (queue.size() > 1 || lastBatchSize > 1)) {
+            long deadline = batchStarted + durability.getMaxDelay().toNanos();
+            long remaining;
+            while (!closed && queuedBytes < MAX_BATCH_BYTES && (remaining = deadline - System.nanoTime()) > 0) {
+                wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+            }
+        }
+        List<Request> batch = new ArrayList<>(queue);
+        lastBatchSize = batch.size();
+        queue.clear();
+        queuedBytes = 0;
+        return batch;
+    }
+
+    private void write(FileChannel channel, List<Request> batch) throws IOException {
+        try {
+            ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = batch.get(i).bytes;
+            }
+            ByteBuffer last = buffers[buffers.length - 1];
+            while (last.hasRemaining()) {
+                channel.write(buffers);
+            }
+            if (durability.getMode() != Durability.Mode.ASYNC) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            for (Request request : batch) {
+                request.done.completeExceptionally(e);
+            }
+            throw e;
+        }
+        for (Request request : batch) {
+            request.done.complete(null);
+        }
+    }
+
+    /**
+     * Ждёт future записи и разворачивает её ошибку обратно в IOException.
+     */
+    static void await(CompletableFuture<Void> written) throws IOException {
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -3,11 +3,19 @@ package ru.practikum.manager;
 import ru.practikum.model.Task;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface HistoryManager {
     void add(Task task);
 
     List<Task> getHistory();
 
+    /**
+     * Последние limit просмотров в том же порядке, что и getHistory: от давних к недавним.
+     */
+    List<Task> getHistory(int limit);
+
+    void forEach(Consumer<? super Task> action);
+
     void remove(int id);
 }
@@ -3,11 +3,18 @@ package ru.practikum.manager;
 import ru.practikum.model.Task;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+/**
+ * История просмотров: двусвязный список и индекс id → узел. С ограничением ёмкости при переполнении
+ * вытесняется самый давний просмотр, поэтому память не растёт с числом когда-либо просмотренных задач.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
 
     private static class Node {
         Task task;
@@ -22,14 +29,29 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     private final Map<Integer, Node> historyMap = new HashMap<>();
+    private final int capacity;
     private Node head;
     private Node tail;
 
+    public InMemoryHistoryManager() {
+        this(UNBOUNDED);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+    }
+
     @Override
     public void add(Task task) {
         if (task == null) return;
         remove(task.getId());
         addToEnd(task);
+        if (historyMap.size() > capacity) {
+            remove(head.task.getId());
+        }
     }
 
     @Override
@@ -37,6 +59,30 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    // Идём от хвоста ровно limit шагов, а не по всей цепочке
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит истории не может быть отрицательным");
+        }
+        Task[] recent = new Task[Math.min(limit, historyMap.size())];
+        Node current = tail;
+        for (int i = recent.length - 1; i >= 0; i--) {
+            recent[i] = current.task;
+            current = current.prev;
+        }
+        return new ArrayList<>(Arrays.asList(recent));
+    }
+
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        Node current = head;
+        while (current != null) {
+            action.accept(current.task);
+            current = current.next;
+        }
+    }
+
     @Override
     public void remove(int id) {
         Node node = historyMap.get(id);
@@ -61,11 +107,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     private List<Task> getTasks() {
         List<Task> tasks = new ArrayList<>();
-        Node current = head;
-        while (current != null) {
-            tasks.add(current.task);
-            current = current.next;
-        }
+        forEach(tasks::add);
         return tasks;
     }
 
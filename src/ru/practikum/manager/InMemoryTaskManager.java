@@ -5,55 +5,137 @@ import ru.practikum.model.Status;
 import ru.practikum.model.Task;
 import ru.practikum.model.Epic;
 import ru.practikum.model.Subtask;
+import ru.practikum.model.TaskType;
+import ru.practikum.util.IntMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class InMemoryTaskManager implements TaskManager {
     protected int nextId = 1;
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HistoryManager historyManager = Managers.getDefaultHistory();
-    protected final TreeSet<Task> sortedTasks = new TreeSet<>(
+    protected final IntMap<Task> tasks;
+    protected final IntMap<Epic> epics;
+    protected final IntMap<Subtask> subtasks;
+    protected final HistoryManager historyManager;
+    protected static final Comparator<Task> PRIORITY_ORDER =
             Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
-                    .thenComparing(Task::getType).thenComparing(Task::getId));
+                    .thenComparing(Task::getType).thenComparingInt(Task::getId);
+    protected final TreeSet<Task> sortedTasks = new TreeSet<>(PRIORITY_ORDER);
+    private final TimeIndex intervalIndex;
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final TaskEventBus eventBus;
+
+    public InMemoryTaskManager() {
+        this(StorageEngine.HASH_MAP);
+    }
+
+    public InMemoryTaskManager(StorageEngine engine) {
+        this(engine, Managers.getDefaultHistory());
+    }
 
-    private void addToPrioritized(Task task) {
+    public InMemoryTaskManager(StorageEngine engine, HistoryManager historyManager) {
+        this(engine, historyManager, false);
+    }
+
+    /**
+     * recordEvents включает запись событий без подписчиков: их получает {@link #onEvents(List)} подкласса.
+     */
+    protected InMemoryTaskManager(StorageEngine engine, HistoryManager historyManager, boolean recordEvents) {
+        this.eventBus = new TaskEventBus(recordEvents);
+        this.historyManager = historyManager;
+        this.tasks = engine.createMap();
+        this.epics = engine.createMap();
+        this.subtasks = engine.createMap();
+        this.intervalIndex = engine.createTimeIndex();
+    }
+
+    protected void addToPrioritized(Task task) {
         if (task.getStartTime() != null) {
             sortedTasks.add(task);
+            intervalIndex.add(task);
         }
     }
 
+    /**
+     * Добавляет задачи, уже упорядоченные по PRIORITY_ORDER: в CompactIntervalIndex они по возрастанию
+     * дописываются в последний блок без сдвигов.
+     */
+    protected void addAllToPrioritized(List<Task> ordered) {
+        ordered.forEach(intervalIndex::add);
+        sortedTasks.addAll(ordered);
+    }
+
+    protected void removeFromPrioritized(Task task) {
+        sortedTasks.remove(task);
+        intervalIndex.remove(task.getId());
+    }
+
+    protected void reindex(Task task) {
+        statusIndex.update(task);
+        searchIndex.update(task);
+    }
+
+    private void unindex(int id) {
+        statusIndex.remove(id);
+        searchIndex.remove(id);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return new ArrayList<>(sortedTasks);
     }
 
-    private boolean hasTimeConflictWith(Task task1, Task task2) {
-        if (task1.getStartTime() == null || task2.getStartTime() == null ||
-                task1.getDuration() == null || task2.getDuration() == null) {
-            return false;
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода не может быть позже его конца");
         }
-        LocalDateTime start1 = task1.getStartTime();
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime start2 = task2.getStartTime();
-        LocalDateTime end2 = task2.getEndTime();
-        return start1.isBefore(end2) && end1.isAfter(start2);
+        List<Task> window = new ArrayList<>();
+        Task running = intervalIndex.findRunningAt(from);
+        if (running != null) {
+            window.add(running);
+        }
+        window.addAll(sortedTasks.subSet(timeProbe(from), timeProbe(to)));
+        return window;
     }
 
-    private boolean isOverlappingWithAny(Task task) {
-        if (task.getStartTime() == null || task.getDuration() == null) {
-            return false;
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime notBefore) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность должна быть неотрицательной");
         }
-        for (Task existingTask : sortedTasks) {
-            if (!existingTask.equals(task) && hasTimeConflictWith(task, existingTask)) {
-                return true;
-            }
+        return intervalIndex.findFreeSlot(duration, notBefore);
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(Task task, LocalDateTime notBefore) {
+        task.setStartTime(findNextFreeSlot(task.getDuration(), notBefore));
+        return createTask(task);
+    }
+
+    @Override
+    public Subtask createSubtaskInFreeSlot(Subtask subtask, LocalDateTime notBefore) {
+        if (!epics.containsKey(subtask.getEpicId())) {
+            return null;
         }
-        return false;
+        subtask.setStartTime(findNextFreeSlot(subtask.getDuration(), notBefore));
+        return createSubtask(subtask);
+    }
+
+    // Задача-граница для subSet: стоит раньше всех задач, начинающихся в момент start
+    private static Task timeProbe(LocalDateTime start) {
+        Task probe = new Task(null, null, null, null, start);
+        probe.setId(Integer.MIN_VALUE);
+        return probe;
+    }
+
+    private boolean isOverlappingWithAny(Task task) {
+        return intervalIndex.hasConflictWith(task);
     }
 
     protected int generateId() {
@@ -63,28 +145,13 @@ public class InMemoryTaskManager implements TaskManager {
     protected void updateEpicStatus(int epicId) {
         Epic epic = epics.get(epicId);
         if (epic == null) return;
+        epic.setStatus(epic.calculateStatus());
+        statusIndex.update(epic);
+    }
 
-        List<Status> statuses = epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(Subtask::getStatus)
-                .toList();
-
-        if (statuses.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
-        }
-
-        boolean allNew = statuses.stream().allMatch(Status.NEW::equals);
-        boolean allDone = statuses.stream().allMatch(Status.DONE::equals);
-
-        if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
-        }
+    protected void attachSubtask(Epic epic, Subtask subtask) {
+        epic.addSubtaskId(subtask.getId());
+        epic.trackSubtask(subtask);
     }
 
     private void updateEpicTime(int epicId) {
@@ -92,43 +159,20 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return;
         }
+        epic.setDuration(epic.calculateDuration());
+        epic.setStartTime(epic.calculateStartTime());
+        epic.setEndTime(epic.calculateEndTime());
+    }
 
-        List<Integer> subtaskIds = epic.getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setDuration(Duration.ZERO);
-            epic.setStartTime(null);
-            epic.setEndTime(null);
+    private void rollUpEpic(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
             return;
         }
-
-        Duration totalDuration = Duration.ZERO;
-        LocalDateTime earliestStartTime = null;
-        LocalDateTime latestEndTime = null;
-
-        for (int subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask == null) {
-                continue;
-            }
-            if (subtask.getDuration() != null) {
-                totalDuration = totalDuration.plus(subtask.getDuration());
-            }
-            if (subtask.getStartTime() != null) {
-                if (earliestStartTime == null || subtask.getStartTime().isBefore(earliestStartTime)) {
-                    earliestStartTime = subtask.getStartTime();
-                }
-            }
-            LocalDateTime subtaskEndTime = subtask.getEndTime();
-            if (subtaskEndTime != null) {
-                if (latestEndTime == null || subtaskEndTime.isAfter(latestEndTime)) {
-                    latestEndTime = subtaskEndTime;
-                }
-            }
-        }
-
-        epic.setDuration(totalDuration);
-        epic.setStartTime(earliestStartTime);
-        epic.setEndTime(latestEndTime);
+        Task before = eventBus.captureRollup(epic);
+        updateEpicStatus(epicId);
+        updateEpicTime(epicId);
+        eventBus.rolledUp(before, epic);
     }
 
     @Override
@@ -138,9 +182,13 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllTasks() {
-        tasks.values().forEach(sortedTasks::remove);
+        tasks.values().forEach(eventBus::deleted);
+        tasks.values().forEach(this::removeFromPrioritized);
         tasks.keySet().forEach(historyManager::remove);
+        tasks.keySet().forEach(searchIndex::remove);
         tasks.clear();
+        statusIndex.clear(TaskType.TASK);
+        flushEvents();
     }
 
     @Override
@@ -159,6 +207,9 @@ public class InMemoryTaskManager implements TaskManager {
         task.setId(generateId());
         tasks.put(task.getId(), task);
         addToPrioritized(task);
+        reindex(task);
+        eventBus.created(task);
+        flushEvents();
         return task;
     }
 
@@ -167,13 +218,16 @@ public class InMemoryTaskManager implements TaskManager {
         if (tasks.containsKey(task.getId())) {
             Task existingTask = tasks.get(task.getId());
             if (isOverlappingWithAny(task)) {
-                addToPrioritized(existingTask);
                 throw new TaskTimeConflictException("Задача '" + task.getTitle() +
                         "' пересекается по времени с существующей задачей");
             }
-            sortedTasks.remove(existingTask);
+            Task before = eventBus.capture(existingTask);
+            removeFromPrioritized(existingTask);
             tasks.put(task.getId(), task);
             addToPrioritized(task);
+            reindex(task);
+            eventBus.updated(before, task);
+            flushEvents();
         }
     }
 
@@ -181,8 +235,11 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteTaskById(int id) {
         Task task = tasks.remove(id);
         if (task != null) {
-            sortedTasks.remove(task);
+            removeFromPrioritized(task);
+            unindex(id);
             historyManager.remove(id);
+            eventBus.deleted(task);
+            flushEvents();
         }
     }
 
@@ -193,13 +250,20 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllEpics() {
-        subtasks.values().forEach(sortedTasks::remove);
+        subtasks.values().forEach(eventBus::deleted);
+        epics.values().forEach(eventBus::deleted);
+        subtasks.values().forEach(this::removeFromPrioritized);
         epics.values().forEach(epic -> {
             historyManager.remove(epic.getId());
-            epic.getSubtaskIds().forEach(historyManager::remove);
+            epic.forEachSubtaskId(historyManager::remove);
         });
+        epics.keySet().forEach(searchIndex::remove);
+        subtasks.keySet().forEach(searchIndex::remove);
         epics.clear();
         subtasks.clear();
+        statusIndex.clear(TaskType.EPIC);
+        statusIndex.clear(TaskType.SUBTASK);
+        flushEvents();
     }
 
     @Override
@@ -213,6 +277,9 @@ public class InMemoryTaskManager implements TaskManager {
     public Epic createEpic(Epic epic) {
         epic.setId(generateId());
         epics.put(epic.getId(), epic);
+        reindex(epic);
+        eventBus.created(epic);
+        flushEvents();
         return epic;
     }
 
@@ -220,24 +287,37 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateEpic(Epic epic) {
         Epic savedEpic = epics.get(epic.getId());
         if (savedEpic != null) {
+            Task before = eventBus.capture(savedEpic);
             savedEpic.setTitle(epic.getTitle());
             savedEpic.setDescription(epic.getDescription());
+            searchIndex.update(savedEpic);
+            eventBus.updated(before, savedEpic);
+            flushEvents();
         }
     }
 
     @Override
     public void deleteEpicById(int id) {
+        removeEpic(id);
+        flushEvents();
+    }
+
+    private void removeEpic(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
-            sortedTasks.remove(epic);
-            for (int subtaskId : epic.getSubtaskIds()) {
+            removeFromPrioritized(epic);
+            unindex(id);
+            for (int subtaskId : epic.getSubtaskIdArray()) {
                 Subtask subtask = subtasks.remove(subtaskId);
                 if (subtask != null) {
-                    sortedTasks.remove(subtask);
+                    removeFromPrioritized(subtask);
+                    unindex(subtaskId);
+                    eventBus.deleted(subtask);
                 }
                 historyManager.remove(subtaskId);
             }
             historyManager.remove(id);
+            eventBus.deleted(epic);
         }
     }
 
@@ -248,14 +328,18 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllSubtasks() {
-        subtasks.values().forEach(sortedTasks::remove);
+        subtasks.values().forEach(eventBus::deleted);
+        subtasks.values().forEach(this::removeFromPrioritized);
         subtasks.keySet().forEach(historyManager::remove);
+        subtasks.keySet().forEach(searchIndex::remove);
         subtasks.clear();
+        statusIndex.clear(TaskType.SUBTASK);
         epics.values().forEach(epic -> {
-            epic.getSubtaskIds().clear();
-            updateEpicStatus(epic.getId());
-            updateEpicTime(epic.getId());
+            epic.clearSubtaskIds();
+            epic.untrackAllSubtasks();
+            rollUpEpic(epic.getId());
         });
+        flushEvents();
     }
 
     @Override
@@ -277,10 +361,12 @@ public class InMemoryTaskManager implements TaskManager {
         }
         subtask.setId(generateId());
         subtasks.put(subtask.getId(), subtask);
-        epics.get(epicId).addSubtaskId(subtask.getId());
+        attachSubtask(epics.get(epicId), subtask);
         addToPrioritized(subtask);
-        updateEpicStatus(epicId);
-        updateEpicTime(epicId);
+        reindex(subtask);
+        eventBus.created(subtask);
+        rollUpEpic(epicId);
+        flushEvents();
         return subtask;
     }
 
@@ -296,42 +382,336 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TaskTimeConflictException("Подзадача '" + subtask.getTitle() +
                     "' пересекается по времени с существующей задачей");
         }
-        sortedTasks.remove(savedSubtask);
+        subtask = keepEpic(subtask, epicId);
+        Task before = eventBus.capture(savedSubtask);
+        removeFromPrioritized(savedSubtask);
         subtasks.put(subtaskId, subtask);
         addToPrioritized(subtask);
-        updateEpicStatus(epicId);
-        updateEpicTime(epicId);
+        reindex(subtask);
+        eventBus.updated(before, subtask);
+        Epic epic = epics.get(epicId);
+        if (epic != null) {
+            epic.trackSubtask(subtask);
+        }
+        rollUpEpic(epicId);
+        flushEvents();
     }
 
     @Override
     public void deleteSubtaskById(int id) {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
-            sortedTasks.remove(subtask);
+            removeFromPrioritized(subtask);
+            unindex(id);
             int epicId = subtask.getEpicId();
             Epic epic = epics.get(epicId);
+            eventBus.deleted(subtask);
             if (epic != null) {
                 epic.removeSubtaskId(id);
-                updateEpicStatus(epicId);
-                updateEpicTime(epicId);
+                epic.untrackSubtask(id);
+                rollUpEpic(epicId);
             }
             historyManager.remove(id);
+            flushEvents();
         }
     }
 
     @Override
     public List<Subtask> getSubtasksByEpicId(int epicId) {
-        return Optional.ofNullable(epics.get(epicId))
-                .map(Epic::getSubtaskIds)
-                .orElse(Collections.emptyList())
-                .stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<Subtask> epicSubtasks = new ArrayList<>();
+        forEachSubtaskOfEpic(epicId, epicSubtasks::add);
+        return epicSubtasks;
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    @Override
+    public void forEachSubtaskOfEpic(int epicId, Consumer<? super Subtask> action) {
+        Epic epic = epics.get(epicId);
+        if (epic != null) {
+            epic.forEachSubtaskId(subtaskId -> {
+                Subtask subtask = subtasks.get(subtaskId);
+                if (subtask != null) {
+                    action.accept(subtask);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        sortedTasks.forEach(action);
+    }
+
+    @Override
+    public void forEachInHistory(Consumer<? super Task> action) {
+        historyManager.forEach(action);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return statusIndex.collect(TaskType.TASK, status, tasks::get);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return statusIndex.collect(TaskType.EPIC, status, epics::get);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return statusIndex.collect(TaskType.SUBTASK, status, subtasks::get);
+    }
+
+    @Override
+    public List<Task> search(String query) {
+        int[] ids = searchIndex.search(query);
+        List<Task> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = epics.get(id);
+            }
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
     }
 
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
+    private void checkBatchConflicts(List<? extends Task> items, Set<Integer> replacedIds) {
+        List<Task> timed = new ArrayList<>(items.size());
+        for (Task item : items) {
+            // Время эпика выводится из подзадач и в индексе не участвует
+            if (item.getType() != TaskType.EPIC) {
+                timed.add(item);
+            }
+        }
+        Task conflicting = intervalIndex.findBatchConflict(timed, replacedIds::contains);
+        if (conflicting != null) {
+            throw new TaskTimeConflictException("Пакет отклонён: задача '" + conflicting.getTitle() +
+                    "' пересекается по времени с другой задачей");
+        }
+    }
+
+    private void updateEpics(Set<Integer> epicIds) {
+        for (int epicId : epicIds) {
+            rollUpEpic(epicId);
+        }
+    }
+
+    private boolean isStored(Task item) {
+        switch (item.getType()) {
+            case EPIC:
+                return epics.containsKey(item.getId());
+            case SUBTASK:
+                return subtasks.containsKey(item.getId());
+            default:
+                return tasks.containsKey(item.getId());
+        }
+    }
+
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        for (Task item : items) {
+            if (item instanceof Subtask subtask && !epics.containsKey(subtask.getEpicId())) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден");
+            }
+        }
+        checkBatchConflicts(items, Set.of());
+
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (Task item : items) {
+            item.setId(generateId());
+            reindex(item);
+            eventBus.created(item);
+            switch (item.getType()) {
+                case EPIC:
+                    epics.put(item.getId(), (Epic) item);
+                    break;
+                case SUBTASK:
+                    Subtask subtask = (Subtask) item;
+                    subtasks.put(subtask.getId(), subtask);
+                    attachSubtask(epics.get(subtask.getEpicId()), subtask);
+                    addToPrioritized(subtask);
+                    touchedEpics.add(subtask.getEpicId());
+                    break;
+                case TASK:
+                    tasks.put(item.getId(), item);
+                    addToPrioritized(item);
+            }
+        }
+        updateEpics(touchedEpics);
+        flushEvents();
+        return new ArrayList<>(items);
+    }
+
+    @Override
+    public void updateAll(List<? extends Task> items) {
+        List<Task> known = new ArrayList<>(items.size());
+        Set<Integer> replacedIds = new HashSet<>();
+        for (Task item : items) {
+            if (isStored(item)) {
+                if (!replacedIds.add(item.getId())) {
+                    throw new IllegalArgumentException("Задача с id " + item.getId() + " встречается в пакете дважды");
+                }
+                known.add(item);
+            }
+        }
+        checkBatchConflicts(known, replacedIds);
+
+        // Сначала освобождаем старые интервалы всего пакета, иначе задачи, меняющиеся местами, мешали бы друг другу
+        List<Task> before = new ArrayList<>(known.size());
+        for (Task item : known) {
+            if (item.getType() == TaskType.SUBTASK) {
+                before.add(eventBus.capture(subtasks.get(item.getId())));
+                removeFromPrioritized(subtasks.get(item.getId()));
+            } else if (item.getType() == TaskType.TASK) {
+                before.add(eventBus.capture(tasks.get(item.getId())));
+                removeFromPrioritized(tasks.get(item.getId()));
+            } else {
+                before.add(eventBus.capture(epics.get(item.getId())));
+            }
+        }
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (int i = 0; i < known.size(); i++) {
+            Task item = known.get(i);
+            switch (item.getType()) {
+                case EPIC:
+                    Epic savedEpic = epics.get(item.getId());
+                    savedEpic.setTitle(item.getTitle());
+                    savedEpic.setDescription(item.getDescription());
+                    searchIndex.update(savedEpic);
+                    eventBus.updated(before.get(i), savedEpic);
+                    break;
+                case SUBTASK:
+                    int epicId = subtasks.get(item.getId()).getEpicId();
+                    Subtask subtask = keepEpic((Subtask) item, epicId);
+                    subtasks.put(subtask.getId(), subtask);
+                    addToPrioritized(subtask);
+                    reindex(subtask);
+                    eventBus.updated(before.get(i), subtask);
+                    Epic epic = epics.get(epicId);
+                    if (epic != null) {
+                        epic.trackSubtask(subtask);
+                        touchedEpics.add(epicId);
+                    }
+                    break;
+                case TASK:
+                    tasks.put(item.getId(), item);
+                    addToPrioritized(item);
+                    reindex(item);
+                    eventBus.updated(before.get(i), item);
+            }
+        }
+        updateEpics(touchedEpics);
+        flushEvents();
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (int id : ids) {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                removeFromPrioritized(task);
+                unindex(id);
+                historyManager.remove(id);
+                eventBus.deleted(task);
+                continue;
+            }
+            Subtask subtask = subtasks.remove(id);
+            if (subtask != null) {
+                removeFromPrioritized(subtask);
+                unindex(id);
+                eventBus.deleted(subtask);
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null) {
+                    epic.removeSubtaskId(id);
+                    epic.untrackSubtask(id);
+                    touchedEpics.add(epic.getId());
+                }
+                historyManager.remove(id);
+                continue;
+            }
+            removeEpic(id);
+        }
+        updateEpics(touchedEpics);
+        flushEvents();
+    }
+
+    // Счётчики берутся из индекса статусов, длительности эпиков уже пересчитаны, загрузка — параллельным проходом
+    @Override
+    public TaskStatistics statistics() {
+        return new TaskStatistics(TaskStatistics.countsOf(statusIndex::count),
+                TaskStatistics.plannedOf(epics.values().stream()),
+                TaskStatistics.workloadOf(Stream.concat(tasks.values().parallelStream(),
+                        subtasks.values().parallelStream())));
+    }
+
+    /**
+     * Подзадача с epicId сохранённой версии. Хранится именно она: иначе счётчики отслеживались бы
+     * на одном эпике, а удаление снимало бы подзадачу с другого.
+     */
+    static Subtask keepEpic(Subtask subtask, int epicId) {
+        if (subtask.getEpicId() == epicId) {
+            return subtask;
+        }
+        Subtask pinned = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(), epicId,
+                subtask.getDuration(), subtask.getStartTime());
+        pinned.setId(subtask.getId());
+        return pinned;
+    }
+
+    private void flushEvents() {
+        eventBus.flush(this::onEvents);
+    }
+
+    /**
+     * События завершённой операции для подкласса, включившего recordEvents. Вызывается в потоке операции
+     * раньше подписчиков; исключение отсюда получит вызвавший операцию.
+     */
+    protected void onEvents(List<TaskEvent> events) {
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        eventBus.subscribe(listener);
+    }
+
+    @Override
+    public void subscribeAsync(TaskEventListener listener, Executor executor, int maxBatch) {
+        eventBus.subscribeAsync(listener, executor, maxBatch);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        eventBus.unsubscribe(listener);
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс временных интервалов задач на дереве, упорядоченном по времени начала.
+ * Интервалы не перекрываются, поэтому для проверки новой задачи достаточно посмотреть на ближайших соседей слева.
+ */
+class IntervalIndex implements TimeIndex {
+
+    private static class Entry {
+        final Task task;
+        final int id;
+        final LocalDateTime start;
+        final LocalDateTime end;
+
+        Entry(Task task, int id, LocalDateTime start, LocalDateTime end) {
+            this.task = task;
+            this.id = id;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean isEmpty() {
+            return !end.isAfter(start);
+        }
+    }
+
+    private final TreeSet<Entry> byStart = new TreeSet<>(
+            Comparator.<Entry, LocalDateTime>comparing(entry -> entry.start)
+                    .thenComparingInt(entry -> entry.id));
+    private final Map<Integer, Entry> byId = new HashMap<>();
+
+    @Override
+    public void add(Task task) {
+        put(task.getId(), task);
+    }
+
+    private void put(int key, Task task) {
+        remove(key);
+        if (task.getStartTime() == null || task.getDuration() == null) {
+            return;
+        }
+        Entry entry = new Entry(task, key, task.getStartTime(), task.getEndTime());
+        byStart.add(entry);
+        byId.put(entry.id, entry);
+    }
+
+    @Override
+    public void remove(int id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            byStart.remove(entry);
+        }
+    }
+
+    @Override
+    public void clear() {
+        byStart.clear();
+        byId.clear();
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public boolean hasConflictWith(Task task) {
+        return hasConflictWith(task, id -> false);
+    }
+
+    @Override
+    public boolean hasConflictWith(Task task, IntPredicate replaced) {
+        if (task.getStartTime() == null || task.getDuration() == null) {
+            return false;
+        }
+        int id = task.getId();
+        return hasConflict(task.getStartTime(), task.getEndTime(), key -> key == id || replaced.test(key));
+    }
+
+    @Override
+    public Task findBatchConflict(List<? extends Task> batch, IntPredicate replaced) {
+        // Задачи пакета могут быть ещё без id, поэтому внутри пакета ключом служит позиция
+        IntervalIndex accepted = new IntervalIndex();
+        for (int position = 0; position < batch.size(); position++) {
+            Task task = batch.get(position);
+            if (task.getStartTime() == null || task.getDuration() == null) {
+                continue;
+            }
+            if (hasConflictWith(task, replaced)
+                    || accepted.hasConflict(task.getStartTime(), task.getEndTime(), key -> false)) {
+                return task;
+            }
+            accepted.put(position, task);
+        }
+        return null;
+    }
+
+    @Override
+    public Task findRunningAt(LocalDateTime at) {
+        Entry probe = new Entry(null, Integer.MIN_VALUE, at, at);
+        for (Entry entry : byStart.headSet(probe, false).descendingSet()) {
+            if (!entry.isEmpty()) {
+                return entry.end.isAfter(at) ? entry.task : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore) {
+        LocalDateTime candidate = notBefore;
+        Task running = findRunningAt(candidate);
+        if (running != null) {
+            candidate = byId.get(running.getId()).end;
+        }
+        Entry probe = new Entry(null, Integer.MIN_VALUE, candidate, candidate);
+        for (Entry entry : byStart.tailSet(probe, true)) {
+            if (!entry.start.isBefore(candidate.plus(duration))) {
+                break;
+            }
+            // Пустой интервал мешает, только если лежит строго внутри промежутка
+            if (entry.end.isAfter(candidate)) {
+                candidate = entry.end;
+            }
+        }
+        return candidate;
+    }
+
+    private boolean hasConflict(LocalDateTime start, LocalDateTime end, IntPredicate skipped) {
+        Entry probe = new Entry(null, Integer.MIN_VALUE, end, end);
+
+        for (Entry entry : byStart.headSet(probe, false).descendingSet()) {
+            if (skipped.test(entry.id)) {
+                continue;
+            }
+            if (entry.end.isAfter(start)) {
+                return true;
+            }
+            // Непустой интервал закончился до начала задачи: все более ранние закончились ещё раньше
+            if (!entry.isEmpty()) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
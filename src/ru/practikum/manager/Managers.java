@@ -8,7 +8,40 @@ public final class Managers {
         return new InMemoryHistoryManager();
     }
 
+    /**
+     * История, хранящая не больше capacity последних просмотров.
+     */
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    /**
+     * История на массивах: add и remove в установившемся режиме не выделяют памяти.
+     */
+    public static HistoryManager getArrayHistory(int capacity) {
+        return new ArrayHistoryManager(capacity);
+    }
+
+    /**
+     * Потокобезопасная история с буферизацией просмотров по потокам.
+     */
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
+
+    public static TaskManager getDefault(StorageEngine engine) {
+        return new InMemoryTaskManager(engine);
+    }
+
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getOffHeap() {
+        return new OffHeapTaskManager();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package ru.practikum.manager;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Записи фиксированной длины в прямых ByteBuffer-блоках вне кучи. Запись адресуется номером слота,
+ * освобождённые слоты переиспользуются. Таблица id → слот тоже лежит вне кучи,
+ * поэтому в куче остаются только массивы ссылок на блоки.
+ * Раскладку полей задаёт вызывающий; первые 4 байта свободного слота заняты списком свободных слотов.
+ */
+final class OffHeapRecords {
+    static final int NONE = -1;
+
+    private static final int SLOT_BITS = 13;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int ID_BITS = 16;
+    private static final int ID_MASK = (1 << ID_BITS) - 1;
+
+    private final int recordSize;
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private ByteBuffer[] idChunks = new ByteBuffer[4];
+    private int slotCount;
+    private int freeSlot = NONE;
+    private int size;
+
+    OffHeapRecords(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    int allocate() {
+        int slot = freeSlot;
+        if (slot != NONE) {
+            freeSlot = getInt(slot, 0);
+            putInt(slot, 0, 0);
+        } else {
+            slot = slotCount++;
+            int chunk = slot >>> SLOT_BITS;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunk * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = ByteBuffer.allocateDirect(recordSize << SLOT_BITS);
+            }
+        }
+        size++;
+        return slot;
+    }
+
+    void free(int slot) {
+        ByteBuffer chunk = chunks[slot >>> SLOT_BITS];
+        int offset = (slot & SLOT_MASK) * recordSize;
+        for (int i = 0; i < recordSize; i += Long.BYTES) {
+            chunk.putLong(offset + i, 0);
+        }
+        chunk.putInt(offset, freeSlot);
+        freeSlot = slot;
+        size--;
+    }
+
+    /**
+     * Число слотов, выданных за всё время: живые записи лежат среди слотов [0, slotCount()).
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slotOf(int id) {
+        int chunk = id >>> ID_BITS;
+        if (id <= 0 || chunk >= idChunks.length || idChunks[chunk] == null) {
+            return NONE;
+        }
+        return idChunks[chunk].getInt((id & ID_MASK) * Integer.BYTES) - 1;
+    }
+
+    void bind(int id, int slot) {
+        int chunk = id >>> ID_BITS;
+        if (chunk >= idChunks.length) {
+            idChunks = Arrays.copyOf(idChunks, Math.max(chunk + 1, idChunks.length * 2));
+        }
+        if (idChunks[chunk] == null) {
+            idChunks[chunk] = ByteBuffer.allocateDirect(Integer.BYTES << ID_BITS);
+        }
+        idChunks[chunk].putInt((id & ID_MASK) * Integer.BYTES, slot + 1);
+    }
+
+    void unbind(int id) {
+        if (slotOf(id) != NONE) {
+            idChunks[id >>> ID_BITS].putInt((id & ID_MASK) * Integer.BYTES, 0);
+        }
+    }
+
+    private ByteBuffer chunk(int slot) {
+        return chunks[slot >>> SLOT_BITS];
+    }
+
+    private int offset(int slot, int field) {
+        return (slot & SLOT_MASK) * recordSize + field;
+    }
+
+    byte getByte(int slot, int field) {
+        return chunk(slot).get(offset(slot, field));
+    }
+
+    void putByte(int slot, int field, int value) {
+        chunk(slot).put(offset(slot, field), (byte) value);
+    }
+
+    int getInt(int slot, int field) {
+        return chunk(slot).getInt(offset(slot, field));
+    }
+
+    void putInt(int slot, int field, int value) {
+        chunk(slot).putInt(offset(slot, field), value);
+    }
+
+    long getLong(int slot, int field) {
+        return chunk(slot).getLong(offset(slot, field));
+    }
+
+    void putLong(int slot, int field, long value) {
+        chunk(slot).putLong(offset(slot, field), value);
+    }
+}
@@ -0,0 +1,1264 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.TaskTimeConflictException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+import ru.practikum.util.Utf8Arena;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Менеджер для очень больших досок: задачи хранятся записями фиксированной длины вне кучи (OffHeapRecords),
+ * названия и описания — в арене UTF-8 (Utf8Arena). Все связи между записями — номера слотов внутри самих записей:
+ * <ul>
+ *     <li>AVL-дерево по (начало, тип, id) с максимумом конца в поддереве — порядок приоритета и проверка пересечений;</li>
+ *     <li>двусвязные списки по типу, по паре «тип, статус», история просмотров и подзадачи каждого эпика.</li>
+ * </ul>
+ * Поэтому число объектов в куче не зависит от размера доски и сборщику мусора нечего обходить.
+ * Методы возвращают копии: чтобы изменения попали в менеджер, задачу нужно передать в update.
+ * Поиск по тексту проходит по всем записям: инвертированный индекс пришлось бы держать в куче.
+ */
+public class OffHeapTaskManager implements TaskManager {
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int FLAGS = 6;
+    private static final int START = 8;
+    private static final int DURATION = 16;
+    private static final int END = 24;
+    private static final int MAX_END = 32;
+    private static final int TITLE = 40;
+    private static final int DESCRIPTION = 48;
+    private static final int TITLE_LENGTH = 56;
+    private static final int DESCRIPTION_LENGTH = 60;
+    private static final int EPIC_ID = 64;
+    private static final int LEFT = 68;
+    private static final int RIGHT = 72;
+    private static final int HEIGHT = 76;
+    private static final int TYPE_PREV = 80;
+    private static final int TYPE_NEXT = 84;
+    private static final int STATUS_PREV = 88;
+    private static final int STATUS_NEXT = 92;
+    private static final int HISTORY_PREV = 96;
+    private static final int HISTORY_NEXT = 100;
+    private static final int SIBLING_PREV = 104;
+    private static final int SIBLING_NEXT = 108;
+    private static final int FIRST_CHILD = 112;
+    private static final int LAST_CHILD = 116;
+    private static final int RECORD_SIZE = 128;
+
+    private static final int HAS_START = 1;
+    private static final int HAS_DURATION = 2;
+    private static final int HAS_END = 4;
+    private static final int IN_TREE = 8;
+    private static final int IN_HISTORY = 16;
+
+    private static final int NONE = OffHeapRecords.NONE;
+    private static final int NULL_STRING = -1;
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final int HISTORY_LIST = TYPES.length * (STATUSES.length + 1);
+
+    private final OffHeapRecords records = new OffHeapRecords(RECORD_SIZE);
+    private Utf8Arena strings = new Utf8Arena();
+    // Списки: [0, TYPES.length) — по типу, дальше — по паре «тип, статус», последний — история
+    private final int[] heads = new int[HISTORY_LIST + 1];
+    private final int[] tails = new int[HISTORY_LIST + 1];
+    private final int[] sizes = new int[HISTORY_LIST + 1];
+    private int root = NONE;
+    private int nextId = 1;
+    private final TaskEventBus eventBus = new TaskEventBus();
+
+    public OffHeapTaskManager() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+    }
+
+    private static int typeList(TaskType type) {
+        return type.ordinal();
+    }
+
+    private static int statusList(TaskType type, Status status) {
+        return TYPES.length + type.ordinal() * STATUSES.length + status.ordinal();
+    }
+
+    // ----- поля записи -----
+
+    private TaskType typeOf(int slot) {
+        return TYPES[records.getByte(slot, TYPE) - 1];
+    }
+
+    private Status statusOf(int slot) {
+        int status = records.getByte(slot, STATUS);
+        return status == 0 ? null : STATUSES[status - 1];
+    }
+
+    private int idOf(int slot) {
+        return records.getInt(slot, ID);
+    }
+
+    private boolean hasFlag(int slot, int flag) {
+        return (records.getByte(slot, FLAGS) & flag) != 0;
+    }
+
+    private void setFlag(int slot, int flag, boolean value) {
+        int flags = records.getByte(slot, FLAGS);
+        records.putByte(slot, FLAGS, value ? flags | flag : flags & ~flag);
+    }
+
+    private long startOf(int slot) {
+        return records.getLong(slot, START);
+    }
+
+    // Конец интервала задачи; без длительности задача ни с чем не пересекается
+    private long ownEnd(int slot) {
+        return hasFlag(slot, HAS_START) && hasFlag(slot, HAS_DURATION) ? records.getLong(slot, END) : Long.MIN_VALUE;
+    }
+
+    private int slotOf(int id, TaskType type) {
+        int slot = records.slotOf(id);
+        return slot != NONE && typeOf(slot) == type ? slot : NONE;
+    }
+
+    private void write(int slot, Task task) {
+        records.putInt(slot, ID, task.getId());
+        records.putByte(slot, TYPE, task.getType().ordinal() + 1);
+        records.putByte(slot, STATUS, task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        int flags = records.getByte(slot, FLAGS) & (IN_TREE | IN_HISTORY);
+        long start = 0;
+        if (task.getStartTime() != null) {
+            start = CompactIntervalIndex.toNanos(task.getStartTime());
+            records.putLong(slot, START, start);
+            flags |= HAS_START;
+        }
+        if (task.getDuration() != null) {
+            records.putLong(slot, DURATION, task.getDuration().toNanos());
+            flags |= HAS_DURATION;
+        }
+        if (task instanceof Epic epic) {
+            if (epic.getEndTime() != null) {
+                records.putLong(slot, END, CompactIntervalIndex.toNanos(epic.getEndTime()));
+                flags |= HAS_END;
+            }
+        } else if ((flags & HAS_START) != 0 && (flags & HAS_DURATION) != 0) {
+            records.putLong(slot, END, endNanos(start, task.getDuration()));
+        }
+        records.putByte(slot, FLAGS, flags);
+        if (task instanceof Subtask subtask) {
+            records.putInt(slot, EPIC_ID, subtask.getEpicId());
+        }
+        writeText(slot, task.getTitle(), task.getDescription());
+    }
+
+    // Проверяет время до того, как запись начнут менять: иначе исключение оставило бы её наполовину записанной
+    private static void checkTimeRange(Task task) {
+        CompactIntervalIndex.checkRange(task);
+    }
+
+    private static long endNanos(long start, Duration duration) {
+        return CompactIntervalIndex.endNanos(start, duration);
+    }
+
+    private void writeText(int slot, String title, String description) {
+        releaseString(slot, TITLE_LENGTH);
+        releaseString(slot, DESCRIPTION_LENGTH);
+        writeString(slot, TITLE, TITLE_LENGTH, title);
+        writeString(slot, DESCRIPTION, DESCRIPTION_LENGTH, description);
+        if (strings.freedBytes() > COMPACTION_THRESHOLD && strings.freedBytes() > strings.liveBytes()) {
+            compactStrings();
+        }
+    }
+
+    private void writeString(int slot, int refField, int lengthField, String value) {
+        if (value == null) {
+            records.putInt(slot, lengthField, NULL_STRING);
+            return;
+        }
+        byte[] bytes = Utf8Arena.encode(value);
+        records.putLong(slot, refField, strings.write(bytes));
+        records.putInt(slot, lengthField, bytes.length);
+    }
+
+    private void releaseString(int slot, int lengthField) {
+        int length = records.getInt(slot, lengthField);
+        if (length > 0) {
+            strings.free(length);
+        }
+    }
+
+    private String readString(int slot, int refField, int lengthField) {
+        int length = records.getInt(slot, lengthField);
+        return length == NULL_STRING ? null : strings.read(records.getLong(slot, refField), length);
+    }
+
+    // Переписывает живые строки в новую арену; старые блоки освободит сборщик вместе с их ByteBuffer
+    private void compactStrings() {
+        Utf8Arena compacted = new Utf8Arena();
+        for (int slot = 0; slot < records.slotCount(); slot++) {
+            if (records.getByte(slot, TYPE) == 0) {
+                continue;
+            }
+            copyString(slot, TITLE, TITLE_LENGTH, compacted);
+            copyString(slot, DESCRIPTION, DESCRIPTION_LENGTH, compacted);
+        }
+        strings = compacted;
+    }
+
+    private void copyString(int slot, int refField, int lengthField, Utf8Arena target) {
+        int length = records.getInt(slot, lengthField);
+        if (length != NULL_STRING) {
+            records.putLong(slot, refField, strings.copyTo(target, records.getLong(slot, refField), length));
+        }
+    }
+
+    private Task read(int slot) {
+        String title = readString(slot, TITLE, TITLE_LENGTH);
+        String description = readString(slot, DESCRIPTION, DESCRIPTION_LENGTH);
+        Status status = statusOf(slot);
+        Duration duration = hasFlag(slot, HAS_DURATION) ? Duration.ofNanos(records.getLong(slot, DURATION)) : null;
+        LocalDateTime start = hasFlag(slot, HAS_START) ? CompactIntervalIndex.fromNanos(startOf(slot)) : null;
+        Task task;
+        switch (typeOf(slot)) {
+            case EPIC:
+                Epic epic = new Epic(title, description);
+                epic.setStatus(status);
+                epic.setDuration(duration);
+                epic.setStartTime(start);
+                if (hasFlag(slot, HAS_END)) {
+                    epic.setEndTime(CompactIntervalIndex.fromNanos(records.getLong(slot, END)));
+                }
+                for (int child = records.getInt(slot, FIRST_CHILD); child != NONE;
+                     child = records.getInt(child, SIBLING_NEXT)) {
+                    epic.addSubtaskId(idOf(child));
+                }
+                task = epic;
+                break;
+            case SUBTASK:
+                task = new Subtask(title, description, status, records.getInt(slot, EPIC_ID), duration, start);
+                break;
+            default:
+                task = new Task(title, description, status, duration, start);
+        }
+        task.setId(idOf(slot));
+        return task;
+    }
+
+    // ----- события: копии с записей снимаются, только когда есть подписчики -----
+
+    private Task capture(int slot) {
+        return eventBus.isActive() ? read(slot) : null;
+    }
+
+    private void recordCreated(int slot) {
+        if (eventBus.isActive()) {
+            eventBus.created(read(slot));
+        }
+    }
+
+    private void recordUpdated(Task before, int slot) {
+        if (before != null) {
+            eventBus.updated(before, read(slot));
+        }
+    }
+
+    private void recordDeleted(int slot) {
+        if (eventBus.isActive()) {
+            eventBus.deleted(read(slot));
+        }
+    }
+
+    // ----- списки -----
+
+    private void append(int list, int slot, int prevField, int nextField) {
+        int tail = tails[list];
+        records.putInt(slot, prevField, tail);
+        records.putInt(slot, nextField, NONE);
+        if (tail == NONE) {
+            heads[list] = slot;
+        } else {
+            records.putInt(tail, nextField, slot);
+        }
+        tails[list] = slot;
+        sizes[list]++;
+    }
+
+    private void unlink(int list, int slot, int prevField, int nextField) {
+        int prev = records.getInt(slot, prevField);
+        int next = records.getInt(slot, nextField);
+        if (prev == NONE) {
+            heads[list] = next;
+        } else {
+            records.putInt(prev, nextField, next);
+        }
+        if (next == NONE) {
+            tails[list] = prev;
+        } else {
+            records.putInt(next, prevField, prev);
+        }
+        sizes[list]--;
+    }
+
+    private void linkStatus(int slot) {
+        Status status = statusOf(slot);
+        if (status != null) {
+            append(statusList(typeOf(slot), status), slot, STATUS_PREV, STATUS_NEXT);
+        }
+    }
+
+    private void unlinkStatus(int slot) {
+        Status status = statusOf(slot);
+        if (status != null) {
+            unlink(statusList(typeOf(slot), status), slot, STATUS_PREV, STATUS_NEXT);
+        }
+    }
+
+    private void attachChild(int epicSlot, int slot) {
+        int last = records.getInt(epicSlot, LAST_CHILD);
+        records.putInt(slot, SIBLING_PREV, last);
+        records.putInt(slot, SIBLING_NEXT, NONE);
+        if (last == NONE) {
+            records.putInt(epicSlot, FIRST_CHILD, slot);
+        } else {
+            records.putInt(last, SIBLING_NEXT, slot);
+        }
+        records.putInt(epicSlot, LAST_CHILD, slot);
+    }
+
+    private void detachChild(int epicSlot, int slot) {
+        int prev = records.getInt(slot, SIBLING_PREV);
+        int next = records.getInt(slot, SIBLING_NEXT);
+        if (prev == NONE) {
+            records.putInt(epicSlot, FIRST_CHILD, next);
+        } else {
+            records.putInt(prev, SIBLING_NEXT, next);
+        }
+        if (next == NONE) {
+            records.putInt(epicSlot, LAST_CHILD, prev);
+        } else {
+            records.putInt(next, SIBLING_PREV, prev);
+        }
+    }
+
+    private void addToHistory(int slot) {
+        if (hasFlag(slot, IN_HISTORY)) {
+            unlink(HISTORY_LIST, slot, HISTORY_PREV, HISTORY_NEXT);
+        }
+        append(HISTORY_LIST, slot, HISTORY_PREV, HISTORY_NEXT);
+        setFlag(slot, IN_HISTORY, true);
+    }
+
+    // ----- дерево интервалов -----
+
+    private int compareKeys(int first, int second) {
+        int cmp = Long.compare(startOf(first), startOf(second));
+        if (cmp == 0) {
+            cmp = Integer.compare(records.getByte(first, TYPE), records.getByte(second, TYPE));
+        }
+        return cmp != 0 ? cmp : Integer.compare(idOf(first), idOf(second));
+    }
+
+    private int height(int node) {
+        return node == NONE ? 0 : records.getInt(node, HEIGHT);
+    }
+
+    private long maxEnd(int node) {
+        return node == NONE ? Long.MIN_VALUE : records.getLong(node, MAX_END);
+    }
+
+    private int left(int node) {
+        return records.getInt(node, LEFT);
+    }
+
+    private int right(int node) {
+        return records.getInt(node, RIGHT);
+    }
+
+    private void refresh(int node) {
+        int left = left(node);
+        int right = right(node);
+        records.putInt(node, HEIGHT, Math.max(height(left), height(right)) + 1);
+        records.putLong(node, MAX_END, Math.max(ownEnd(node), Math.max(maxEnd(left), maxEnd(right))));
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left(node);
+        records.putInt(node, LEFT, right(pivot));
+        records.putInt(pivot, RIGHT, node);
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right(node);
+        records.putInt(node, RIGHT, left(pivot));
+        records.putInt(pivot, LEFT, node);
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+
+    private int balance(int node) {
+        refresh(node);
+        int left = left(node);
+        int right = right(node);
+        if (height(left) > height(right) + 1) {
+            if (height(left(left)) < height(right(left))) {
+                records.putInt(node, LEFT, rotateLeft(left));
+            }
+            return rotateRight(node);
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right(right)) < height(left(right))) {
+                records.putInt(node, RIGHT, rotateRight(right));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private int insert(int node, int slot) {
+        if (node == NONE) {
+            records.putInt(slot, LEFT, NONE);
+            records.putInt(slot, RIGHT, NONE);
+            refresh(slot);
+            return slot;
+        }
+        if (compareKeys(slot, node) < 0) {
+            records.putInt(node, LEFT, insert(left(node), slot));
+        } else {
+            records.putInt(node, RIGHT, insert(right(node), slot));
+        }
+        return balance(node);
+    }
+
+    private int delete(int node, int slot) {
+        if (node == NONE) {
+            return NONE;
+        }
+        int cmp = compareKeys(slot, node);
+        if (cmp < 0) {
+            records.putInt(node, LEFT, delete(left(node), slot));
+        } else if (cmp > 0) {
+            records.putInt(node, RIGHT, delete(right(node), slot));
+        } else {
+            int left = left(node);
+            int right = right(node);
+            if (left == NONE) {
+                return right;
+            }
+            if (right == NONE) {
+                return left;
+            }
+            int min = right;
+            while (left(min) != NONE) {
+                min = left(min);
+            }
+            records.putInt(min, RIGHT, deleteMin(right));
+            records.putInt(min, LEFT, left);
+            node = min;
+        }
+        return balance(node);
+    }
+
+    private int deleteMin(int node) {
+        if (left(node) == NONE) {
+            return right(node);
+        }
+        records.putInt(node, LEFT, deleteMin(left(node)));
+        return balance(node);
+    }
+
+    private void addToPrioritized(int slot) {
+        if (hasFlag(slot, HAS_START)) {
+            root = insert(root, slot);
+            setFlag(slot, IN_TREE, true);
+        }
+    }
+
+    private void removeFromPrioritized(int slot) {
+        if (hasFlag(slot, IN_TREE)) {
+            root = delete(root, slot);
+            setFlag(slot, IN_TREE, false);
+        }
+    }
+
+    // Любая задача из поддерева, пересекающаяся с [start, end) и не пропущенная skipped
+    private int findOverlap(int node, long start, long end, IntPredicate skipped) {
+        if (node == NONE || maxEnd(node) <= start) {
+            return NONE;
+        }
+        int found = findOverlap(left(node), start, end, skipped);
+        if (found != NONE) {
+            return found;
+        }
+        if (startOf(node) >= end) {
+            return NONE;
+        }
+        if (ownEnd(node) > start && !skipped.test(idOf(node))) {
+            return node;
+        }
+        return findOverlap(right(node), start, end, skipped);
+    }
+
+    private int findRunningAt(long at) {
+        return findOverlap(root, at, at, id -> false);
+    }
+
+    // Обходит дерево по возрастанию начиная с первой задачи, начавшейся не раньше from, пока visitor возвращает true
+    private void forEachPrioritizedFrom(long from, IntPredicate visitor) {
+        int[] path = new int[64];
+        int depth = 0;
+        int node = root;
+        while (node != NONE) {
+            if (startOf(node) >= from) {
+                path[depth++] = node;
+                node = left(node);
+            } else {
+                node = right(node);
+            }
+        }
+        while (depth > 0) {
+            node = path[--depth];
+            if (!visitor.test(node)) {
+                return;
+            }
+            for (node = right(node); node != NONE; node = left(node)) {
+                path[depth++] = node;
+            }
+        }
+    }
+
+    private boolean hasStoredConflict(Task task, IntPredicate replaced) {
+        if (task.getStartTime() == null || task.getDuration() == null) {
+            return false;
+        }
+        long start = CompactIntervalIndex.toNanos(task.getStartTime());
+        long end = endNanos(start, task.getDuration());
+        int id = task.getId();
+        return findOverlap(root, start, end, key -> key == id || replaced.test(key)) != NONE;
+    }
+
+    private void checkConflict(Task task, String kind) {
+        if (hasStoredConflict(task, id -> false)) {
+            throw new TaskTimeConflictException(kind + " '" + task.getTitle() +
+                    "' пересекается по времени с существующей задачей");
+        }
+    }
+
+    // ----- жизненный цикл записи -----
+
+    private int store(Task task) {
+        checkTimeRange(task);
+        task.setId(nextId++);
+        int slot = records.allocate();
+        write(slot, task);
+        records.bind(task.getId(), slot);
+        append(typeList(task.getType()), slot, TYPE_PREV, TYPE_NEXT);
+        linkStatus(slot);
+        return slot;
+    }
+
+    private void replace(int slot, Task task) {
+        checkTimeRange(task);
+        removeFromPrioritized(slot);
+        unlinkStatus(slot);
+        write(slot, task);
+        linkStatus(slot);
+        addToPrioritized(slot);
+    }
+
+    private void release(int slot) {
+        recordDeleted(slot);
+        discard(slot);
+    }
+
+    private void discard(int slot) {
+        removeFromPrioritized(slot);
+        unlinkStatus(slot);
+        unlink(typeList(typeOf(slot)), slot, TYPE_PREV, TYPE_NEXT);
+        if (hasFlag(slot, IN_HISTORY)) {
+            unlink(HISTORY_LIST, slot, HISTORY_PREV, HISTORY_NEXT);
+        }
+        releaseString(slot, TITLE_LENGTH);
+        releaseString(slot, DESCRIPTION_LENGTH);
+        records.unbind(idOf(slot));
+        records.free(slot);
+    }
+
+    private void removeSubtask(int slot) {
+        int epicSlot = slotOf(records.getInt(slot, EPIC_ID), TaskType.EPIC);
+        if (epicSlot != NONE) {
+            detachChild(epicSlot, slot);
+        }
+        release(slot);
+    }
+
+    // Эпик попадает в событие раньше подзадач: после их освобождения его список подзадач уже не прочитать
+    private void removeEpic(int slot) {
+        recordDeleted(slot);
+        releaseChildren(slot);
+        discard(slot);
+    }
+
+    private void releaseChildren(int epicSlot) {
+        int child = records.getInt(epicSlot, FIRST_CHILD);
+        while (child != NONE) {
+            int next = records.getInt(child, SIBLING_NEXT);
+            release(child);
+            child = next;
+        }
+        records.putInt(epicSlot, FIRST_CHILD, NONE);
+        records.putInt(epicSlot, LAST_CHILD, NONE);
+    }
+
+    private void updateEpic(int epicSlot) {
+        updateEpic(epicSlot, capture(epicSlot));
+    }
+
+    // Статус, длительность и время эпика за один проход по его подзадачам
+    private void updateEpic(int epicSlot, Task before) {
+        int total = 0;
+        int[] counts = new int[STATUSES.length];
+        long duration = 0;
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (int child = records.getInt(epicSlot, FIRST_CHILD); child != NONE;
+             child = records.getInt(child, SIBLING_NEXT)) {
+            total++;
+            Status status = statusOf(child);
+            if (status != null) {
+                counts[status.ordinal()]++;
+            }
+            if (hasFlag(child, HAS_DURATION)) {
+                duration += records.getLong(child, DURATION);
+            }
+            if (hasFlag(child, HAS_START)) {
+                start = Math.min(start, startOf(child));
+                end = Math.max(end, ownEnd(child));
+            }
+        }
+        Status status;
+        if (total == 0 || counts[Status.NEW.ordinal()] == total) {
+            status = Status.NEW;
+        } else if (counts[Status.DONE.ordinal()] == total) {
+            status = Status.DONE;
+        } else {
+            status = Status.IN_PROGRESS;
+        }
+        unlinkStatus(epicSlot);
+        records.putByte(epicSlot, STATUS, status.ordinal() + 1);
+        linkStatus(epicSlot);
+        records.putLong(epicSlot, DURATION, duration);
+        records.putLong(epicSlot, START, start);
+        records.putLong(epicSlot, END, end);
+        setFlag(epicSlot, HAS_DURATION, true);
+        setFlag(epicSlot, HAS_START, start != Long.MAX_VALUE);
+        setFlag(epicSlot, HAS_END, end != Long.MIN_VALUE);
+        if (before != null) {
+            eventBus.rolledUp(before, (Epic) read(epicSlot));
+        }
+    }
+
+    private void updateEpics(Set<Integer> epicIds) {
+        for (int epicId : epicIds) {
+            int epicSlot = slotOf(epicId, TaskType.EPIC);
+            if (epicSlot != NONE) {
+                updateEpic(epicSlot);
+            }
+        }
+    }
+
+    private <T extends Task> void forEachInList(int list, int nextField, Consumer<? super T> action) {
+        for (int slot = heads[list]; slot != NONE; slot = records.getInt(slot, nextField)) {
+            @SuppressWarnings("unchecked")
+            T task = (T) read(slot);
+            action.accept(task);
+        }
+    }
+
+    private <T extends Task> List<T> listOf(TaskType type) {
+        List<T> result = new ArrayList<>();
+        this.<T>forEachInList(typeList(type), TYPE_NEXT, result::add);
+        return result;
+    }
+
+    private void deleteAllOfType(TaskType type) {
+        int slot = heads[typeList(type)];
+        while (slot != NONE) {
+            int next = records.getInt(slot, TYPE_NEXT);
+            release(slot);
+            slot = next;
+        }
+    }
+
+    private Task getById(int id, TaskType type) {
+        int slot = slotOf(id, type);
+        if (slot == NONE) {
+            return null;
+        }
+        addToHistory(slot);
+        return read(slot);
+    }
+
+    // ----- TaskManager -----
+
+    @Override
+    public List<Task> getAllTasks() {
+        return listOf(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        deleteAllOfType(TaskType.TASK);
+        eventBus.flush();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return getById(id, TaskType.TASK);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        checkConflict(task, "Задача");
+        int slot = store(task);
+        addToPrioritized(slot);
+        recordCreated(slot);
+        eventBus.flush();
+        return task;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        int slot = slotOf(task.getId(), TaskType.TASK);
+        if (slot != NONE) {
+            checkConflict(task, "Задача");
+            Task before = capture(slot);
+            replace(slot, task);
+            recordUpdated(before, slot);
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        int slot = slotOf(id, TaskType.TASK);
+        if (slot != NONE) {
+            release(slot);
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return listOf(TaskType.EPIC);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        // Подзадачи без эпика не бывает, поэтому они уходят вместе со своими эпиками
+        int slot = heads[typeList(TaskType.EPIC)];
+        while (slot != NONE) {
+            int next = records.getInt(slot, TYPE_NEXT);
+            removeEpic(slot);
+            slot = next;
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return (Epic) getById(id, TaskType.EPIC);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        int slot = store(epic);
+        records.putInt(slot, FIRST_CHILD, NONE);
+        records.putInt(slot, LAST_CHILD, NONE);
+        recordCreated(slot);
+        eventBus.flush();
+        return epic;
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        int slot = slotOf(epic.getId(), TaskType.EPIC);
+        if (slot != NONE) {
+            Task before = capture(slot);
+            writeText(slot, epic.getTitle(), epic.getDescription());
+            recordUpdated(before, slot);
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        int slot = slotOf(id, TaskType.EPIC);
+        if (slot != NONE) {
+            removeEpic(slot);
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return listOf(TaskType.SUBTASK);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        for (int epicSlot = heads[typeList(TaskType.EPIC)]; epicSlot != NONE;
+             epicSlot = records.getInt(epicSlot, TYPE_NEXT)) {
+            Task before = capture(epicSlot);
+            releaseChildren(epicSlot);
+            updateEpic(epicSlot, before);
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return (Subtask) getById(id, TaskType.SUBTASK);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        int epicSlot = slotOf(subtask.getEpicId(), TaskType.EPIC);
+        if (epicSlot == NONE) {
+            return null;
+        }
+        checkConflict(subtask, "Подзадача");
+        int slot = store(subtask);
+        attachChild(epicSlot, slot);
+        addToPrioritized(slot);
+        recordCreated(slot);
+        updateEpic(epicSlot);
+        eventBus.flush();
+        return subtask;
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        int slot = slotOf(subtask.getId(), TaskType.SUBTASK);
+        if (slot == NONE) {
+            return;
+        }
+        checkConflict(subtask, "Подзадача");
+        // Подзадача остаётся в своём эпике, даже если в переданном объекте другой epicId
+        int epicId = records.getInt(slot, EPIC_ID);
+        Task before = capture(slot);
+        replace(slot, subtask);
+        records.putInt(slot, EPIC_ID, epicId);
+        recordUpdated(before, slot);
+        int epicSlot = slotOf(epicId, TaskType.EPIC);
+        if (epicSlot != NONE) {
+            updateEpic(epicSlot);
+        }
+        eventBus.flush();
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        int slot = slotOf(id, TaskType.SUBTASK);
+        if (slot != NONE) {
+            int epicSlot = slotOf(records.getInt(slot, EPIC_ID), TaskType.EPIC);
+            removeSubtask(slot);
+            if (epicSlot != NONE) {
+                updateEpic(epicSlot);
+            }
+            eventBus.flush();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        List<Subtask> epicSubtasks = new ArrayList<>();
+        forEachSubtaskOfEpic(epicId, epicSubtasks::add);
+        return epicSubtasks;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>();
+        forEachInHistory(history::add);
+        return history;
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит истории не может быть отрицательным");
+        }
+        Task[] recent = new Task[Math.min(limit, sizes[HISTORY_LIST])];
+        int slot = tails[HISTORY_LIST];
+        for (int i = recent.length - 1; i >= 0; i--) {
+            recent[i] = read(slot);
+            slot = records.getInt(slot, HISTORY_PREV);
+        }
+        return new ArrayList<>(Arrays.asList(recent));
+    }
+
+    private <T extends Task> List<T> collectByStatus(TaskType type, Status status) {
+        int list = statusList(type, status);
+        int[] ids = new int[16];
+        int count = 0;
+        for (int slot = heads[list]; slot != NONE; slot = records.getInt(slot, STATUS_NEXT)) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = idOf(slot);
+        }
+        Arrays.sort(ids, 0, count);
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            @SuppressWarnings("unchecked")
+            T task = (T) read(records.slotOf(ids[i]));
+            result.add(task);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return collectByStatus(TaskType.TASK, status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return collectByStatus(TaskType.EPIC, status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return collectByStatus(TaskType.SUBTASK, status);
+    }
+
+    @Override
+    public List<Task> search(String query) {
+        Set<String> prefixes = SearchIndex.tokenize(query);
+        List<Task> found = new ArrayList<>();
+        if (prefixes.isEmpty()) {
+            return found;
+        }
+        for (int id = 1; id < nextId; id++) {
+            int slot = records.slotOf(id);
+            if (slot == NONE) {
+                continue;
+            }
+            Set<String> terms = SearchIndex.tokenize(readString(slot, TITLE, TITLE_LENGTH));
+            terms.addAll(SearchIndex.tokenize(readString(slot, DESCRIPTION, DESCRIPTION_LENGTH)));
+            if (prefixes.stream().allMatch(prefix -> terms.stream().anyMatch(term -> term.startsWith(prefix)))) {
+                found.add(read(slot));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        forEachInList(typeList(TaskType.TASK), TYPE_NEXT, action);
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        forEachInList(typeList(TaskType.EPIC), TYPE_NEXT, action);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        forEachInList(typeList(TaskType.SUBTASK), TYPE_NEXT, action);
+    }
+
+    @Override
+    public void forEachSubtaskOfEpic(int epicId, Consumer<? super Subtask> action) {
+        int epicSlot = slotOf(epicId, TaskType.EPIC);
+        if (epicSlot == NONE) {
+            return;
+        }
+        for (int child = records.getInt(epicSlot, FIRST_CHILD); child != NONE;
+             child = records.getInt(child, SIBLING_NEXT)) {
+            action.accept((Subtask) read(child));
+        }
+    }
+
+    @Override
+    public void forEachPrioritized(Consumer<? super Task> action) {
+        forEachPrioritizedFrom(Long.MIN_VALUE, slot -> {
+            action.accept(read(slot));
+            return true;
+        });
+    }
+
+    @Override
+    public void forEachInHistory(Consumer<? super Task> action) {
+        forEachInList(HISTORY_LIST, HISTORY_NEXT, action);
+    }
+
+    private void checkBatchConflicts(List<? extends Task> items, IntPredicate replaced) {
+        List<Task> timed = new ArrayList<>(items.size());
+        for (Task item : items) {
+            // Время эпика выводится из подзадач и в проверке не участвует
+            if (item.getType() != TaskType.EPIC) {
+                timed.add(item);
+            }
+        }
+        // Пересечения внутри пакета ищет временный индекс в куче: он живёт только на время проверки
+        Task conflicting = new CompactIntervalIndex().findBatchConflict(timed, id -> false);
+        for (Task item : timed) {
+            if (item == conflicting) {
+                break;
+            }
+            if (hasStoredConflict(item, replaced)) {
+                conflicting = item;
+                break;
+            }
+        }
+        if (conflicting != null) {
+            throw new TaskTimeConflictException("Пакет отклонён: задача '" + conflicting.getTitle() +
+                    "' пересекается по времени с другой задачей");
+        }
+    }
+
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        for (Task item : items) {
+            if (item instanceof Subtask subtask && slotOf(subtask.getEpicId(), TaskType.EPIC) == NONE) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден");
+            }
+        }
+        checkBatchConflicts(items, id -> false);
+
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (Task item : items) {
+            int slot = store(item);
+            switch (item.getType()) {
+                case EPIC:
+                    records.putInt(slot, FIRST_CHILD, NONE);
+                    records.putInt(slot, LAST_CHILD, NONE);
+                    break;
+                case SUBTASK:
+                    int epicId = ((Subtask) item).getEpicId();
+                    attachChild(slotOf(epicId, TaskType.EPIC), slot);
+                    addToPrioritized(slot);
+                    touchedEpics.add(epicId);
+                    break;
+                case TASK:
+                    addToPrioritized(slot);
+            }
+            recordCreated(slot);
+        }
+        updateEpics(touchedEpics);
+        eventBus.flush();
+        return new ArrayList<>(items);
+    }
+
+    @Override
+    public void updateAll(List<? extends Task> items) {
+        List<Task> known = new ArrayList<>(items.size());
+        Set<Integer> replacedIds = new HashSet<>();
+        for (Task item : items) {
+            if (slotOf(item.getId(), item.getType()) != NONE) {
+                if (!replacedIds.add(item.getId())) {
+                    throw new IllegalArgumentException("Задача с id " + item.getId() + " встречается в пакете дважды");
+                }
+                known.add(item);
+            }
+        }
+        checkBatchConflicts(known, replacedIds::contains);
+
+        List<Task> before = new ArrayList<>(known.size());
+        for (Task item : known) {
+            before.add(capture(records.slotOf(item.getId())));
+        }
+        // Сначала освобождаем старые интервалы всего пакета, иначе задачи, меняющиеся местами, мешали бы друг другу
+        for (Task item : known) {
+            removeFromPrioritized(records.slotOf(item.getId()));
+        }
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (int i = 0; i < known.size(); i++) {
+            Task item = known.get(i);
+            int slot = records.slotOf(item.getId());
+            switch (item.getType()) {
+                case EPIC:
+                    writeText(slot, item.getTitle(), item.getDescription());
+                    break;
+                case SUBTASK:
+                    int epicId = records.getInt(slot, EPIC_ID);
+                    replace(slot, item);
+                    records.putInt(slot, EPIC_ID, epicId);
+                    touchedEpics.add(epicId);
+                    break;
+                case TASK:
+                    replace(slot, item);
+            }
+            recordUpdated(before.get(i), slot);
+        }
+        updateEpics(touchedEpics);
+        eventBus.flush();
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        Set<Integer> touchedEpics = new LinkedHashSet<>();
+        for (int id : ids) {
+            int slot = records.slotOf(id);
+            if (slot == NONE) {
+                continue;
+            }
+            switch (typeOf(slot)) {
+                case EPIC:
+                    removeEpic(slot);
+                    break;
+                case SUBTASK:
+                    touchedEpics.add(records.getInt(slot, EPIC_ID));
+                    removeSubtask(slot);
+                    break;
+                case TASK:
+                    release(slot);
+            }
+        }
+        updateEpics(touchedEpics);
+        eventBus.flush();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritized = new ArrayList<>();
+        forEachPrioritized(prioritized::add);
+        return prioritized;
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода не может быть позже его конца");
+        }
+        long start = CompactIntervalIndex.toNanos(from);
+        long end = CompactIntervalIndex.toNanos(to);
+        List<Task> window = new ArrayList<>();
+        int running = findRunningAt(start);
+        if (running != NONE) {
+            window.add(read(running));
+        }
+        forEachPrioritizedFrom(start, slot -> {
+            if (startOf(slot) >= end) {
+                return false;
+            }
+            window.add(read(slot));
+            return true;
+        });
+        return window;
+    }
+
+    @Override
+    public LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime notBefore) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность должна быть неотрицательной");
+        }
+        long length = CompactIntervalIndex.saturatedNanos(duration);
+        long[] candidate = {CompactIntervalIndex.toNanos(notBefore)};
+        int running = findRunningAt(candidate[0]);
+        if (running != NONE) {
+            candidate[0] = ownEnd(running);
+        }
+        forEachPrioritizedFrom(candidate[0], slot -> {
+            if (startOf(slot) >= CompactIntervalIndex.saturatedAdd(candidate[0], length)) {
+                return false;
+            }
+            // Пустой интервал мешает, только если лежит строго внутри промежутка
+            candidate[0] = Math.max(candidate[0], ownEnd(slot));
+            return true;
+        });
+        return CompactIntervalIndex.fromNanos(candidate[0]);
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(Task task, LocalDateTime notBefore) {
+        task.setStartTime(findNextFreeSlot(task.getDuration(), notBefore));
+        return createTask(task);
+    }
+
+    @Override
+    public Subtask createSubtaskInFreeSlot(Subtask subtask, LocalDateTime notBefore) {
+        if (slotOf(subtask.getEpicId(), TaskType.EPIC) == NONE) {
+            return null;
+        }
+        subtask.setStartTime(findNextFreeSlot(subtask.getDuration(), notBefore));
+        return createSubtask(subtask);
+    }
+
+    // Счётчики — длины списков по статусам, загрузка — один обход дерева: дни в нём идут по порядку
+    @Override
+    public TaskStatistics statistics() {
+        SortedMap<Integer, Duration> planned = new TreeMap<>();
+        for (int slot = heads[typeList(TaskType.EPIC)]; slot != NONE; slot = records.getInt(slot, TYPE_NEXT)) {
+            planned.put(idOf(slot), Duration.ofNanos(records.getLong(slot, DURATION)));
+        }
+        SortedMap<LocalDate, Duration> workload = new TreeMap<>();
+        long[] day = {Long.MIN_VALUE, 0};
+        forEachPrioritizedFrom(Long.MIN_VALUE, slot -> {
+            if (!hasFlag(slot, HAS_DURATION)) {
+                return true;
+            }
+            long startDay = Math.floorDiv(startOf(slot), NANOS_PER_DAY);
+            if (startDay != day[0]) {
+                if (day[0] != Long.MIN_VALUE) {
+                    workload.put(LocalDate.ofEpochDay(day[0]), Duration.ofNanos(day[1]));
+                }
+                day[0] = startDay;
+                day[1] = 0;
+            }
+            day[1] += records.getLong(slot, DURATION);
+            return true;
+        });
+        if (day[0] != Long.MIN_VALUE) {
+            workload.put(LocalDate.ofEpochDay(day[0]), Duration.ofNanos(day[1]));
+        }
+        return new TaskStatistics(TaskStatistics.countsOf((type, status) -> sizes[statusList(type, status)]),
+                planned, workload);
+    }
+
+    @Override
+    public void subscribe(TaskEventListener listener) {
+        eventBus.subscribe(listener);
+    }
+
+    @Override
+    public void subscribeAsync(TaskEventListener listener, Executor executor, int maxBatch) {
+        eventBus.subscribeAsync(listener, executor, maxBatch);
+    }
+
+    @Override
+    public void unsubscribe(TaskEventListener listener) {
+        eventBus.unsubscribe(listener);
+    }
+
+    /**
+     * Число задач всех типов.
+     */
+    int size() {
+        return records.size();
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practikum.manager;
+
+/**
+ * Как FileBackedTaskManager сохраняет изменения.
+ */
+public enum PersistenceMode {
+    /**
+     * Файл переписывается целиком после каждой изменяющей операции.
+     */
+    SNAPSHOT,
+    /**
+     * Каждая операция дописывает свои записи в журнал рядом с файлом, а файл переписывается в фоне,
+     * когда журнал вырастает больше последнего снимка.
+     */
+    JOURNAL
+}
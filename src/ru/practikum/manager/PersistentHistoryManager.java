@@ -0,0 +1,206 @@
+package ru.practikum.manager;
+
+import ru.practikum.exception.ManagerLoadException;
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * История, которая дописывает просмотры в журнал: строка "+id" на add и "-id" на remove.
+ * Сам add только копит строки в памяти, на диск их переносит общий фоновый поток, так что запрос
+ * на чтение задачи не ждёт файловой системы. Когда в журнале набирается вдвое больше записей,
+ * чем было в истории при прошлом сжатии, журнал переписывается текущим порядком истории без повторов.
+ * Записи, не успевшие уйти на диск к моменту падения процесса, теряются: история не стоит синхронной записи.
+ */
+public class PersistentHistoryManager implements HistoryManager {
+    private static final int MIN_COMPACTION = 1024;
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HistoryManager history;
+    private final Path file;
+    private final Object writeLock = new Object();
+    // Под монитором this: записи, ещё не отданные фоновому потоку
+    private StringBuilder pending = new StringBuilder();
+    private String rewrite;
+    private boolean scheduled;
+    private IOException failure;
+    private int sinceCompaction;
+    private int compactedSize;
+
+    public PersistentHistoryManager(HistoryManager history, File file) {
+        this.history = history;
+        this.file = file.toPath();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        history.add(task);
+        record('+', task.getId());
+    }
+
+    @Override
+    public void remove(int id) {
+        history.remove(id);
+        record('-', id);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return history.getHistory(limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Task> action) {
+        history.forEach(action);
+    }
+
+    /**
+     * Восстанавливает историю после загрузки, не дописывая журнал: вместо этого журнал сжимается,
+     * и из него пропадают задачи, которых больше нет.
+     */
+    public void restore(List<Task> viewed) {
+        viewed.forEach(history::add);
+        compact();
+    }
+
+    /**
+     * Дожидается, пока накопленные записи окажутся в файле. Ошибку фоновой записи бросает здесь.
+     */
+    public void flush() {
+        write();
+        synchronized (this) {
+            if (failure != null) {
+                IOException cause = failure;
+                failure = null;
+                throw new ManagerSaveException("Ошибка при сохранении истории: " + file.getFileName(), cause);
+            }
+        }
+    }
+
+    /**
+     * Порядок просмотров из журнала: id от давних к недавним, без повторов и без удалённых.
+     * Если журнала нет, история пуста. Хвост после последнего перевода строки — запись, оборванная
+     * падением процесса: "+1" от "+123" указал бы на чужую задачу, поэтому хвост отбрасывается.
+     */
+    public static List<Integer> replay(File file) {
+        Set<Integer> order = new LinkedHashSet<>();
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        try {
+            String text = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+            int start = 0;
+            for (int end = text.indexOf('\n'); end >= 0; start = end + 1, end = text.indexOf('\n', start)) {
+                if (end == start) {
+                    continue;
+                }
+                String line = text.substring(start, end);
+                Integer id = Integer.valueOf(line.substring(1));
+                order.remove(id);
+                switch (line.charAt(0)) {
+                    case '+':
+                        order.add(id);
+                        break;
+                    case '-':
+                        break;
+                    default:
+                        throw new ManagerLoadException("Неизвестная запись в журнале истории: " + line);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new ManagerLoadException("Ошибка чтения журнала истории: " + file.getName(), e);
+        }
+        return new ArrayList<>(order);
+    }
+
+    private void record(char kind, int id) {
+        boolean compact;
+        synchronized (this) {
+            pending.append(kind).append(id).append('\n');
+            compact = ++sinceCompaction > Math.max(MIN_COMPACTION, compactedSize * 2);
+            schedule();
+        }
+        if (compact) {
+            compact();
+        }
+    }
+
+    // Снимок истории заменяет и файл, и всё, что копилось до него, поэтому порядок записей не нарушается
+    private void compact() {
+        List<Task> snapshot = history.getHistory();
+        StringBuilder text = new StringBuilder(snapshot.size() * 8);
+        for (Task task : snapshot) {
+            text.append('+').append(task.getId()).append('\n');
+        }
+        synchronized (this) {
+            rewrite = text.toString();
+            pending.setLength(0);
+            sinceCompaction = 0;
+            compactedSize = snapshot.size();
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            WRITER.execute(this::write);
+        }
+    }
+
+    // Фоновый поток и flush пишут по очереди под writeLock: порядок записей в файле совпадает с порядком в памяти.
+    // Монитор this держится только на время обмена буфера, поэтому add не ждёт диска
+    private void write() {
+        synchronized (writeLock) {
+            String replaced;
+            String appended;
+            synchronized (this) {
+                replaced = rewrite;
+                appended = pending.toString();
+                rewrite = null;
+                pending = new StringBuilder();
+                scheduled = false;
+            }
+            try {
+                if (replaced != null) {
+                    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                    Files.writeString(temp, replaced + appended, StandardCharsets.UTF_8);
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } else if (!appended.isEmpty()) {
+                    Files.writeString(file, appended, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+import ru.practikum.util.IntHashSet;
+import ru.practikum.util.IntObjectHashMap;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс по словам из названия и описания задач.
+ * Слова хранятся в отсортированном словаре, поэтому все слова с заданным префиксом лежат одним отрезком.
+ * Для каждого id запоминается набор его слов: при изменении задачи «на месте» старые слова известны и без неё.
+ */
+class SearchIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final TreeMap<String, IntHashSet> postings = new TreeMap<>();
+    private final IntObjectHashMap<Set<String>> termsOf = new IntObjectHashMap<>();
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    void update(Task task) {
+        Set<String> terms = tokenize(task.getTitle());
+        terms.addAll(tokenize(task.getDescription()));
+        Set<String> previous = terms.isEmpty() ? termsOf.remove(task.getId()) : termsOf.put(task.getId(), terms);
+        if (previous != null) {
+            for (String term : previous) {
+                if (!terms.contains(term)) {
+                    removePosting(term, task.getId());
+                }
+            }
+        }
+        for (String term : terms) {
+            if (previous == null || !previous.contains(term)) {
+                postings.computeIfAbsent(term, key -> new IntHashSet()).add(task.getId());
+            }
+        }
+    }
+
+    void remove(int id) {
+        Set<String> previous = termsOf.remove(id);
+        if (previous != null) {
+            for (String term : previous) {
+                removePosting(term, id);
+            }
+        }
+    }
+
+    private void removePosting(String term, int id) {
+        IntHashSet ids = postings.get(term);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            postings.remove(term);
+        }
+    }
+
+    /**
+     * id задач, в которых каждое слово запроса встречается как начало какого-нибудь слова, по возрастанию.
+     * Стоимость зависит от числа подходящих слов и задач, а не от размера доски.
+     */
+    int[] search(String query) {
+        Set<String> prefixes = tokenize(query);
+        if (prefixes.isEmpty()) {
+            return new int[0];
+        }
+        IntHashSet found = null;
+        for (String prefix : prefixes) {
+            IntHashSet candidates = found;
+            IntHashSet matches = new IntHashSet();
+            for (Map.Entry<String, IntHashSet> entry : postings.tailMap(prefix).entrySet()) {
+                if (!entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+                entry.getValue().forEachInt(id -> {
+                    if (candidates == null || candidates.contains(id)) {
+                        matches.add(id);
+                    }
+                });
+            }
+            if (matches.isEmpty()) {
+                return new int[0];
+            }
+            found = matches;
+        }
+        int[] ids = found.toIntArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practikum.manager;
+
+/**
+ * Формат файла задач FileBackedTaskManager.
+ */
+public enum SnapshotFormat {
+    /**
+     * Текстовый CSV: по строке на задачу. Остаётся форматом импорта и экспорта.
+     */
+    CSV,
+    /**
+     * Двоичный снимок с записями фиксированной длины, который при загрузке читается через отображение в память.
+     */
+    BINARY
+}
@@ -0,0 +1,77 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+import ru.practikum.util.IntHashSet;
+import ru.practikum.util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Вторичный индекс по статусу: для каждой пары «тип, статус» хранится множество id задач.
+ * Для каждого id запоминается корзина, в которой он лежит, поэтому задачу, изменённую «на месте»,
+ * можно переложить в новую корзину, не зная её прежнего статуса.
+ */
+class StatusIndex {
+    private final IntHashSet[][] buckets = new IntHashSet[TaskType.values().length][Status.values().length];
+    private final IntObjectHashMap<IntHashSet> bucketOf = new IntObjectHashMap<>();
+
+    StatusIndex() {
+        for (IntHashSet[] byStatus : buckets) {
+            for (int i = 0; i < byStatus.length; i++) {
+                byStatus[i] = new IntHashSet();
+            }
+        }
+    }
+
+    void update(Task task) {
+        if (task.getStatus() == null) {
+            remove(task.getId());
+            return;
+        }
+        IntHashSet bucket = buckets[task.getType().ordinal()][task.getStatus().ordinal()];
+        IntHashSet previous = bucketOf.put(task.getId(), bucket);
+        if (previous != bucket) {
+            if (previous != null) {
+                previous.remove(task.getId());
+            }
+            bucket.add(task.getId());
+        }
+    }
+
+    void remove(int id) {
+        IntHashSet previous = bucketOf.remove(id);
+        if (previous != null) {
+            previous.remove(id);
+        }
+    }
+
+    void clear(TaskType type) {
+        for (IntHashSet bucket : buckets[type.ordinal()]) {
+            bucket.forEachInt(bucketOf::remove);
+            bucket.clear();
+        }
+    }
+
+    int count(TaskType type, Status status) {
+        return buckets[type.ordinal()][status.ordinal()].size();
+    }
+
+    /**
+     * Задачи типа type в статусе status за O(k), где k — размер ответа.
+     */
+    <T extends Task> List<T> collect(TaskType type, Status status, IntFunction<T> lookup) {
+        IntHashSet bucket = buckets[type.ordinal()][status.ordinal()];
+        List<T> result = new ArrayList<>(bucket.size());
+        bucket.forEachInt(id -> {
+            T task = lookup.apply(id);
+            if (task != null) {
+                result.add(task);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practikum.manager;
+
+import ru.practikum.util.HashIntMap;
+import ru.practikum.util.IntMap;
+import ru.practikum.util.IntObjectHashMap;
+
+public enum StorageEngine {
+    HASH_MAP {
+        @Override
+        <V> IntMap<V> createMap() {
+            return new HashIntMap<>();
+        }
+    },
+    OPEN_ADDRESSING {
+        @Override
+        <V> IntMap<V> createMap() {
+            return new IntObjectHashMap<>();
+        }
+    },
+    /**
+     * Таблицы с открытой адресацией и индекс времени на параллельных примитивных массивах.
+     * Индекс хранит время в наносекундах long, поэтому принимает только моменты примерно с 1677 по 2262 год;
+     * задачи вне этого диапазона отклоняются с IllegalArgumentException.
+     */
+    COMPACT {
+        @Override
+        <V> IntMap<V> createMap() {
+            return new IntObjectHashMap<>();
+        }
+
+        @Override
+        TimeIndex createTimeIndex() {
+            return new CompactIntervalIndex();
+        }
+    };
+
+    abstract <V> IntMap<V> createMap();
+
+    TimeIndex createTimeIndex() {
+        return new IntervalIndex();
+    }
+}
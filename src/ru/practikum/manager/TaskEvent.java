@@ -0,0 +1,57 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+/**
+ * Изменение одной задачи, эпика или подзадачи. before и after — копии, снятые менеджером,
+ * поэтому их можно читать из любого потока и после того, как задача изменилась снова.
+ * У CREATED нет before, у DELETED нет after. Если задачу изменили «на месте» до вызова update,
+ * before уже содержит эти изменения: точное прежнее состояние видно, только когда в update передают новый объект.
+ */
+public final class TaskEvent {
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Kind kind;
+    private final Task before;
+    private final Task after;
+
+    TaskEvent(Kind kind, Task before, Task after) {
+        this.kind = kind;
+        this.before = before;
+        this.after = after;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Task getBefore() {
+        return before;
+    }
+
+    public Task getAfter() {
+        return after;
+    }
+
+    public int getId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    public TaskType getType() {
+        return after != null ? after.getType() : before.getType();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskEvent{" +
+                "kind=" + kind +
+                ", before=" + before +
+                ", after=" + after +
+                '}';
+    }
+}
@@ -0,0 +1,296 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Рассылка событий менеджера. Менеджер складывает события операции в пакет текущего потока,
+ * а в конце операции вызывает flush: пакет встаёт в общую очередь, и очередь рассылается по порядку.
+ * Синхронные подписчики получают пакеты в потоке, который ведёт рассылку; к возврату из flush пакет
+ * текущего потока уже доставлен. Асинхронные копят события в своей очереди и разбирают её на своём Executor.
+ * Многопоточный менеджер ставит пакет в очередь через commit ещё под блокировкой, которая упорядочивает
+ * изменения, и только потом снимает её и вызывает flush: так пакеты разных потоков не обгоняют друг друга.
+ * Пока подписчиков нет, события не создаются и копии задач не снимаются, если только владелец шины
+ * не попросил записывать их всегда: тогда flush с владельцем отдаёт ему пакет первым.
+ */
+class TaskEventBus {
+    private interface Subscriber {
+        TaskEventListener listener();
+
+        void deliver(List<TaskEvent> events);
+    }
+
+    private static final class SyncSubscriber implements Subscriber {
+        private final TaskEventListener listener;
+
+        SyncSubscriber(TaskEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public TaskEventListener listener() {
+            return listener;
+        }
+
+        @Override
+        public void deliver(List<TaskEvent> events) {
+            listener.onEvents(events);
+        }
+    }
+
+    private static final class AsyncSubscriber implements Subscriber, Runnable {
+        private final TaskEventListener listener;
+        private final Executor executor;
+        private final int maxBatch;
+        private final ConcurrentLinkedQueue<TaskEvent> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        AsyncSubscriber(TaskEventListener listener, Executor executor, int maxBatch) {
+            this.listener = listener;
+            this.executor = executor;
+            this.maxBatch = maxBatch;
+        }
+
+        @Override
+        public TaskEventListener listener() {
+            return listener;
+        }
+
+        @Override
+        public void deliver(List<TaskEvent> events) {
+            queue.addAll(events);
+            schedule();
+        }
+
+        // В очереди работает не больше одной задачи на Executor, поэтому пачки приходят по порядку
+        private void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<TaskEvent> batch = new ArrayList<>();
+                TaskEvent event;
+                while ((event = queue.poll()) != null) {
+                    batch.add(event);
+                    if (batch.size() == maxBatch) {
+                        listener.onEvents(batch);
+                        batch = new ArrayList<>();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    listener.onEvents(batch);
+                }
+            } finally {
+                scheduled.set(false);
+                schedule();
+            }
+        }
+    }
+
+    private static final class Batch {
+        final TaskEventListener owner;
+        final List<TaskEvent> events;
+
+        Batch(TaskEventListener owner, List<TaskEvent> events) {
+            this.owner = owner;
+            this.events = events;
+        }
+    }
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<TaskEvent>> pending = ThreadLocal.withInitial(ArrayList::new);
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    // Поток поставил пакет в очередь и должен дождаться его рассылки
+    private final ThreadLocal<boolean[]> committed = ThreadLocal.withInitial(() -> new boolean[1]);
+    private final ConcurrentLinkedQueue<Batch> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock delivery = new ReentrantLock();
+    private final boolean recordAlways;
+
+    TaskEventBus() {
+        this(false);
+    }
+
+    TaskEventBus(boolean recordAlways) {
+        this.recordAlways = recordAlways;
+    }
+
+    void subscribe(TaskEventListener listener) {
+        subscribers.add(new SyncSubscriber(listener));
+    }
+
+    void subscribeAsync(TaskEventListener listener, Executor executor, int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Размер пачки должен быть положительным");
+        }
+        subscribers.add(new AsyncSubscriber(listener, executor, maxBatch));
+    }
+
+    void unsubscribe(TaskEventListener listener) {
+        subscribers.removeIf(subscriber -> subscriber.listener() == listener);
+    }
+
+    boolean isActive() {
+        return recordAlways || !subscribers.isEmpty();
+    }
+
+    /**
+     * Копия задачи для before, если кто-то подписан. Снимается до изменения.
+     */
+    Task capture(Task task) {
+        return isActive() && task != null ? copyOf(task) : null;
+    }
+
+    void created(Task task) {
+        if (isActive()) {
+            pending.get().add(new TaskEvent(TaskEvent.Kind.CREATED, null, copyOf(task)));
+        }
+    }
+
+    void updated(Task before, Task task) {
+        if (isActive()) {
+            pending.get().add(new TaskEvent(TaskEvent.Kind.UPDATED, before, copyOf(task)));
+        }
+    }
+
+    void deleted(Task task) {
+        if (isActive()) {
+            pending.get().add(new TaskEvent(TaskEvent.Kind.DELETED, copyOf(task), null));
+        }
+    }
+
+    /**
+     * Копия эпика перед пересчётом его статуса и времени. Список подзадач пересчёт не меняет и не копируется,
+     * иначе каждое изменение подзадачи стоило бы O(числа подзадач эпика).
+     */
+    Task captureRollup(Epic epic) {
+        return isActive() && epic != null ? rollupCopyOf(epic) : null;
+    }
+
+    /**
+     * Пересчёт статуса и времени эпика: событие пишется, только если они действительно изменились.
+     * Копии эпика в этом событии — без списка подзадач.
+     */
+    void rolledUp(Task before, Epic epic) {
+        if (before != null && (before.getStatus() != epic.getStatus()
+                || !Objects.equals(before.getDuration(), epic.getDuration())
+                || !Objects.equals(before.getStartTime(), epic.getStartTime())
+                || !Objects.equals(before.getEndTime(), epic.getEndTime()))) {
+            pending.get().add(new TaskEvent(TaskEvent.Kind.UPDATED, rollupCopyOf(before), rollupCopyOf(epic)));
+        }
+    }
+
+    /**
+     * Начало составной операции: commit и flush внутри неё ничего не делают, пакет поставит в очередь end.
+     */
+    void begin() {
+        depth.get()[0]++;
+    }
+
+    /**
+     * Конец составной операции. Вызывается под той же блокировкой, что и commit; разослать пакет — flush.
+     */
+    void end() {
+        depth.get()[0]--;
+        commit();
+    }
+
+    /**
+     * Ставит пакет текущего потока в очередь рассылки. Вызывается до снятия блокировки, которая упорядочивает
+     * изменения: тогда пакеты операций над одной задачей встают в очередь в порядке самих изменений.
+     */
+    void commit() {
+        commit(null);
+    }
+
+    private void commit(TaskEventListener owner) {
+        if (depth.get()[0] > 0) {
+            return;
+        }
+        List<TaskEvent> events = pending.get();
+        if (events.isEmpty()) {
+            return;
+        }
+        queue.add(new Batch(owner, List.copyOf(events)));
+        events.clear();
+        committed.get()[0] = true;
+    }
+
+    void flush() {
+        flush(null);
+    }
+
+    /**
+     * То же, что flush(), но пакет сначала получает владелец шины, а потом подписчики.
+     */
+    void flush(TaskEventListener owner) {
+        if (depth.get()[0] > 0) {
+            return;
+        }
+        commit(owner);
+        boolean[] waiting = committed.get();
+        // Подписчик, который сам меняет менеджер, уже внутри рассылки: его пакет разошлёт внешний цикл
+        if (!waiting[0] || delivery.isHeldByCurrentThread()) {
+            return;
+        }
+        waiting[0] = false;
+        delivery.lock();
+        try {
+            Batch batch;
+            while ((batch = queue.poll()) != null) {
+                if (batch.owner != null) {
+                    batch.owner.onEvents(batch.events);
+                }
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.deliver(batch.events);
+                }
+            }
+        } finally {
+            delivery.unlock();
+        }
+    }
+
+    private static Epic rollupCopyOf(Task epic) {
+        Epic copy = new Epic(epic.getTitle(), epic.getDescription());
+        copy.setId(epic.getId());
+        copy.setStatus(epic.getStatus());
+        copy.setDuration(epic.getDuration());
+        copy.setStartTime(epic.getStartTime());
+        copy.setEndTime(epic.getEndTime());
+        return copy;
+    }
+
+    static Task copyOf(Task task) {
+        Task copy;
+        if (task instanceof Epic epic) {
+            Epic epicCopy = new Epic(epic.getTitle(), epic.getDescription());
+            epic.forEachSubtaskId(epicCopy::addSubtaskId);
+            epicCopy.setEndTime(epic.getEndTime());
+            copy = epicCopy;
+        } else if (task instanceof Subtask subtask) {
+            copy = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(),
+                    subtask.getEpicId(), subtask.getDuration(), subtask.getStartTime());
+        } else {
+            copy = new Task(task.getTitle(), task.getDescription(), task.getStatus(),
+                    task.getDuration(), task.getStartTime());
+        }
+        copy.setId(task.getId());
+        copy.setStatus(task.getStatus());
+        copy.setDuration(task.getDuration());
+        copy.setStartTime(task.getStartTime());
+        return copy;
+    }
+}
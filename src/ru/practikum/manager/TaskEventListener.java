@@ -0,0 +1,12 @@
+package ru.practikum.manager;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface TaskEventListener {
+    /**
+     * События в порядке изменений. Синхронный подписчик получает по списку на каждую операцию менеджера,
+     * асинхронный — пачками, в которых могут оказаться события нескольких операций.
+     */
+    void onEvents(List<TaskEvent> events);
+}
@@ -0,0 +1,148 @@
+package ru.practikum.manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Журнал изменений FileBackedTaskManager: по строке на запись, в файле "имя.journal" рядом с файлом задач.
+ * При снимке текущий журнал откладывается в "имя.journal.old" и заводится новый; отложенный удаляется,
+ * когда снимок записан. Если снимок не записался, отложенный журнал остаётся, и следующее переключение
+ * дописывает текущий журнал в его конец. Записи — полные строки задач или удаления, поэтому повторное применение
+ * уже вошедшего в снимок журнала ничего не портит. Пишет журнал GroupCommitWriter, а ждать ли диска,
+ * решает Durability.
+ */
+final class TaskJournal {
+    private final Path path;
+    private final Path rotated;
+    private final Durability durability;
+    private GroupCommitWriter writer;
+    private long size;
+
+    TaskJournal(File file, Durability durability) {
+        this.path = journalFileOf(file).toPath();
+        this.rotated = rotatedFileOf(file).toPath();
+        this.durability = durability;
+    }
+
+    static File journalFileOf(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    static File rotatedFileOf(File file) {
+        return new File(file.getPath() + ".journal.old");
+    }
+
+    /**
+     * Дописывает записи одной операции одной записью в очередь и, кроме режима ASYNC, ждёт её сброса на диск.
+     */
+    void append(List<String> records) throws IOException {
+        StringBuilder text = new StringBuilder(records.size() * 64);
+        for (String record : records) {
+            text.append(record).append('\n');
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+        if (writer == null) {
+            size = Files.exists(path) ? Files.size(path) : 0;
+            writer = new GroupCommitWriter(path, durability);
+        }
+        size += bytes.remaining();
+        CompletableFuture<Void> written = writer.append(bytes);
+        if (durability.getMode() != Durability.Mode.ASYNC) {
+            GroupCommitWriter.await(written);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    void rotate() throws IOException {
+        close();
+        if (Files.exists(rotated) && Files.exists(path)) {
+            appendToRotated();
+            Files.delete(path);
+        } else if (Files.exists(path)) {
+            Files.move(path, rotated, StandardCopyOption.ATOMIC_MOVE);
+        }
+        size = 0;
+    }
+
+    // Падение между копированием и удалением оставит записи в обоих журналах; их повтор безвреден
+    private void appendToRotated() throws IOException {
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(rotated, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long total = source.size();
+            long copied = 0;
+            while (copied < total) {
+                copied += source.transferTo(copied, total - copied, target);
+            }
+            if (durability.getMode() != Durability.Mode.ASYNC) {
+                target.force(false);
+            }
+        }
+    }
+
+    void dropRotated() throws IOException {
+        Files.deleteIfExists(rotated);
+    }
+
+    /**
+     * Удаляет оба журнала: их содержимое уже целиком лежит в файле задач.
+     */
+    void reset() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(rotated);
+        size = 0;
+    }
+
+    /**
+     * Дожидается записи всего, что стоит в очереди, и закрывает файл.
+     */
+    void close() throws IOException {
+        if (writer != null) {
+            GroupCommitWriter closing = writer;
+            writer = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Записи обоих журналов в порядке записи. Оборванная последняя строка, оставшаяся от падения
+     * посреди записи, отбрасывается.
+     */
+    static List<String> read(File file) throws IOException {
+        List<String> records = new ArrayList<>();
+        readInto(rotatedFileOf(file).toPath(), records);
+        readInto(journalFileOf(file).toPath(), records);
+        return records;
+    }
+
+    static boolean exists(File file) {
+        return journalFileOf(file).exists() || rotatedFileOf(file).exists();
+    }
+
+    private static void readInto(Path path, List<String> records) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        String text = Files.readString(path, StandardCharsets.UTF_8);
+        int start = 0;
+        for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+            if (end > start) {
+                records.add(text.substring(start, end));
+            }
+            start = end + 1;
+        }
+    }
+}
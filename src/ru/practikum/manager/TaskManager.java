@@ -1,10 +1,16 @@
 package ru.practikum.manager;
 
 import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
 import ru.practikum.model.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 public interface TaskManager {
     List<Task> getAllTasks();
@@ -39,6 +45,9 @@ public interface TaskManager {
 
     Subtask createSubtask(Subtask subtask);
 
+    /**
+     * Обновляет подзадачу. Подзадача остаётся в своём эпике: epicId переданного объекта не учитывается.
+     */
     void updateSubtask(Subtask subtask);
 
     void deleteSubtaskById(int id);
@@ -47,5 +56,89 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    /**
+     * Последние limit просмотров, от давних к недавним; остальная история не обходится.
+     */
+    List<Task> getHistory(int limit);
+
+    List<Task> getTasksByStatus(Status status);
+
+    List<Epic> getEpicsByStatus(Status status);
+
+    List<Subtask> getSubtasksByStatus(Status status);
+
+    /**
+     * Задачи, эпики и подзадачи, в названии или описании которых каждое слово запроса
+     * встречается как начало слова. Регистр не учитывается.
+     */
+    List<Task> search(String query);
+
+    /**
+     * Передаёт задачи в action по одному, без копирования в список, в том же порядке, что и getAllTasks.
+     * Остальные forEach-методы устроены так же. Менять менеджер из action нельзя.
+     */
+    void forEachTask(Consumer<? super Task> action);
+
+    void forEachEpic(Consumer<? super Epic> action);
+
+    void forEachSubtask(Consumer<? super Subtask> action);
+
+    void forEachSubtaskOfEpic(int epicId, Consumer<? super Subtask> action);
+
+    void forEachPrioritized(Consumer<? super Task> action);
+
+    void forEachInHistory(Consumer<? super Task> action);
+
+    /**
+     * Создаёт задачи, эпики и подзадачи одним пакетом. Пересечения по времени проверяются для всего
+     * пакета сразу: если хоть одна задача конфликтует, не создаётся ни одна.
+     */
+    List<Task> createAll(List<? extends Task> items);
+
+    /**
+     * Обновляет задачи одним пакетом по тем же правилам, что и createAll. Задачи с неизвестным id пропускаются,
+     * а повтор известного id в одном пакете отклоняется с IllegalArgumentException.
+     */
+    void updateAll(List<? extends Task> items);
+
+    void deleteAll(Collection<Integer> ids);
+
     List<Task> getPrioritizedTasks();
+
+    /**
+     * Задачи, идущие в промежутке [from, to), в порядке начала. Задача, начавшаяся до from
+     * и ещё не закончившаяся к этому моменту, тоже попадает в ответ.
+     */
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Самое раннее время не раньше notBefore, в которое можно поставить задачу длительностью duration без пересечений.
+     */
+    LocalDateTime findNextFreeSlot(Duration duration, LocalDateTime notBefore);
+
+    /**
+     * Создаёт задачу, поставив её в ближайшее свободное окно не раньше notBefore.
+     */
+    Task createTaskInFreeSlot(Task task, LocalDateTime notBefore);
+
+    Subtask createSubtaskInFreeSlot(Subtask subtask, LocalDateTime notBefore);
+
+    /**
+     * Сводка по доске: счётчики по статусам, плановая длительность эпиков и загрузка по дням.
+     */
+    TaskStatistics statistics();
+
+    /**
+     * Синхронная подписка на изменения: listener получает события каждой изменяющей операции одним списком,
+     * в потоке, который её выполнил, сразу после неё. Исключение из listener получит вызывающий операцию.
+     */
+    void subscribe(TaskEventListener listener);
+
+    /**
+     * Асинхронная подписка: события копятся в очереди и передаются listener на executor пачками
+     * не больше maxBatch. Операции не ждут подписчика, а пачка может объединять несколько операций.
+     */
+    void subscribeAsync(TaskEventListener listener, Executor executor, int maxBatch);
+
+    void unsubscribe(TaskEventListener listener);
 }
\ No newline at end of file
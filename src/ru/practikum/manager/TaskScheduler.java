@@ -0,0 +1,175 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Расставляет по свободному времени задачи и подзадачи, у которых есть длительность, но нет начала.
+ * Занятые интервалы снимаются один раз через forEachPrioritized, уже отсортированными по началу,
+ * а задачи в порядке политики кладутся одна за другой: указатель по занятым интервалам и курсор
+ * времени только растут, поэтому план строится за один проход и без проверок по индексу на каждую задачу.
+ * Промежуток, в который не поместилась очередная задача, следующими задачами не заполняется.
+ * Время считается в наносекундах long с насыщением: занятое время за пределами диапазона long
+ * (после 2262 года) остаётся позже любого представимого момента и не мешает планировать в пределах диапазона.
+ */
+public final class TaskScheduler {
+    public enum Policy {
+        FIFO,
+        SHORTEST_FIRST
+    }
+
+    /**
+     * Результат планирования: копии задач с назначенным началом и задачи, которые не влезли в рабочий день.
+     */
+    public static final class Plan {
+        private final List<Task> scheduled;
+        private final List<Task> unscheduled;
+
+        Plan(List<Task> scheduled, List<Task> unscheduled) {
+            this.scheduled = scheduled;
+            this.unscheduled = unscheduled;
+        }
+
+        public List<Task> getScheduled() {
+            return scheduled;
+        }
+
+        public List<Task> getUnscheduled() {
+            return unscheduled;
+        }
+    }
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+    private static final Comparator<Task> BY_DURATION = Comparator.comparing(Task::getDuration).thenComparing(BY_ID);
+
+    private final Policy policy;
+    private final LocalTime workStart;
+    private final LocalTime workEnd;
+
+    /**
+     * Планирование без рабочих часов: задачи ставятся в любое время суток.
+     */
+    public TaskScheduler(Policy policy) {
+        this(policy, null, null);
+    }
+
+    public TaskScheduler(Policy policy, LocalTime workStart, LocalTime workEnd) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Политика планирования обязательна");
+        }
+        if ((workStart == null) != (workEnd == null)) {
+            throw new IllegalArgumentException("Рабочие часы задаются началом и концом вместе");
+        }
+        if (workStart != null && !workStart.isBefore(workEnd)) {
+            throw new IllegalArgumentException("Начало рабочего дня должно быть раньше его конца");
+        }
+        this.policy = policy;
+        this.workStart = workStart;
+        this.workEnd = workEnd;
+    }
+
+    /**
+     * Строит план, ничего не меняя в менеджере.
+     */
+    public Plan plan(TaskManager manager, LocalDateTime notBefore) {
+        List<Task> pending = new ArrayList<>();
+        manager.forEachTask(task -> collectUnscheduled(task, pending));
+        manager.forEachSubtask(subtask -> collectUnscheduled(subtask, pending));
+        pending.sort(policy == Policy.SHORTEST_FIRST ? BY_DURATION : BY_ID);
+
+        long[][] busy = {new long[64], new long[64]};
+        int[] count = {0};
+        manager.forEachPrioritized(task -> {
+            if (task.getType() == TaskType.EPIC) {
+                return;
+            }
+            if (count[0] == busy[0].length) {
+                busy[0] = Arrays.copyOf(busy[0], count[0] * 2);
+                busy[1] = Arrays.copyOf(busy[1], count[0] * 2);
+            }
+            long start = CompactIntervalIndex.saturatedToNanos(task.getStartTime());
+            busy[0][count[0]] = start;
+            busy[1][count[0]] = task.getDuration() == null ? start
+                    : CompactIntervalIndex.saturatedAdd(start, CompactIntervalIndex.saturatedNanos(task.getDuration()));
+            count[0]++;
+        });
+        return sweep(pending, busy[0], busy[1], count[0], CompactIntervalIndex.toNanos(notBefore));
+    }
+
+    /**
+     * Строит план и применяет его одним updateAll: если за это время кто-то занял выбранное время,
+     * весь план отклоняется с TaskTimeConflictException.
+     */
+    public Plan apply(TaskManager manager, LocalDateTime notBefore) {
+        Plan plan = plan(manager, notBefore);
+        if (!plan.getScheduled().isEmpty()) {
+            manager.updateAll(plan.getScheduled());
+        }
+        return plan;
+    }
+
+    private static void collectUnscheduled(Task task, List<Task> pending) {
+        if (task.getStartTime() == null && task.getDuration() != null) {
+            pending.add(TaskEventBus.copyOf(task));
+        }
+    }
+
+    private Plan sweep(List<Task> pending, long[] starts, long[] ends, int busyCount, long notBefore) {
+        List<Task> scheduled = new ArrayList<>(pending.size());
+        List<Task> unscheduled = new ArrayList<>();
+        long workday = workStart == null ? Long.MAX_VALUE : Duration.between(workStart, workEnd).toNanos();
+        long cursor = notBefore;
+        int next = 0;
+        for (Task task : pending) {
+            long length = CompactIntervalIndex.saturatedNanos(task.getDuration());
+            if (length > workday) {
+                unscheduled.add(task);
+                continue;
+            }
+            long candidate;
+            while (true) {
+                candidate = alignToWorkingHours(cursor, length);
+                while (next < busyCount && ends[next] <= candidate) {
+                    next++;
+                }
+                // Интервалы, закончившиеся к candidate, пропущены: мешает тот, что начнётся раньше конца задачи
+                if (next < busyCount && starts[next] < CompactIntervalIndex.saturatedAdd(candidate, length)) {
+                    cursor = ends[next];
+                } else {
+                    break;
+                }
+            }
+            task.setStartTime(CompactIntervalIndex.fromNanos(candidate));
+            scheduled.add(task);
+            cursor = CompactIntervalIndex.saturatedAdd(candidate, length);
+        }
+        return new Plan(scheduled, unscheduled);
+    }
+
+    // Ближайший момент не раньше time, с которого задача длины length целиком помещается в рабочие часы
+    private long alignToWorkingHours(long time, long length) {
+        if (workStart == null) {
+            return time;
+        }
+        LocalDateTime moment = CompactIntervalIndex.fromNanos(time);
+        LocalDate day = moment.toLocalDate();
+        long dayStart = CompactIntervalIndex.toNanos(day.atTime(workStart));
+        long dayEnd = CompactIntervalIndex.toNanos(day.atTime(workEnd));
+        if (time < dayStart) {
+            return dayStart;
+        }
+        if (CompactIntervalIndex.saturatedAdd(time, length) > dayEnd) {
+            return CompactIntervalIndex.toNanos(day.plusDays(1).atTime(workStart));
+        }
+        return time;
+    }
+}
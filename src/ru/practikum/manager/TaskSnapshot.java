@@ -0,0 +1,110 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.util.PersistentSortedMap;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Согласованный срез коллекций менеджера на момент публикации версии.
+ * Срез неизменяем: списки — это представления над персистентными деревьями, они не копируются
+ * и не меняются от последующих записей. Задачи и подзадачи в срезе — объекты менеджера, которые при изменении
+ * заменяются, а не правятся; эпики — копии, публикуемые после каждого изменения эпика.
+ */
+public final class TaskSnapshot {
+    static final TaskSnapshot EMPTY = new TaskSnapshot(0, PersistentSortedMap.empty(),
+            PersistentSortedMap.empty(), PersistentSortedMap.empty(), PersistentSortedMap.empty(TimeSlot.ORDER));
+
+    private final long version;
+    private final PersistentSortedMap<Integer, Task> tasks;
+    private final PersistentSortedMap<Integer, Epic> epics;
+    private final PersistentSortedMap<Integer, Subtask> subtasks;
+    private final PersistentSortedMap<TimeSlot, Task> prioritized;
+
+    private TaskSnapshot(long version, PersistentSortedMap<Integer, Task> tasks,
+                         PersistentSortedMap<Integer, Epic> epics, PersistentSortedMap<Integer, Subtask> subtasks,
+                         PersistentSortedMap<TimeSlot, Task> prioritized) {
+        this.version = version;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.prioritized = prioritized;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Task> getTasks() {
+        return tasks.values();
+    }
+
+    public List<Epic> getEpics() {
+        return epics.values();
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks.values();
+    }
+
+    public List<Task> getPrioritizedTasks() {
+        return prioritized.values();
+    }
+
+    public List<Task> getPrioritizedTasksStartingBetween(LocalDateTime from, LocalDateTime to) {
+        return prioritized.valuesBetween(TimeSlot.lowerBound(from), TimeSlot.lowerBound(to));
+    }
+
+    TaskSnapshot nextVersion() {
+        return new TaskSnapshot(version + 1, tasks, epics, subtasks, prioritized);
+    }
+
+    TaskSnapshot withTask(Task task) {
+        return new TaskSnapshot(version, tasks.put(task.getId(), task), epics, subtasks, prioritized);
+    }
+
+    TaskSnapshot withoutTask(int id) {
+        return new TaskSnapshot(version, tasks.remove(id), epics, subtasks, prioritized);
+    }
+
+    TaskSnapshot withEpic(Epic epic) {
+        return new TaskSnapshot(version, tasks, epics.put(epic.getId(), epic), subtasks, prioritized);
+    }
+
+    TaskSnapshot withoutEpic(int id) {
+        return new TaskSnapshot(version, tasks, epics.remove(id), subtasks, prioritized);
+    }
+
+    TaskSnapshot withSubtask(Subtask subtask) {
+        return new TaskSnapshot(version, tasks, epics, subtasks.put(subtask.getId(), subtask), prioritized);
+    }
+
+    TaskSnapshot withoutSubtask(int id) {
+        return new TaskSnapshot(version, tasks, epics, subtasks.remove(id), prioritized);
+    }
+
+    TaskSnapshot withoutAllSubtasks() {
+        return new TaskSnapshot(version, tasks, epics, subtasks.clear(), prioritized);
+    }
+
+    TaskSnapshot withoutAllEpicsAndSubtasks() {
+        return new TaskSnapshot(version, tasks, epics.clear(), subtasks.clear(), prioritized);
+    }
+
+    TaskSnapshot withSlot(TimeSlot slot, Task task) {
+        if (slot == null) {
+            return this;
+        }
+        return new TaskSnapshot(version, tasks, epics, subtasks, prioritized.put(slot, task));
+    }
+
+    TaskSnapshot withoutSlot(TimeSlot slot) {
+        if (slot == null) {
+            return this;
+        }
+        return new TaskSnapshot(version, tasks, epics, subtasks, prioritized.remove(slot));
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToIntBiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Сводка по доске для отчётов: число задач каждого типа по статусам, плановая длительность каждого эпика
+ * и загрузка по дням — сумма длительностей задач и подзадач, начинающихся в этот день.
+ * Задача, переходящая через полночь, целиком засчитывается дню начала.
+ */
+public final class TaskStatistics {
+    private final int total;
+    private final Map<TaskType, Map<Status, Integer>> byStatus;
+    private final SortedMap<Integer, Duration> plannedByEpic;
+    private final SortedMap<LocalDate, Duration> workloadByDay;
+
+    TaskStatistics(Map<TaskType, Map<Status, Integer>> byStatus, SortedMap<Integer, Duration> plannedByEpic,
+                   SortedMap<LocalDate, Duration> workloadByDay) {
+        int sum = 0;
+        for (Map<Status, Integer> counts : byStatus.values()) {
+            for (int count : counts.values()) {
+                sum += count;
+            }
+        }
+        this.total = sum;
+        this.byStatus = byStatus;
+        this.plannedByEpic = plannedByEpic;
+        this.workloadByDay = workloadByDay;
+    }
+
+    static Map<TaskType, Map<Status, Integer>> countsOf(ToIntBiFunction<TaskType, Status> count) {
+        Map<TaskType, Map<Status, Integer>> byStatus = new EnumMap<>(TaskType.class);
+        for (TaskType type : TaskType.values()) {
+            Map<Status, Integer> counts = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                counts.put(status, count.applyAsInt(type, status));
+            }
+            byStatus.put(type, counts);
+        }
+        return byStatus;
+    }
+
+    static SortedMap<Integer, Duration> plannedOf(Stream<Epic> epics) {
+        return epics.collect(Collectors.toMap(Epic::getId,
+                epic -> epic.getDuration() == null ? Duration.ZERO : epic.getDuration(),
+                Duration::plus, TreeMap::new));
+    }
+
+    /**
+     * Загрузка по дням; поток может быть параллельным — частичные суммы сливаются коллектором.
+     */
+    static SortedMap<LocalDate, Duration> workloadOf(Stream<? extends Task> items) {
+        // Группировка в HashMap: сортировать ключи дешевле один раз в конце, чем на каждой задаче
+        Map<LocalDate, Long> nanos = items
+                .filter(task -> task.getType() != TaskType.EPIC)
+                .filter(task -> task.getStartTime() != null && task.getDuration() != null)
+                .collect(Collectors.groupingBy(task -> task.getStartTime().toLocalDate(), HashMap::new,
+                        Collectors.summingLong(task -> task.getDuration().toNanos())));
+        SortedMap<LocalDate, Duration> workload = new TreeMap<>();
+        nanos.forEach((day, sum) -> workload.put(day, Duration.ofNanos(sum)));
+        return workload;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCount(TaskType type, Status status) {
+        return byStatus.get(type).get(status);
+    }
+
+    public Map<TaskType, Map<Status, Integer>> getByStatus() {
+        return byStatus;
+    }
+
+    public SortedMap<Integer, Duration> getPlannedByEpic() {
+        return plannedByEpic;
+    }
+
+    public SortedMap<LocalDate, Duration> getWorkloadByDay() {
+        return workloadByDay;
+    }
+}
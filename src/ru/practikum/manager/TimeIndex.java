@@ -0,0 +1,47 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс временных интервалов задач, по которому менеджер проверяет пересечения и ищет свободное время.
+ * Менеджер не допускает пересечений, поэтому непустые интервалы в индексе не перекрываются.
+ * Задачи без начала или длительности в индекс не попадают.
+ */
+interface TimeIndex {
+    void add(Task task);
+
+    void remove(int id);
+
+    void clear();
+
+    int size();
+
+    boolean hasConflictWith(Task task);
+
+    /**
+     * То же, что {@link #hasConflictWith(Task)}, но интервалы задач, для которых replaced вернул true,
+     * не учитываются: их место в пакетном обновлении займут новые версии.
+     */
+    boolean hasConflictWith(Task task, IntPredicate replaced);
+
+    /**
+     * Проверяет пакет за один проход: каждая задача сверяется с индексом и с уже принятыми задачами
+     * того же пакета. Возвращает первую задачу, которая с чем-то пересекается, или null.
+     */
+    Task findBatchConflict(List<? extends Task> batch, IntPredicate replaced);
+
+    /**
+     * Задача, которая началась раньше момента at и ещё идёт в этот момент, или null.
+     */
+    Task findRunningAt(LocalDateTime at);
+
+    /**
+     * Самое раннее начало не раньше notBefore, с которого задача длительностью duration ни с чем не пересечётся.
+     */
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore);
+}
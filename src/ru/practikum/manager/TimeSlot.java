@@ -0,0 +1,39 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/**
+ * Неизменяемый ключ задачи в упорядоченном по времени индексе. Снимается в момент добавления,
+ * поэтому последующее изменение задачи «на месте» не ломает порядок индекса.
+ */
+final class TimeSlot {
+    static final Comparator<TimeSlot> ORDER = Comparator
+            .<TimeSlot, LocalDateTime>comparing(slot -> slot.start)
+            .thenComparing(slot -> slot.type)
+            .thenComparingInt(slot -> slot.id);
+
+    final LocalDateTime start;
+    final TaskType type;
+    final int id;
+
+    TimeSlot(Task task) {
+        this(task.getStartTime(), task.getType(), task.getId());
+    }
+
+    private TimeSlot(LocalDateTime start, TaskType type, int id) {
+        this.start = start;
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * Ключ, который меньше всех ключей задач, начинающихся в момент start, и больше всех более ранних.
+     */
+    static TimeSlot lowerBound(LocalDateTime start) {
+        return new TimeSlot(start, TaskType.values()[0], Integer.MIN_VALUE);
+    }
+}
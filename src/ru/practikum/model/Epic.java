@@ -1,12 +1,38 @@
 package ru.practikum.model;
 
+import ru.practikum.util.IntHashSet;
+import ru.practikum.util.IntObjectHashMap;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    private final IntHashSet subtaskIds = new IntHashSet();
     private LocalDateTime endTime;
+    private final transient IntObjectHashMap<SubtaskState> trackedSubtasks = new IntObjectHashMap<>();
+    private final transient int[] statusCounts = new int[Status.values().length];
+    private final transient TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final transient TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private transient Duration totalDuration = Duration.ZERO;
+
+    private static class SubtaskState {
+        final Status status;
+        final Duration duration;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+
+        SubtaskState(Status status, Duration duration, LocalDateTime startTime, LocalDateTime endTime) {
+            this.status = status;
+            this.duration = duration;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
 
     public Epic(String title, String description) {
         super(title, description, Status.NEW);
@@ -16,8 +42,25 @@ public class Epic extends Task {
         super("", "", Status.NEW);
     }
 
+    /**
+     * Копия списка id подзадач в порядке их добавления в эпик.
+     */
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        List<Integer> ids = new ArrayList<>(subtaskIds.size());
+        subtaskIds.forEachInt(ids::add);
+        return ids;
+    }
+
+    public int[] getSubtaskIdArray() {
+        return subtaskIds.toIntArray();
+    }
+
+    public void forEachSubtaskId(IntConsumer action) {
+        subtaskIds.forEachInt(action);
+    }
+
+    public void clearSubtaskIds() {
+        subtaskIds.clear();
     }
 
     public void addSubtaskId(int subtaskId) {
@@ -25,7 +68,84 @@ public class Epic extends Task {
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        subtaskIds.remove(subtaskId);
+    }
+
+    public void trackSubtask(Subtask subtask) {
+        untrackSubtask(subtask.getId());
+        SubtaskState state = new SubtaskState(subtask.getStatus(), subtask.getDuration(),
+                subtask.getStartTime(), subtask.getEndTime());
+        trackedSubtasks.put(subtask.getId(), state);
+        if (state.status != null) {
+            statusCounts[state.status.ordinal()]++;
+        }
+        if (state.duration != null) {
+            totalDuration = totalDuration.plus(state.duration);
+        }
+        if (state.startTime != null) {
+            startTimes.merge(state.startTime, 1, Integer::sum);
+        }
+        if (state.endTime != null) {
+            endTimes.merge(state.endTime, 1, Integer::sum);
+        }
+    }
+
+    public void untrackSubtask(int subtaskId) {
+        SubtaskState state = trackedSubtasks.remove(subtaskId);
+        if (state == null) {
+            return;
+        }
+        if (state.status != null) {
+            statusCounts[state.status.ordinal()]--;
+        }
+        if (state.duration != null) {
+            totalDuration = totalDuration.minus(state.duration);
+        }
+        if (state.startTime != null) {
+            decrement(startTimes, state.startTime);
+        }
+        if (state.endTime != null) {
+            decrement(endTimes, state.endTime);
+        }
+    }
+
+    public void untrackAllSubtasks() {
+        trackedSubtasks.clear();
+        Arrays.fill(statusCounts, 0);
+        totalDuration = Duration.ZERO;
+        startTimes.clear();
+        endTimes.clear();
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime time) {
+        counts.computeIfPresent(time, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public int getSubtaskCount(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    public Status calculateStatus() {
+        int total = trackedSubtasks.size();
+        if (total == 0 || getSubtaskCount(Status.NEW) == total) {
+            return Status.NEW;
+        }
+        if (getSubtaskCount(Status.DONE) == total) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    public Duration calculateDuration() {
+        return totalDuration;
+    }
+
+    public LocalDateTime calculateStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    public LocalDateTime calculateEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
     }
 
     @Override
@@ -0,0 +1,25 @@
+package ru.practikum.util;
+
+import java.util.HashMap;
+
+public class HashIntMap<V> extends HashMap<Integer, V> implements IntMap<V> {
+    @Override
+    public V get(int key) {
+        return super.get(key);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        return super.put(key, value);
+    }
+
+    @Override
+    public V remove(int key) {
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return super.containsKey(key);
+    }
+}
@@ -0,0 +1,218 @@
+package ru.practikum.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество int без упаковки. Элементы хранятся массивом в порядке добавления,
+ * а хеш-индекс с открытой адресацией хранит позицию элемента в этом массиве (со сдвигом на 1).
+ * Удаление только помечает позицию пустой, поэтому порядок обхода не меняется; когда пустых позиций
+ * становится больше, чем живых элементов, массив уплотняется. Так удаление стоит амортизированно O(1).
+ */
+public class IntHashSet extends AbstractSet<Integer> {
+    private int[] items;
+    private boolean[] removed;
+    private int[] slots;
+    private int size;
+    private int end;
+    private int mask;
+    private int modCount;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    public IntHashSet(int expectedSize) {
+        items = new int[Math.max(expectedSize, 4)];
+        removed = new boolean[items.length];
+        allocateSlots(IntObjectHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocateSlots(int capacity) {
+        slots = new int[capacity];
+        mask = capacity - 1;
+        for (int position = 0; position < end; position++) {
+            if (removed[position]) {
+                continue;
+            }
+            int index = IntObjectHashMap.mix(items[position]) & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = position + 1;
+        }
+    }
+
+    private int slotOf(int value) {
+        int index = IntObjectHashMap.mix(value) & mask;
+        while (slots[index] != 0) {
+            if (items[slots[index] - 1] == value) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    public boolean contains(int value) {
+        return slotOf(value) >= 0;
+    }
+
+    public boolean add(int value) {
+        int index = IntObjectHashMap.mix(value) & mask;
+        while (slots[index] != 0) {
+            if (items[slots[index] - 1] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        if (end == items.length) {
+            if (end - size >= size) {
+                compact();
+                return add(value);
+            }
+            items = Arrays.copyOf(items, end * 2);
+            removed = Arrays.copyOf(removed, end * 2);
+        }
+        items[end++] = value;
+        slots[index] = end;
+        size++;
+        modCount++;
+        if (size * 4 > slots.length * 3) {
+            allocateSlots(slots.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int slot = slotOf(value);
+        if (slot < 0) {
+            return false;
+        }
+        int position = slots[slot] - 1;
+        clearSlot(slot);
+        removed[position] = true;
+        size--;
+        while (end > 0 && removed[end - 1]) {
+            removed[--end] = false;
+        }
+        modCount++;
+        if (end - size > size && end > 8) {
+            compact();
+        }
+        return true;
+    }
+
+    // Сдвигает живые элементы к началу с сохранением порядка и перестраивает хеш-индекс
+    private void compact() {
+        int live = 0;
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                items[live++] = items[position];
+            }
+        }
+        Arrays.fill(removed, 0, end, false);
+        end = live;
+        allocateSlots(slots.length);
+    }
+
+    private void clearSlot(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (slots[next] != 0) {
+            int home = IntObjectHashMap.mix(items[slots[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[hole] = 0;
+    }
+
+    public void forEachInt(IntConsumer action) {
+        int expectedModCount = modCount;
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                action.accept(items[position]);
+            }
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    public int[] toIntArray() {
+        if (end == size) {
+            return Arrays.copyOf(items, size);
+        }
+        int[] array = new int[size];
+        int next = 0;
+        for (int position = 0; position < end; position++) {
+            if (!removed[position]) {
+                array[next++] = items[position];
+            }
+        }
+        return array;
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer && contains((int) (Integer) value);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return add((int) value);
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer && remove((int) (Integer) value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(removed, 0, end, false);
+        size = 0;
+        end = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position < end && removed[position]) {
+                    position++;
+                }
+                return position < end;
+            }
+
+            @Override
+            public Integer next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return items[position++];
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practikum.util;
+
+import java.util.Arrays;
+
+/**
+ * Отображение int → неотрицательный int на открытой адресации, устроенное как IntObjectHashMap,
+ * но без объектов вовсе: значения хранятся со сдвигом на единицу, и 0 в массиве значений означает пустую ячейку.
+ * Отсутствие ключа обозначается результатом {@link #MISSING}. Память выделяется только при росте таблицы.
+ */
+public class IntIntHashMap {
+    public static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(IntObjectHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int indexOf(int key) {
+        int index = IntObjectHashMap.mix(key) & mask;
+        while (values[index] != 0) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? MISSING : values[index] - 1;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int put(int key, int value) {
+        if (value < 0 || value == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("IntIntHashMap хранит только значения от 0 до Integer.MAX_VALUE - 1");
+        }
+        int index = IntObjectHashMap.mix(key) & mask;
+        while (values[index] != 0) {
+            if (keys[index] == key) {
+                int previous = values[index] - 1;
+                values[index] = value + 1;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value + 1;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        return MISSING;
+    }
+
+    public int remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return MISSING;
+        }
+        int previous = values[index] - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (values[next] != 0) {
+            int home = IntObjectHashMap.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = 0;
+        size--;
+        return previous;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int index = IntObjectHashMap.mix(oldKeys[i]) & mask;
+                while (values[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+}
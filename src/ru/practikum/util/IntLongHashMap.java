@@ -0,0 +1,122 @@
+package ru.practikum.util;
+
+import java.util.Arrays;
+
+/**
+ * Отображение int → long на открытой адресации, устроенное как IntIntHashMap. Значение может быть любым long,
+ * поэтому занятые ячейки отмечаются отдельным массивом флагов, а наличие ключа проверяется через containsKey.
+ */
+public class IntLongHashMap {
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    public IntLongHashMap() {
+        this(16);
+    }
+
+    public IntLongHashMap(int expectedSize) {
+        allocate(IntObjectHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int indexOf(int key) {
+        int index = IntObjectHashMap.mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Значение по ключу или defaultValue, если ключа нет.
+     */
+    public long getOrDefault(int key, long defaultValue) {
+        int index = indexOf(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public void put(int key, long value) {
+        int index = IntObjectHashMap.mix(key) & mask;
+        while (used[index]) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        used[index] = true;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Удаляет ключ. Возвращает false, если его не было.
+     */
+    public boolean remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = IntObjectHashMap.mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = IntObjectHashMap.mix(oldKeys[i]) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practikum.util;
+
+import java.util.Map;
+
+/**
+ * Отображение с ключами int. Примитивные перегрузки позволяют обращаться к хранилищу без упаковки ключа.
+ */
+public interface IntMap<V> extends Map<Integer, V> {
+    V get(int key);
+
+    V put(int key, V value);
+
+    V remove(int key);
+
+    boolean containsKey(int key);
+}
@@ -0,0 +1,253 @@
+package ru.practikum.util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое отсортированное отображение на AVL-дереве с копированием пути.
+ * put и remove возвращают новую версию за O(log n), разделяя с исходной все нетронутые поддеревья,
+ * поэтому старые версии остаются целыми и их можно читать без блокировок.
+ */
+public final class PersistentSortedMap<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentSortedMap<K, V> empty() {
+        return new PersistentSortedMap<>(Comparator.naturalOrder(), null);
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int sizeOf(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    public int size() {
+        return sizeOf(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        Node<K, V> newRoot = put(root, key, value);
+        return newRoot == root ? this : new PersistentSortedMap<>(comparator, newRoot);
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentSortedMap<>(comparator, newRoot);
+    }
+
+    public PersistentSortedMap<K, V> clear() {
+        return root == null ? this : new PersistentSortedMap<>(comparator, null);
+    }
+
+    private Node<K, V> put(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        } else if (cmp > 0) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        } else if (node.value == value) {
+            return node;
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private Node<K, V> remove(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) {
+            Node<K, V> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, node.value, left, node.right);
+        } else if (cmp > 0) {
+            Node<K, V> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.value, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<K, V> min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, node.left, removeMin(node.right));
+    }
+
+    private Node<K, V> removeMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.key, node.value, removeMin(node.left), node.right);
+    }
+
+    private Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    /**
+     * Значения с ключами из [fromInclusive, toExclusive) в порядке ключей за O(log n + k).
+     */
+    public List<V> valuesBetween(K fromInclusive, K toExclusive) {
+        List<V> result = new ArrayList<>();
+        collect(root, fromInclusive, toExclusive, result);
+        return result;
+    }
+
+    private void collect(Node<K, V> node, K from, K to, List<V> result) {
+        if (node == null) {
+            return;
+        }
+        boolean afterFrom = comparator.compare(node.key, from) >= 0;
+        boolean beforeTo = comparator.compare(node.key, to) < 0;
+        if (afterFrom) {
+            collect(node.left, from, to, result);
+        }
+        if (afterFrom && beforeTo) {
+            result.add(node.value);
+        }
+        if (beforeTo) {
+            collect(node.right, from, to, result);
+        }
+    }
+
+    /**
+     * Представление значений в порядке ключей без копирования: get(i) за O(log n), обход за O(n).
+     */
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                if (index < 0 || index >= sizeOf(root)) {
+                    throw new IndexOutOfBoundsException("Индекс: " + index + ", размер: " + sizeOf(root));
+                }
+                Node<K, V> node = root;
+                while (true) {
+                    int leftSize = sizeOf(node.left);
+                    if (index < leftSize) {
+                        node = node.left;
+                    } else if (index == leftSize) {
+                        return node.value;
+                    } else {
+                        index -= leftSize + 1;
+                        node = node.right;
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                return sizeOf(root);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<>() {
+                    private final Deque<Node<K, V>> path = new ArrayDeque<>();
+
+                    {
+                        pushLeft(root);
+                    }
+
+                    private void pushLeft(Node<K, V> node) {
+                        while (node != null) {
+                            path.push(node);
+                            node = node.left;
+                        }
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return !path.isEmpty();
+                    }
+
+                    @Override
+                    public V next() {
+                        if (path.isEmpty()) {
+                            throw new NoSuchElementException();
+                        }
+                        Node<K, V> node = path.pop();
+                        pushLeft(node.right);
+                        return node.value;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practikum.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Строки в UTF-8 вне кучи Java. Байты дописываются в прямые ByteBuffer-блоки, наружу отдаётся
+ * ссылка (номер блока в старших 32 битах, смещение в младших); длину в байтах хранит вызывающий.
+ * Освобождённые байты только учитываются: вернуть их можно, переписав живые строки в новую арену через copyTo.
+ */
+public final class Utf8Arena {
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private ByteBuffer[] chunks = new ByteBuffer[4];
+    private int chunkCount;
+    private int position;
+    private long usedBytes;
+    private long freedBytes;
+
+    public static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public long write(byte[] bytes) {
+        ByteBuffer chunk = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        if (chunk == null || chunk.capacity() - position < bytes.length) {
+            chunk = newChunk(Math.max(CHUNK_SIZE, bytes.length));
+        }
+        long ref = (long) (chunkCount - 1) << 32 | position;
+        chunk.put(position, bytes);
+        position += bytes.length;
+        usedBytes += bytes.length;
+        return ref;
+    }
+
+    private ByteBuffer newChunk(int capacity) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        ByteBuffer chunk = ByteBuffer.allocateDirect(capacity);
+        chunks[chunkCount++] = chunk;
+        position = 0;
+        return chunk;
+    }
+
+    public String read(long ref, int length) {
+        byte[] bytes = new byte[length];
+        chunks[(int) (ref >>> 32)].get((int) ref, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Переписывает строку в другую арену и возвращает её новую ссылку.
+     */
+    public long copyTo(Utf8Arena target, long ref, int length) {
+        byte[] bytes = new byte[length];
+        chunks[(int) (ref >>> 32)].get((int) ref, bytes);
+        return target.write(bytes);
+    }
+
+    public void free(int length) {
+        freedBytes += length;
+    }
+
+    /**
+     * Байты, занятые живыми строками.
+     */
+    public long liveBytes() {
+        return usedBytes - freedBytes;
+    }
+
+    public long freedBytes() {
+        return freedBytes;
+    }
+}
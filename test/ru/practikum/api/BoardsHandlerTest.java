@@ -0,0 +1,102 @@
+package ru.practikum.api;
+
+import com.google.gson.JsonArray;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardsHandlerTest extends BaseHttpTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(getBaseUrl() + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, Task task) throws IOException, InterruptedException {
+        return post(path, gson.toJson(task));
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(getBaseUrl() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testBoardResourcesAreIsolated() throws IOException, InterruptedException {
+        Task task = new Task("Релиз", "Выкатить версию", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 4, 1, 10, 0));
+
+        assertEquals(201, post("/boards/alpha/tasks", task).statusCode());
+        assertEquals(201, post("/boards/beta/tasks", task).statusCode());
+
+        HttpResponse<String> response = get("/boards/alpha/tasks/1");
+        assertEquals(200, response.statusCode());
+        assertEquals("Релиз", gson.fromJson(response.body(), Task.class).getTitle());
+        assertEquals(1, gson.fromJson(get("/boards/alpha/tasks").body(), JsonArray.class).size());
+        assertTrue(manager.getAllTasks().isEmpty(), "Доски не должны писать в менеджер сервера");
+        assertEquals(404, get("/boards/gamma/tasks/1").statusCode());
+    }
+
+    @Test
+    void testCrossBoardPrioritizedAndSearch() throws IOException, InterruptedException {
+        post("/boards/alpha/tasks", new Task("Релиз", "", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 4, 1, 12, 0)));
+        post("/boards/beta/tasks", new Task("Ретро", "", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 4, 1, 11, 0)));
+
+        JsonArray prioritized = gson.fromJson(get("/boards/prioritized").body(), JsonArray.class);
+        assertEquals(2, prioritized.size());
+        assertEquals("beta", prioritized.get(0).getAsJsonObject().get("board").getAsString());
+        assertEquals("Релиз", prioritized.get(1).getAsJsonObject().getAsJsonObject("task").get("title").getAsString());
+
+        JsonArray found = gson.fromJson(get("/boards/search?q=%D1%80%D0%B5%D0%BB").body(), JsonArray.class);
+        assertEquals(1, found.size());
+        assertEquals("alpha", found.get(0).getAsJsonObject().get("board").getAsString());
+
+        JsonArray ids = gson.fromJson(get("/boards").body(), JsonArray.class);
+        assertEquals(2, ids.size());
+    }
+
+    @Test
+    void testInvalidBoardIdIsBadRequest() throws IOException, InterruptedException {
+        assertEquals(400, get("/boards/bad%20id/tasks").statusCode());
+        assertEquals(404, get("/boards/alpha/unknown").statusCode());
+        assertEquals(400, post("/boards/search/tasks", new Task("Задача", "", Status.NEW)).statusCode(),
+                "search зарезервирован для поиска по всем доскам");
+    }
+
+    @Test
+    void testOnlyPostCreatesBoard() throws IOException, InterruptedException {
+        assertEquals(404, get("/boards/gamma/tasks").statusCode());
+        assertEquals(404, get("/boards/delta/prioritized").statusCode());
+        assertEquals(0, gson.fromJson(get("/boards").body(), JsonArray.class).size(),
+                "GET не должен создавать доски");
+
+        assertEquals(201, post("/boards/gamma/tasks", new Task("Задача", "", Status.NEW)).statusCode());
+        assertEquals(200, get("/boards/gamma/tasks").statusCode());
+        assertEquals(1, gson.fromJson(get("/boards").body(), JsonArray.class).size());
+    }
+
+    @Test
+    void testFailedPostDoesNotCreateBoard() throws IOException, InterruptedException {
+        assertEquals(400, post("/boards/gamma/tasks", "{не json").statusCode());
+        assertNotEquals(201, post("/boards/delta/schedule", "").statusCode());
+
+        assertEquals(0, gson.fromJson(get("/boards").body(), JsonArray.class).size(),
+                "Доску создаёт только успешно созданная задача");
+        assertEquals(404, get("/boards/gamma/tasks").statusCode());
+        assertEquals(404, get("/boards/delta/prioritized").statusCode());
+    }
+}
@@ -73,4 +73,24 @@ class HistoryHandlerTest extends BaseHttpTest {
         List<Task> history = gson.fromJson(response.body(), List.class);
         assertEquals(1, history.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetHistoryWithLimit() throws IOException, InterruptedException {
+        Task task1 = manager.createTask(new Task("Задача 1", "Описание 1", Status.NEW));
+        Task task2 = manager.createTask(new Task("Задача 2", "Описание 2", Status.NEW));
+        manager.getTaskById(task1.getId());
+        manager.getTaskById(task2.getId());
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(getBaseUrl() + "/history?limit=1")).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] history = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, history.length);
+        assertEquals("Задача 2", history[0].getTitle());
+
+        request = HttpRequest.newBuilder().uri(URI.create(getBaseUrl() + "/history?limit=-1")).GET().build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+}
@@ -72,4 +72,63 @@ class PrioritizedHandlerTest extends BaseHttpTest {
         List<Task> prioritized = gson.fromJson(response.body(), List.class);
         assertTrue(prioritized.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetPrioritizedTasksInWindow() throws IOException, InterruptedException {
+        Task task1 = new Task("Задача 1", "Описание 1", Status.NEW,
+                Duration.ofHours(3), LocalDateTime.of(2025, 3, 1, 9, 0));
+        Task task2 = new Task("Задача 2", "Описание 2", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(2025, 3, 2, 9, 0));
+        manager.createTask(task1);
+        manager.createTask(task2);
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/prioritized?from=2025-03-01T10:00&to=2025-03-02T00:00");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] window = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, window.length);
+        assertEquals(task1.getId(), window[0].getId());
+    }
+
+    @Test
+    void testGetPrioritizedTasksWithInvalidWindow() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/prioritized?from=вчера&to=2025-03-02T00:00");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    void testGetFreeSlot() throws IOException, InterruptedException {
+        manager.createTask(new Task("Задача 1", "Описание 1", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 9, 0)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/prioritized/free-slot?duration=30&notBefore=2025-03-01T09:15");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"startTime\": \"2025-03-01T10:00:00\""), response.body());
+        assertTrue(response.body().contains("\"endTime\": \"2025-03-01T10:30:00\""), response.body());
+    }
+
+    @Test
+    void testGetFreeSlotWithoutDuration() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/prioritized/free-slot");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+}
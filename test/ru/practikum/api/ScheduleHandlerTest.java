@@ -0,0 +1,58 @@
+package ru.practikum.api;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleHandlerTest extends BaseHttpTest {
+
+    private HttpResponse<String> schedule(String query) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/schedule?" + query);
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testDryRunReturnsPlanWithoutApplying() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Задача", "", Status.NEW, Duration.ofMinutes(30), null));
+
+        HttpResponse<String> response = schedule("dryRun=true&notBefore=2025-03-03T08:00"
+                + "&workStart=09:00&workEnd=18:00&policy=shortest_first");
+
+        assertEquals(200, response.statusCode());
+        JsonObject plan = gson.fromJson(response.body(), JsonObject.class);
+        Task planned = gson.fromJson(plan.getAsJsonArray("scheduled").get(0), Task.class);
+        assertEquals(task.getId(), planned.getId());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 9, 0), planned.getStartTime());
+        assertNull(manager.getTaskById(task.getId()).getStartTime());
+    }
+
+    @Test
+    void testScheduleAppliesPlan() throws IOException, InterruptedException {
+        Task task = manager.createTask(new Task("Задача", "", Status.NEW, Duration.ofMinutes(30), null));
+
+        HttpResponse<String> response = schedule("notBefore=2025-03-03T08:00");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(LocalDateTime.of(2025, 3, 3, 8, 0), manager.getTaskById(task.getId()).getStartTime());
+    }
+
+    @Test
+    void testUnknownPolicyIsBadRequest() throws IOException, InterruptedException {
+        HttpResponse<String> response = schedule("policy=random");
+
+        assertEquals(400, response.statusCode());
+    }
+}
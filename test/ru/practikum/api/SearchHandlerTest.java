@@ -0,0 +1,46 @@
+package ru.practikum.api;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchHandlerTest extends BaseHttpTest {
+
+    @Test
+    void testSearchByPrefix() throws IOException, InterruptedException {
+        manager.createTask(new Task("Починить авторизацию", "Ошибка входа", Status.NEW));
+        manager.createTask(new Task("Обновить документацию", "Раздел API", Status.NEW));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/search?q=" + URLEncoder.encode("автор", StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] found = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, found.length);
+        assertEquals("Починить авторизацию", found[0].getTitle());
+    }
+
+    @Test
+    void testSearchWithoutQuery() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/search");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practikum.api;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsHandlerTest extends BaseHttpTest {
+
+    @Test
+    void testStatsReturnsCompactSummary() throws IOException, InterruptedException {
+        Epic epic = manager.createEpic(new Epic("Эпик", ""));
+        manager.createSubtask(new Subtask("Подзадача", "", Status.DONE, epic.getId(),
+                Duration.ofMinutes(90), LocalDateTime.of(2025, 5, 5, 9, 0)));
+        manager.createTask(new Task("Задача", "", Status.NEW, Duration.ofMinutes(30),
+                LocalDateTime.of(2025, 5, 5, 11, 0)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/stats");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        JsonObject stats = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals(3, stats.get("total").getAsInt());
+        assertEquals(1, stats.getAsJsonObject("byStatus").getAsJsonObject("EPIC").get("DONE").getAsInt());
+        assertEquals(120, stats.getAsJsonObject("workloadByDay").get("2025-05-05").getAsLong());
+        assertEquals(90, stats.getAsJsonObject("plannedByEpic").get(String.valueOf(epic.getId())).getAsLong());
+    }
+}
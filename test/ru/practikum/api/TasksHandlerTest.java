@@ -1,6 +1,8 @@
 package ru.practikum.api;
 
 import org.junit.jupiter.api.Test;
+import ru.practikum.manager.InMemoryTaskManager;
+import ru.practikum.manager.TaskManager;
 import ru.practikum.model.Status;
 import ru.practikum.model.Task;
 
@@ -12,6 +14,7 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,4 +181,87 @@ class TasksHandlerTest extends BaseHttpTest {
         assertEquals(400, response.statusCode());
         assertTrue(response.body().contains("Тело запроса не может быть пустым"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAddTaskWithAutoPlace() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+        manager.createTask(new Task("Занято", "Описание", Status.NEW, Duration.ofHours(1), start));
+        String taskJson = gson.toJson(new Task("Задача", "Описание", Status.NEW, Duration.ofMinutes(30), start));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create(getBaseUrl() + "/tasks?autoPlace=true");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(taskJson))
+                .header("Content-Type", "application/json")
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, response.statusCode());
+        Task created = gson.fromJson(response.body(), Task.class);
+        assertEquals(start.plusHours(1), created.getStartTime());
+        assertEquals(2, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testGetTasksFilteredByStatus() throws IOException, InterruptedException {
+        manager.createTask(new Task("Новая", "Описание", Status.NEW));
+        manager.createTask(new Task("Готовая", "Описание", Status.DONE));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getBaseUrl() + "/tasks?status=done")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(1, tasks.length);
+        assertEquals("Готовая", tasks[0].getTitle());
+
+        HttpResponse<String> badResponse = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getBaseUrl() + "/tasks?status=ARCHIVED")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, badResponse.statusCode());
+    }
+
+    @Test
+    void testGetAllTasksStreamsLargeList() throws IOException, InterruptedException {
+        for (int i = 0; i < 5_000; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(getBaseUrl() + "/tasks")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(5_000, tasks.length);
+        assertEquals("Задача 4999", tasks[4_999].getTitle());
+    }
+
+    @Test
+    void testStreamFailureAbortsResponse() throws IOException {
+        taskServer.stop();
+        TaskManager failing = new InMemoryTaskManager() {
+            @Override
+            public void forEachTask(Consumer<? super Task> action) {
+                super.forEachTask(action);
+                throw new IllegalStateException("Обход прерван");
+            }
+        };
+        for (int i = 0; i < 1_000; i++) {
+            failing.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        taskServer = new HttpTaskServer(failing);
+        taskServer.start();
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(getBaseUrl() + "/tasks")).GET().build();
+
+        assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()),
+                "Оборванный поток не должен дойти до клиента как успешный ответ");
+    }
+}
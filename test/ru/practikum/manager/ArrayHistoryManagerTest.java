@@ -0,0 +1,97 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest {
+
+    private static Task[] tasks(int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Задача " + i, "", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+        return tasks;
+    }
+
+    @Test
+    void shouldMatchInMemoryHistoryManager() {
+        Task[] tasks = tasks(200);
+        Random random = new Random(3);
+        for (int capacity : new int[]{InMemoryHistoryManager.UNBOUNDED, 1, 7, 64}) {
+            HistoryManager expected = new InMemoryHistoryManager(capacity);
+            HistoryManager actual = new ArrayHistoryManager(capacity);
+            for (int step = 0; step < 20_000; step++) {
+                Task task = tasks[random.nextInt(tasks.length)];
+                if (random.nextInt(4) == 0) {
+                    expected.remove(task.getId());
+                    actual.remove(task.getId());
+                } else {
+                    expected.add(task);
+                    actual.add(task);
+                }
+                if (step % 97 == 0) {
+                    assertEquals(expected.getHistory(), actual.getHistory(), "capacity=" + capacity);
+                    assertEquals(expected.getHistory(5), actual.getHistory(5), "capacity=" + capacity);
+                }
+            }
+            assertEquals(expected.getHistory(), actual.getHistory(), "capacity=" + capacity);
+        }
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyViewed() {
+        Task[] tasks = tasks(3);
+        HistoryManager history = Managers.getArrayHistory(2);
+        history.add(tasks[0]);
+        history.add(tasks[1]);
+        history.add(tasks[0]);
+        history.add(tasks[2]);
+
+        assertEquals(List.of(tasks[0], tasks[2]), history.getHistory());
+        assertEquals(List.of(tasks[2]), history.getHistory(1));
+        assertThrows(IllegalArgumentException.class, () -> history.getHistory(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ArrayHistoryManager(0));
+    }
+
+    @Test
+    void steadyStateAddAndRemoveShouldNotAllocate() {
+        Task[] tasks = tasks(1_000);
+        HistoryManager history = new ArrayHistoryManager(512);
+        Random random = new Random(5);
+        int[] operations = new int[200_000];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = random.nextInt(tasks.length * 4);
+        }
+        // Прогрев: массивы и таблица дорастают до рабочего размера, методы компилируются
+        for (int round = 0; round < 5; round++) {
+            apply(history, tasks, operations);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        apply(history, tasks, operations);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(allocated < 4096, "add/remove не должны выделять память, выделено " + allocated + " байт");
+    }
+
+    private static void apply(HistoryManager history, Task[] tasks, int[] operations) {
+        for (int operation : operations) {
+            Task task = tasks[operation % tasks.length];
+            if (operation >= tasks.length * 3) {
+                history.remove(task.getId());
+            } else {
+                history.add(task);
+            }
+        }
+    }
+}
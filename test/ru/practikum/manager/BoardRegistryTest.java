@@ -0,0 +1,112 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardRegistryTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 4, 1, 9, 0);
+
+    private BoardRegistry boards;
+
+    @BeforeEach
+    void setUp() {
+        boards = new BoardRegistry();
+    }
+
+    @Test
+    void testBoardsAreCreatedLazilyAndIsolated() {
+        assertTrue(boards.getBoardIds().isEmpty());
+
+        Task first = boards.board("backend").createTask(new Task("Задача", "", Status.NEW,
+                Duration.ofHours(1), BASE));
+        Task second = boards.board("frontend").createTask(new Task("Задача", "", Status.NEW,
+                Duration.ofHours(1), BASE));
+
+        assertSame(boards.board("backend"), boards.board("backend"));
+        assertEquals(first.getId(), second.getId(), "У каждой доски своя нумерация");
+        assertEquals(List.of("backend", "frontend"), boards.getBoardIds());
+        assertEquals(1, boards.board("backend").getAllTasks().size());
+    }
+
+    @Test
+    void testInvalidBoardIdRejected() {
+        assertThrows(IllegalArgumentException.class, () -> boards.board("../etc"));
+        assertThrows(IllegalArgumentException.class, () -> boards.board(""));
+        assertThrows(IllegalArgumentException.class, () -> boards.board("search"),
+                "Имена общих запросов зарезервированы");
+        assertThrows(IllegalArgumentException.class, () -> boards.board("prioritized"));
+    }
+
+    @Test
+    void testFindBoardDoesNotCreateBoard() {
+        assertNull(boards.findBoard("backend"));
+        assertTrue(boards.getBoardIds().isEmpty());
+
+        TaskManager backend = boards.board("backend");
+        assertSame(backend, boards.findBoard("backend"));
+    }
+
+    @Test
+    void testCreateBoardKeepsBoardOnlyAfterSuccessfulInit() {
+        assertNull(boards.createBoard("backend", manager -> false));
+        assertTrue(boards.getBoardIds().isEmpty(), "Неудачное создание не должно оставлять доску");
+
+        TaskManager backend = boards.createBoard("backend", manager -> {
+            manager.createTask(new Task("Задача", "", Status.NEW));
+            return true;
+        });
+        assertSame(backend, boards.findBoard("backend"));
+        assertSame(backend, boards.createBoard("backend", manager -> false),
+                "Существующая доска не пропадает из-за неудачного запроса");
+        assertEquals(1, backend.getAllTasks().size());
+    }
+
+    @Test
+    void testPrioritizedMergesAllBoardsByStart() {
+        for (int board = 0; board < 5; board++) {
+            TaskManager manager = boards.board("b" + board);
+            for (int i = 0; i < 4; i++) {
+                manager.createTask(new Task("Задача " + i, "", Status.NEW, Duration.ofMinutes(30),
+                        BASE.plusHours(i * 5L + board)));
+            }
+        }
+
+        List<BoardTask> prioritized = boards.getPrioritizedTasks();
+
+        assertEquals(20, prioritized.size());
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertTrue(prioritized.get(i - 1).getTask().getStartTime()
+                    .isBefore(prioritized.get(i).getTask().getStartTime()));
+        }
+        assertEquals("b0", prioritized.get(0).getBoard());
+        assertEquals("b4", prioritized.get(19).getBoard());
+    }
+
+    @Test
+    void testEqualStartsOrderedByBoard() {
+        boards.board("b").createTask(new Task("Задача", "", Status.NEW, Duration.ofHours(1), BASE));
+        boards.board("a").createTask(new Task("Задача", "", Status.NEW, Duration.ofHours(1), BASE));
+
+        assertEquals(List.of("a", "b"), boards.getPrioritizedTasks().stream().map(BoardTask::getBoard).toList());
+    }
+
+    @Test
+    void testSearchAcrossBoards() {
+        boards.board("ops").createTask(new Task("Обновить сертификаты", "", Status.NEW));
+        boards.board("api").createTask(new Task("Сертификаты клиентов", "", Status.NEW));
+        boards.board("api").createTask(new Task("Документация", "", Status.NEW));
+
+        List<BoardTask> found = boards.search("сертиф");
+
+        assertEquals(List.of("api", "ops"), found.stream().map(BoardTask::getBoard).toList());
+        assertEquals("Сертификаты клиентов", found.get(0).getTask().getTitle());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Сравнение IntervalIndex (TreeSet объектов) с CompactIntervalIndex (параллельные массивы):
+ * время проверки пересечений и байты, выделенные на одну проверку.
+ * Запуск: java ru.practikum.manager.CompactIntervalIndexBenchmark [количество задач] [количество проверок]
+ */
+public class CompactIntervalIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int probes = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        TimeIndex tree = new IntervalIndex();
+        TimeIndex compact = new CompactIntervalIndex();
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task("Задача " + i, "", Status.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(i));
+            task.setId(i);
+            tree.add(task);
+            compact.add(task);
+        }
+
+        Task[] candidates = new Task[probes];
+        for (int i = 0; i < probes; i++) {
+            long hour = (long) i * size / probes;
+            Task task = new Task("Кандидат", "", Status.NEW, Duration.ofMinutes(20),
+                    BASE.plusHours(hour).plusMinutes(i % 2 == 0 ? 10 : 35));
+            task.setId(size + i + 1);
+            candidates[i] = task;
+        }
+
+        for (int round = 0; round < 5; round++) {
+            measure("дерево", tree, candidates);
+            measure("массивы", compact, candidates);
+        }
+    }
+
+    private static void measure(String name, TimeIndex index, Task[] candidates) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long conflicts = 0;
+        long started = System.nanoTime();
+        for (Task candidate : candidates) {
+            if (index.hasConflictWith(candidate)) {
+                conflicts++;
+            }
+        }
+        long nanos = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-8s задач=%d: %.3f мкс/проверка, %.1f байт/проверка (%d конфликтов)%n",
+                name, index.size(), nanos / 1000.0 / candidates.length,
+                (double) allocated / candidates.length, conflicts);
+    }
+}
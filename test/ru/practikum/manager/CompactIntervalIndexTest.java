@@ -0,0 +1,115 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactIntervalIndexTest extends IntervalIndexTest {
+
+    @Override
+    protected TimeIndex createIndex() {
+        return new CompactIntervalIndex();
+    }
+
+    @Test
+    void nanosShouldRoundTripWithoutLosingSeconds() {
+        LocalDateTime time = LocalDateTime.of(2025, 1, 1, 10, 0, 30, 123_456_789);
+        assertEquals(time, CompactIntervalIndex.fromNanos(CompactIntervalIndex.toNanos(time)));
+        LocalDateTime beforeEpoch = LocalDateTime.of(1960, 6, 1, 0, 0, 1, 5);
+        assertEquals(beforeEpoch, CompactIntervalIndex.fromNanos(CompactIntervalIndex.toNanos(beforeEpoch)));
+        assertThrows(IllegalArgumentException.class, () -> CompactIntervalIndex.toNanos(LocalDateTime.of(3000, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void freeSlotShouldNotOverflowNearEndOfRange() {
+        Task last = new Task("Последняя", "", Status.NEW, Duration.ofNanos(100),
+                CompactIntervalIndex.fromNanos(Long.MAX_VALUE - 500));
+        last.setId(1);
+        index.add(last);
+
+        LocalDateTime slot = index.findFreeSlot(Duration.ofHours(1), CompactIntervalIndex.fromNanos(Long.MAX_VALUE - 1000));
+        assertFalse(slot.isBefore(last.getEndTime()), "Переполнение конца окна не должно давать пересечение");
+        assertEquals(slot, index.findFreeSlot(ChronoUnit.FOREVER.getDuration(),
+                CompactIntervalIndex.fromNanos(Long.MAX_VALUE - 1000)));
+    }
+
+    @Test
+    void shouldDistinguishSubMinuteOverlaps() {
+        Task first = new Task("Первая", "", Status.NEW, Duration.ofSeconds(300),
+                LocalDateTime.of(2025, 1, 1, 10, 0, 30));
+        first.setId(1);
+        index.add(first);
+        Task second = new Task("Вторая", "", Status.NEW, Duration.ofMinutes(5),
+                LocalDateTime.of(2025, 1, 1, 10, 5, 10));
+        second.setId(2);
+
+        assertTrue(index.hasConflictWith(second), "Округление до минут потеряло бы это пересечение");
+    }
+
+    @Test
+    void shouldAgreeWithTreeIndexOnRandomOperations() {
+        agreeWithTreeIndex(300, 5_000);
+    }
+
+    @Test
+    void shouldAgreeWithTreeIndexAcrossManyBlocks() {
+        agreeWithTreeIndex(5_000, 30_000);
+    }
+
+    @Test
+    void shouldFillBlocksWhenTasksArriveInOrder() {
+        TimeIndex tree = new IntervalIndex();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int id = 1; id <= 3_000; id++) {
+            Task task = new Task("Задача", "", Status.NEW, Duration.ofMinutes(30), base.plusHours(id));
+            task.setId(id);
+            tree.add(task);
+            index.add(task);
+        }
+        for (int id = 1; id <= 3_000; id += 2) {
+            tree.remove(id);
+            index.remove(id);
+        }
+
+        assertEquals(tree.size(), index.size());
+        assertEquals(tree.findFreeSlot(Duration.ofMinutes(45), base), index.findFreeSlot(Duration.ofMinutes(45), base));
+        assertEquals(2_000, index.findRunningAt(base.plusHours(2_000).plusMinutes(10)).getId());
+        assertNull(index.findRunningAt(base.plusHours(1_999).plusMinutes(10)));
+    }
+
+    private void agreeWithTreeIndex(int ids, int steps) {
+        TimeIndex tree = new IntervalIndex();
+        Random random = new Random(11);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        int minutes = ids * 70;
+        for (int step = 0; step < steps; step++) {
+            int id = random.nextInt(ids) + 1;
+            Task task = new Task("Задача", "", Status.NEW, Duration.ofMinutes(random.nextInt(4) * 15),
+                    base.plusMinutes(random.nextInt(minutes)));
+            task.setId(id);
+            if (random.nextInt(4) == 0) {
+                tree.remove(id);
+                index.remove(id);
+            } else if (!tree.hasConflictWith(task)) {
+                tree.add(task);
+                index.add(task);
+            }
+            assertEquals(tree.size(), index.size());
+
+            Task probe = new Task("Проба", "", Status.NEW, Duration.ofMinutes(random.nextInt(120)),
+                    base.plusMinutes(random.nextInt(minutes)));
+            probe.setId(ids + 1);
+            assertEquals(tree.hasConflictWith(probe), index.hasConflictWith(probe));
+            assertEquals(tree.findRunningAt(probe.getStartTime()), index.findRunningAt(probe.getStartTime()));
+            assertEquals(tree.findFreeSlot(probe.getDuration(), probe.getStartTime()),
+                    index.findFreeSlot(probe.getDuration(), probe.getStartTime()));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+    @Override
+    protected InMemoryTaskManager createTaskManager() {
+        return new InMemoryTaskManager(StorageEngine.COMPACT);
+    }
+
+    @Test
+    void testTimeOutsideSupportedRangeIsRejected() {
+        Task farFuture = new Task("Далёкое будущее", "Описание", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(3000, 1, 1, 10, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTask(farFuture));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createAll(List.of(farFuture)));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+}
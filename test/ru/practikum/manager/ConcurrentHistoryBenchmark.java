@@ -0,0 +1,59 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Пропускная способность просмотров из нескольких потоков: InMemoryHistoryManager под общим монитором,
+ * как было в ConcurrentTaskManager, против ConcurrentHistoryManager с буферами по потокам.
+ * Запуск: java ru.practikum.manager.ConcurrentHistoryBenchmark [число потоков]
+ */
+public class ConcurrentHistoryBenchmark {
+    private static final int VIEWS_PER_THREAD = 2_000_000;
+    private static final int DISTINCT = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        Task[] tasks = new Task[DISTINCT];
+        for (int i = 0; i < DISTINCT; i++) {
+            tasks[i] = new Task("Задача " + i, "", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+        for (int round = 0; round < 5; round++) {
+            HistoryManager locked = new InMemoryHistoryManager(1_000);
+            measure("монитор", threads, tasks, task -> {
+                synchronized (locked) {
+                    locked.add(task);
+                }
+            });
+            HistoryManager striped = new ConcurrentHistoryManager(1_000);
+            measure("полосы", threads, tasks, striped::add);
+        }
+    }
+
+    private static void measure(String name, int threads, Task[] tasks, Consumer<Task> view)
+            throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < VIEWS_PER_THREAD; i++) {
+                    view.accept(tasks[random.nextInt(tasks.length)]);
+                }
+            }));
+        }
+        long started = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-8s потоков: %d, %.1f млн просмотров/с%n",
+                name, threads, threads * (double) VIEWS_PER_THREAD / seconds / 1e6);
+    }
+}
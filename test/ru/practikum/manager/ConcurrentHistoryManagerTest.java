@@ -0,0 +1,112 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    private static Task[] tasks(int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Задача " + i, "", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+        return tasks;
+    }
+
+    @Test
+    void shouldMatchInMemoryHistoryManagerInOneThread() {
+        Task[] tasks = tasks(200);
+        Random random = new Random(5);
+        for (int capacity : new int[]{InMemoryHistoryManager.UNBOUNDED, 1, 7, 64}) {
+            HistoryManager expected = new InMemoryHistoryManager(capacity);
+            HistoryManager actual = new ConcurrentHistoryManager(capacity);
+            for (int step = 0; step < 20_000; step++) {
+                Task task = tasks[random.nextInt(tasks.length)];
+                if (random.nextInt(4) == 0) {
+                    expected.remove(task.getId());
+                    actual.remove(task.getId());
+                } else {
+                    expected.add(task);
+                    actual.add(task);
+                }
+                if (step % 97 == 0) {
+                    assertEquals(expected.getHistory(), actual.getHistory(), "capacity=" + capacity);
+                    assertEquals(expected.getHistory(5), actual.getHistory(5), "capacity=" + capacity);
+                }
+            }
+            assertEquals(expected.getHistory(), actual.getHistory(), "capacity=" + capacity);
+        }
+    }
+
+    @Test
+    void concurrentViewsShouldKeepEachThreadOrderWithoutDuplicates() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        Task[] tasks = tasks(threads * perThread + 10);
+        Task[] shared = Arrays.copyOfRange(tasks, threads * perThread, tasks.length);
+        HistoryManager history = Managers.getConcurrentHistory();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    Random random = new Random(first);
+                    // Каждый поток дважды проходит свои задачи, удаляя часть из них, и попутно смотрит общие
+                    for (int round = 0; round < 2; round++) {
+                        for (int i = first; i < first + perThread; i++) {
+                            history.add(tasks[i]);
+                            history.add(shared[random.nextInt(shared.length)]);
+                            if (round == 1 && i % 5 == 0) {
+                                history.remove(tasks[i].getId());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Task> viewed = history.getHistory();
+        Set<Integer> seen = new HashSet<>();
+        int[] lastOfThread = new int[threads];
+        int own = 0;
+        for (Task task : viewed) {
+            assertTrue(seen.add(task.getId()), "Повтор в истории: " + task.getId());
+            int index = task.getId() - 1;
+            if (index >= threads * perThread) {
+                continue;
+            }
+            int thread = index / perThread;
+            assertNotEquals(0, index % 5, "Удалённая задача осталась в истории");
+            assertTrue(index > lastOfThread[thread], "Нарушен порядок просмотров потока " + thread);
+            lastOfThread[thread] = index;
+            own++;
+        }
+        assertEquals(threads * perThread * 4 / 5, own);
+    }
+}
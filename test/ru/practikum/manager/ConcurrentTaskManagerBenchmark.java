@@ -0,0 +1,66 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Пропускная способность ConcurrentTaskManager в зависимости от числа потоков.
+ * Каждый поток работает со своим эпиком: создаёт подзадачи и меняет их статус.
+ * Каждая десятая подзадача получает время и проходит через общий индекс времени.
+ * Запуск: java ru.practikum.manager.ConcurrentTaskManagerBenchmark [операций на поток]
+ */
+public class ConcurrentTaskManagerBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Доступно ядер: " + cores);
+        for (int threads = 1; threads <= Math.max(2, cores * 2); threads *= 2) {
+            run(threads, operations);
+        }
+    }
+
+    private static void run(int threads, int operations) throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Epic epic = manager.createEpic(new Epic("Эпик " + t, ""));
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    LocalDateTime startTime = i % 10 == 0
+                            ? BASE.plusHours((long) i * threads + thread) : null;
+                    Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "", Status.NEW,
+                            epic.getId(), Duration.ofMinutes(30), startTime));
+                    subtask.setStatus(Status.DONE);
+                    manager.updateSubtask(subtask);
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        executor.shutdown();
+
+        long total = 2L * operations * threads;
+        System.out.printf("потоков=%d: %.0f операций/с%n", threads, total / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,355 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.exception.TaskTimeConflictException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+import ru.practikum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentWritesShouldKeepManagerConsistent() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(8);
+        int threads = 8;
+        int operations = 2_000;
+        Epic[] createdEpics = new Epic[16];
+        for (int i = 0; i < createdEpics.length; i++) {
+            createdEpics[i] = manager.createEpic(new Epic("Эпик " + i, "Описание"));
+        }
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        // Слоты по 30 минут из небольшого диапазона, чтобы пересечения случались часто
+                        LocalDateTime startTime = BASE.plusMinutes(15L * random.nextInt(400));
+                        try {
+                            if (random.nextBoolean()) {
+                                Epic epic = createdEpics[random.nextInt(createdEpics.length)];
+                                Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "",
+                                        Status.values()[random.nextInt(3)], epic.getId(),
+                                        Duration.ofMinutes(30), startTime));
+                                if (random.nextInt(4) == 0) {
+                                    manager.deleteSubtaskById(subtask.getId());
+                                }
+                            } else {
+                                Task task = manager.createTask(new Task("Задача", "", Status.NEW,
+                                        Duration.ofMinutes(30), startTime));
+                                manager.getTaskById(task.getId());
+                            }
+                        } catch (TaskTimeConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(conflicts.get() > 0, "Тест должен порождать конфликты по времени");
+
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i - 1).getEndTime().isAfter(prioritized.get(i).getStartTime()),
+                    "В индексе не должно быть пересекающихся задач");
+        }
+        assertEquals(manager.getAllTasks().size() + manager.getAllSubtasks().size(), prioritized.size());
+
+        Set<Integer> ids = new HashSet<>();
+        prioritized.forEach(task -> assertTrue(ids.add(task.getId()), "id должны быть уникальными"));
+
+        for (Epic epic : createdEpics) {
+            List<Subtask> epicSubtasks = manager.getSubtasksByEpicId(epic.getId());
+            assertEquals(epicSubtasks.size(), epic.getSubtaskIds().size());
+            Status expected;
+            if (epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW)) {
+                expected = Status.NEW;
+            } else if (epicSubtasks.stream().allMatch(subtask -> subtask.getStatus() == Status.DONE)) {
+                expected = Status.DONE;
+            } else {
+                expected = Status.IN_PROGRESS;
+            }
+            assertEquals(expected, epic.getStatus(), "Статус эпика должен соответствовать подзадачам");
+            // Эпик, которому не досталось ни одной подзадачи, не пересчитывался, и длительности у него нет
+            Duration duration = epic.getDuration() == null ? Duration.ZERO : epic.getDuration();
+            assertEquals(Duration.ofMinutes(30L * epicSubtasks.size()), duration);
+        }
+    }
+
+    @Test
+    void snapshotShouldNotSeeLaterWrites() {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        manager.createTask(new Task("Задача 1", "", Status.NEW, Duration.ofHours(1), BASE));
+        TaskSnapshot before = manager.snapshot();
+
+        Task second = manager.createTask(new Task("Задача 2", "", Status.NEW, Duration.ofHours(1),
+                BASE.plusHours(2)));
+        manager.deleteAllSubtasks();
+
+        assertEquals(1, before.getTasks().size(), "Срез не должен видеть последующие записи");
+        assertEquals(1, before.getPrioritizedTasks().size());
+        TaskSnapshot after = manager.snapshot();
+        assertTrue(after.getVersion() > before.getVersion(), "Каждая запись публикует новую версию");
+        assertEquals(List.of(second), after.getPrioritizedTasks().subList(1, 2));
+    }
+
+    @Test
+    void readersShouldNeverSeeTornSnapshots() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = manager.createEpic(new Epic("Эпик", ""));
+        AtomicInteger torn = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 3_000; i++) {
+                    LocalDateTime startTime = BASE.plusHours(i);
+                    if (i % 2 == 0) {
+                        Task task = manager.createTask(new Task("Задача", "", Status.NEW,
+                                Duration.ofMinutes(30), startTime));
+                        task.setStartTime(startTime.plusMinutes(30));
+                        manager.updateTask(task);
+                    } else {
+                        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "", Status.NEW,
+                                epic.getId(), Duration.ofMinutes(30), startTime));
+                        if (i % 3 == 0) {
+                            manager.deleteSubtaskById(subtask.getId());
+                        }
+                    }
+                }
+            });
+            Runnable reader = () -> {
+                while (!writer.isDone()) {
+                    TaskSnapshot snapshot = manager.snapshot();
+                    Set<Integer> ids = new HashSet<>();
+                    snapshot.getTasks().forEach(task -> ids.add(task.getId()));
+                    snapshot.getSubtasks().forEach(subtask -> ids.add(subtask.getId()));
+                    if (ids.size() != snapshot.getPrioritizedTasks().size()) {
+                        torn.incrementAndGet();
+                    }
+                    for (Task task : snapshot.getPrioritizedTasks()) {
+                        if (!ids.contains(task.getId())) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                    reads.incrementAndGet();
+                }
+            };
+            Future<?> firstReader = executor.submit(reader);
+            Future<?> secondReader = executor.submit(reader);
+            writer.get(60, TimeUnit.SECONDS);
+            firstReader.get(60, TimeUnit.SECONDS);
+            secondReader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, torn.get(), "Срез должен быть согласованным между коллекциями");
+    }
+
+    @Test
+    void readersShouldNeverSeeTornEpics() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = manager.createEpic(new Epic("Эпик", ""));
+        AtomicInteger torn = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                List<Subtask> created = new ArrayList<>();
+                for (int i = 0; i < 5_000; i++) {
+                    if (created.isEmpty() || i % 3 != 0) {
+                        created.add(manager.createSubtask(new Subtask("Подзадача", "", Status.values()[i % 3],
+                                epic.getId(), Duration.ofMinutes(30), BASE.plusHours(i))));
+                    } else {
+                        manager.deleteSubtaskById(created.remove(created.size() / 2).getId());
+                    }
+                }
+            });
+            Runnable reader = () -> {
+                while (!writer.isDone()) {
+                    Epic published = manager.getAllEpics().get(0);
+                    Epic viewed = manager.getEpicById(epic.getId());
+                    for (Epic seen : List.of(published, viewed)) {
+                        List<Integer> subtaskIds = seen.getSubtaskIds();
+                        Duration expected = Duration.ofMinutes(30L * subtaskIds.size());
+                        if (seen.getDuration() != null && !expected.equals(seen.getDuration())
+                                || (seen.getStartTime() == null) != subtaskIds.isEmpty()) {
+                            torn.incrementAndGet();
+                        }
+                    }
+                    reads.incrementAndGet();
+                }
+            };
+            Future<?> firstReader = executor.submit(reader);
+            Future<?> secondReader = executor.submit(reader);
+            writer.get(60, TimeUnit.SECONDS);
+            firstReader.get(60, TimeUnit.SECONDS);
+            secondReader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, torn.get(), "Читатель не должен видеть эпик посреди пересчёта");
+        assertNotSame(epic, manager.getAllEpics().get(0), "Срез не должен отдавать эпик, который меняют писатели");
+    }
+
+    @Test
+    void statisticsShouldBeTakenFromOneVersion() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        AtomicInteger mismatched = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                List<Task> created = new ArrayList<>();
+                for (int i = 0; i < 5_000; i++) {
+                    if (created.isEmpty() || i % 3 != 0) {
+                        created.add(manager.createTask(new Task("Задача", "", Status.values()[i % 3],
+                                Duration.ofMinutes(30), BASE.plusDays(i))));
+                        manager.createEpic(new Epic("Эпик", ""));
+                    } else {
+                        manager.deleteTaskById(created.remove(created.size() / 2).getId());
+                    }
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                while (!writer.isDone()) {
+                    TaskStatistics stats = manager.statistics();
+                    int tasks = 0;
+                    int epics = 0;
+                    for (Status status : Status.values()) {
+                        tasks += stats.getCount(TaskType.TASK, status);
+                        epics += stats.getCount(TaskType.EPIC, status);
+                    }
+                    // Каждая задача начинается в свой день, поэтому дней загрузки столько же, сколько задач
+                    if (tasks != stats.getWorkloadByDay().size() || epics != stats.getPlannedByEpic().size()) {
+                        mismatched.incrementAndGet();
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+            writer.get(60, TimeUnit.SECONDS);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, mismatched.get(), "Счётчики и загрузка сводки должны относиться к одной версии");
+    }
+
+    @Test
+    void viewRacingWithDeleteShouldNotLeaveDeletedTaskInHistory() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                Task task = manager.createTask(new Task("Задача", "", Status.NEW));
+                CountDownLatch started = new CountDownLatch(1);
+                Future<?> viewer = executor.submit(() -> {
+                    started.countDown();
+                    while (manager.getTaskById(task.getId()) != null) {
+                        Thread.onSpinWait();
+                    }
+                });
+                started.await();
+                manager.deleteTaskById(task.getId());
+                viewer.get(10, TimeUnit.SECONDS);
+                for (Task viewed : manager.getHistory()) {
+                    assertNotEquals(task.getId(), viewed.getId(),
+                            "Удалённая задача не должна оставаться в истории, раунд " + round);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void eventsOfOneTaskShouldArriveInWriteOrder() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Task task = manager.createTask(new Task("Начало", "", Status.NEW));
+        List<TaskEvent> syncEvents = Collections.synchronizedList(new ArrayList<>());
+        List<TaskEvent> asyncEvents = Collections.synchronizedList(new ArrayList<>());
+        manager.subscribe(syncEvents::addAll);
+        ExecutorService delivery = Executors.newSingleThreadExecutor();
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            manager.subscribeAsync(asyncEvents::addAll, delivery, 16);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (String writer : List.of("A", "B")) {
+                futures.add(writers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        Task update = new Task(writer + i, "", Status.NEW);
+                        update.setId(task.getId());
+                        manager.updateTask(update);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (asyncEvents.size() < syncEvents.size() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            writers.shutdownNow();
+            delivery.shutdownNow();
+        }
+
+        String finalTitle = manager.getTaskById(task.getId()).getTitle();
+        for (List<TaskEvent> events : List.of(syncEvents, asyncEvents)) {
+            assertEquals(10_000, events.size());
+            for (int i = 1; i < events.size(); i++) {
+                assertEquals(events.get(i - 1).getAfter().getTitle(), events.get(i).getBefore().getTitle(),
+                        "Событие " + i + " должно продолжать предыдущее");
+            }
+            assertEquals(finalTitle, events.get(events.size() - 1).getAfter().getTitle());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Стоимость обновления подзадачи в эпике на 10 000 подзадач: инкрементальный пересчёт
+ * статуса и времени эпика против полного прохода по подзадачам, как было раньше.
+ * Запуск: java ru.practikum.manager.EpicRollupBenchmark [подзадач в эпике] [обновлений]
+ */
+public class EpicRollupBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = manager.createEpic(new Epic("Большой эпик", "Описание"));
+        Subtask[] subtasks = new Subtask[size];
+        for (int i = 0; i < size; i++) {
+            subtasks[i] = manager.createSubtask(new Subtask("Подзадача " + i, "", Status.NEW,
+                    epic.getId(), Duration.ofMinutes(30), BASE.plusHours(i)));
+        }
+
+        Status[] statuses = Status.values();
+        for (int round = 0; round < 3; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                Subtask subtask = subtasks[(i * 7919) % size];
+                subtask.setStatus(statuses[i % statuses.length]);
+                manager.updateSubtask(subtask);
+            }
+            long incrementalNanos = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < updates; i++) {
+                checksum += InMemoryTaskManagerTest.recalculateEpicStatus(manager, epic.getId()).ordinal();
+                checksum += fullTimeScan(manager, epic).toMinutes();
+            }
+            long fullScanNanos = System.nanoTime() - started;
+
+            System.out.printf("подзадач=%d: инкрементально %.2f мкс/обновление, " +
+                            "полный пересчёт %.2f мкс/обновление (%d)%n",
+                    size, incrementalNanos / 1000.0 / updates, fullScanNanos / 1000.0 / updates, checksum);
+        }
+    }
+
+    private static Duration fullTimeScan(InMemoryTaskManager manager, Epic epic) {
+        Duration total = Duration.ZERO;
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (int subtaskId : epic.getSubtaskIds()) {
+            Subtask subtask = manager.subtasks.get(subtaskId);
+            total = total.plus(subtask.getDuration());
+            if (earliest == null || subtask.getStartTime().isBefore(earliest)) {
+                earliest = subtask.getStartTime();
+            }
+            if (latest == null || subtask.getEndTime().isAfter(latest)) {
+                latest = subtask.getEndTime();
+            }
+        }
+        return total.plus(Duration.between(earliest, latest));
+    }
+}
@@ -7,6 +7,8 @@ import ru.practikum.model.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -33,6 +35,9 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         if (file != null && file.exists()) {
             file.delete();
         }
+        if (file != null) {
+            FileBackedTaskManager.historyFileOf(file).delete();
+        }
     }
 
     @Test
@@ -168,6 +173,49 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         }
     }
 
+    @Test
+    void batchOperationsShouldSaveOnce() {
+        int[] saves = new int[1];
+        FileBackedTaskManager manager = new FileBackedTaskManager(file) {
+            @Override
+            protected void save() {
+                saves[0]++;
+                super.save();
+            }
+        };
+        Epic batchEpic = manager.createEpic(new Epic("Эпик", "Описание"));
+        saves[0] = 0;
+
+        List<Task> created = manager.createAll(List.of(
+                new Task("Задача", "Описание", Status.NEW, Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 9, 0)),
+                new Subtask("Подзадача 1", "Описание", Status.DONE, batchEpic.getId(),
+                        Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 10, 0)),
+                new Subtask("Подзадача 2", "Описание", Status.NEW, batchEpic.getId(), null, null)));
+        assertEquals(1, saves[0], "Пакет должен сохраняться в файл один раз");
+
+        manager.deleteAll(List.of(created.get(0).getId(), created.get(2).getId()));
+        assertEquals(2, saves[0]);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+        assertTrue(loaded.getAllTasks().isEmpty());
+        assertEquals(1, loaded.getAllSubtasks().size());
+        assertEquals(Status.DONE, loaded.getEpicById(batchEpic.getId()).getStatus());
+    }
+
+    @Test
+    void loadedManagerShouldRebuildStatusIndex() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Epic savedEpic = manager.createEpic(new Epic("Эпик", "Описание"));
+        manager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, savedEpic.getId(), null, null));
+        manager.createTask(new Task("Задача", "Описание", Status.IN_PROGRESS));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(1, loaded.getTasksByStatus(Status.IN_PROGRESS).size());
+        assertEquals(1, loaded.getSubtasksByStatus(Status.DONE).size());
+        assertEquals(List.of(savedEpic), loaded.getEpicsByStatus(Status.DONE));
+    }
+
     @Test
     void loadFromFileShouldThrowExceptionWhenFileNotFound() {
         File nonExistentFile = new File("non_existent_file.txt");
@@ -176,4 +224,169 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
             FileBackedTaskManager.loadFromFile(nonExistentFile);
         }, "Загрузка из несуществующего файла = исключение");
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadedManagerShouldRestoreHistoryFromLog() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Task task = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW,
+                epic.getId(), null, null));
+        Task deleted = manager.createTask(new Task("Удалённая", "Описание", Status.NEW));
+        manager.getTaskById(task.getId());
+        manager.getSubtaskById(subtask.getId());
+        manager.getTaskById(deleted.getId());
+        manager.getEpicById(epic.getId());
+        manager.getTaskById(task.getId());
+        manager.deleteTaskById(deleted.getId());
+        manager.flushHistory();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(subtask.getId(), epic.getId(), task.getId()),
+                loaded.getHistory().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void historyLogShouldBeCompactedToCurrentOrder() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Task first = manager.createTask(new Task("Первая", "Описание", Status.NEW));
+        Task second = manager.createTask(new Task("Вторая", "Описание", Status.NEW));
+        for (int i = 0; i < 5_000; i++) {
+            manager.getTaskById(i % 2 == 0 ? first.getId() : second.getId());
+        }
+        manager.flushHistory();
+
+        File log = FileBackedTaskManager.historyFileOf(file);
+        assertTrue(Files.readAllLines(log.toPath()).size() <= 1025, "Журнал должен сжиматься");
+        assertEquals(List.of(first.getId(), second.getId()), PersistentHistoryManager.replay(log));
+
+        FileBackedTaskManager.loadFromFile(file).flushHistory();
+        assertEquals(List.of("+" + first.getId(), "+" + second.getId()), Files.readAllLines(log.toPath()),
+                "После загрузки журнал переписывается без повторов");
+    }
+
+    @Test
+    void replayShouldRejectCorruptedLog() throws IOException {
+        File log = FileBackedTaskManager.historyFileOf(file);
+        Files.writeString(log.toPath(), "+1\n?2\n");
+
+        assertThrows(ManagerLoadException.class, () -> PersistentHistoryManager.replay(log));
+    }
+
+    @Test
+    void tornHistoryTailShouldBeDroppedOnLoad() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Task first = manager.createTask(new Task("Первая", "Описание", Status.NEW));
+        Task second = manager.createTask(new Task("Вторая", "Описание", Status.NEW));
+        File log = FileBackedTaskManager.historyFileOf(file);
+        // Процесс упал посреди записи "+" + first.getId() + "0": на диске остался обрывок, похожий на первую задачу
+        Files.writeString(log.toPath(), "+" + second.getId() + "\n+999\n+" + first.getId());
+
+        assertEquals(List.of(second.getId(), 999), PersistentHistoryManager.replay(log));
+        assertEquals(List.of(second), FileBackedTaskManager.loadFromFile(file).getHistory(),
+                "Оборванная запись и id удалённой задачи в историю не попадают");
+    }
+
+    @Test
+    void binarySnapshotShouldRoundTripAllFields() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, StorageEngine.HASH_MAP,
+                PersistenceMode.SNAPSHOT, Durability.perWrite(), SnapshotFormat.BINARY);
+        Task late = manager.createTask(new Task("Поздняя, с запятой", "Описание", Status.IN_PROGRESS,
+                Duration.ofSeconds(90, 5), LocalDateTime.of(2025, 3, 1, 10, 0, 0, 7)));
+        Task unscheduled = manager.createTask(new Task("Без времени", null, Status.NEW));
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание эпика"));
+        Subtask early = manager.createSubtask(new Subtask("Ранняя", "Описание", Status.DONE, epic.getId(),
+                Duration.ofHours(2), LocalDateTime.of(2025, 1, 1, 12, 0)));
+        Subtask other = manager.createSubtask(new Subtask("Вторая", "", Status.NEW, epic.getId(),
+                Duration.ofHours(1), LocalDateTime.of(2025, 2, 1, 12, 0)));
+
+        assertEquals(BinarySnapshot.MAGIC, readMagic(), "Файл должен быть двоичным");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file);
+
+        assertEquals(List.of(early, other, late), loaded.getPrioritizedTasks());
+        Task loadedLate = loaded.getTaskById(late.getId());
+        assertEquals("Поздняя, с запятой", loadedLate.getTitle());
+        assertEquals(late.getDuration(), loadedLate.getDuration());
+        assertEquals(late.getStartTime(), loadedLate.getStartTime());
+        assertNull(loaded.getTaskById(unscheduled.getId()).getDescription());
+        Epic loadedEpic = loaded.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, loadedEpic.getStatus());
+        assertEquals(epic.getEndTime(), loadedEpic.getEndTime());
+        assertEquals(List.of(early, other), loaded.getSubtasksByEpicId(epic.getId()));
+        assertEquals(Status.DONE, loaded.getSubtaskById(early.getId()).getStatus());
+        assertTrue(loaded.createTask(new Task("Новая", "", Status.NEW)).getId() > other.getId());
+    }
+
+    @Test
+    void csvShouldConvertToBinaryAndExportBack() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+        Epic epic = manager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW, epic.getId(),
+                Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 10, 0)));
+
+        FileBackedTaskManager binary = FileBackedTaskManager.loadFromFile(file, StorageEngine.HASH_MAP,
+                PersistenceMode.SNAPSHOT, Durability.perWrite(), SnapshotFormat.BINARY);
+        assertEquals(BinarySnapshot.MAGIC, readMagic(), "Файл должен переписаться в двоичном формате");
+
+        File csv = File.createTempFile("test_export", ".csv");
+        try {
+            binary.export(csv, SnapshotFormat.CSV);
+            assertTrue(Files.readString(csv.toPath()).contains("Подзадача"));
+            assertEquals(List.of(subtask), FileBackedTaskManager.loadFromFile(csv).getAllSubtasks());
+        } finally {
+            csv.delete();
+            FileBackedTaskManager.historyFileOf(csv).delete();
+        }
+    }
+
+    @Test
+    void binarySnapshotOfUnknownVersionShouldBeRejected() throws IOException {
+        new FileBackedTaskManager(file, StorageEngine.HASH_MAP, PersistenceMode.SNAPSHOT, Durability.perWrite(),
+                SnapshotFormat.BINARY).createTask(new Task("Задача", "Описание", Status.NEW));
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[4] = 99;
+        Files.write(file.toPath(), bytes);
+
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file));
+    }
+
+    @Test
+    void binarySnapshotWithCorruptedRecordShouldBeRejected() throws IOException {
+        new FileBackedTaskManager(file, StorageEngine.HASH_MAP, PersistenceMode.SNAPSHOT, Durability.perWrite(),
+                SnapshotFormat.BINARY).createTask(new Task("Задача", "Описание", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        byte[] original = Files.readAllBytes(file.toPath());
+        // Одна запись с байта 8, номер записи в порядке приоритета — сразу за ней, с байта 72.
+        // Каждая строка: смещение, ширина поля в байтах, записываемое значение
+        int[][] corruptions = {
+                {8 + 4, 1, 7},              // тип
+                {8 + 5, 1, 9},              // статус
+                {8 + 12, 4, 1_000},         // смещение названия
+                {8 + 16, 4, 1_000},         // длина названия
+                {8 + 48, 4, 2_000_000_000}, // наносекунды начала
+                {72, 4, 1},                 // номер записи в порядке приоритета
+        };
+        for (int[] corruption : corruptions) {
+            ByteBuffer bytes = ByteBuffer.wrap(original.clone()).order(ByteOrder.LITTLE_ENDIAN);
+            if (corruption[1] == 1) {
+                bytes.put(corruption[0], (byte) corruption[2]);
+            } else {
+                bytes.putInt(corruption[0], corruption[2]);
+            }
+            Files.write(file.toPath(), bytes.array());
+
+            assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(file),
+                    "Повреждение по смещению " + corruption[0] + " должно отклоняться");
+        }
+    }
+
+    private int readMagic() {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()), 0, 4)
+                    .order(ByteOrder.LITTLE_ENDIAN).getInt();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Пропускная способность и задержка записи журнала при разной Durability: несколько потоков пишут
+ * записи размером со строку задачи и, кроме ASYNC, ждут своего fsync. Затем то же через API менеджера:
+ * FileBackedTaskManager в режиме журнала однопоточен, поэтому там видна задержка одиночной операции.
+ * Запуск: java ru.practikum.manager.GroupCommitBenchmark [число потоков] [записей на поток]
+ */
+public class GroupCommitBenchmark {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        List<Durability> modes = List.of(Durability.perWrite(), Durability.batched(Duration.ofMillis(1)),
+                Durability.batched(Duration.ofMillis(5)), Durability.async());
+        for (int round = 0; round < 2; round++) {
+            for (Durability durability : modes) {
+                measure(durability, threads, perThread);
+            }
+        }
+        for (int round = 0; round < 2; round++) {
+            for (Durability durability : modes) {
+                measureManager(durability, perThread);
+            }
+        }
+    }
+
+    private static void measureManager(Durability durability, int updates) throws IOException {
+        File file = File.createTempFile("group_commit_benchmark", ".csv");
+        try {
+            FileBackedTaskManager manager = new FileBackedTaskManager(file, StorageEngine.HASH_MAP,
+                    PersistenceMode.JOURNAL, durability);
+            Task task = manager.createTask(new Task("Задача", "Описание задачи", Status.NEW));
+            long[] latencies = new long[updates];
+            long started = System.nanoTime();
+            for (int i = 0; i < updates; i++) {
+                Task updated = new Task("Задача " + i, "Описание задачи", Status.IN_PROGRESS);
+                updated.setId(task.getId());
+                long before = System.nanoTime();
+                manager.updateTask(updated);
+                latencies[i] = System.nanoTime() - before;
+            }
+            manager.flushJournal();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("менеджер %-12s %8.0f операций/с, задержка p50 %.0f мкс, p99 %.0f мкс%n", durability,
+                    updates / seconds, latencies[updates / 2] / 1e3, latencies[updates * 99 / 100] / 1e3);
+        } finally {
+            file.delete();
+            TaskJournal.journalFileOf(file).delete();
+            TaskJournal.rotatedFileOf(file).delete();
+            FileBackedTaskManager.historyFileOf(file).delete();
+        }
+    }
+
+    private static void measure(Durability durability, int threads, int perThread) throws Exception {
+        File file = File.createTempFile("group_commit_benchmark", ".log");
+        try {
+            GroupCommitWriter writer = new GroupCommitWriter(file.toPath(), durability);
+            long[][] latencies = new long[threads][perThread];
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long[] own = latencies[t];
+                workers.add(new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            long started = System.nanoTime();
+                            CompletableFuture<Void> written = writer.append(StandardCharsets.UTF_8.encode(
+                                    "U," + i + ",TASK,Задача " + i + ",IN_PROGRESS,Описание задачи,60,,,\n"));
+                            if (durability.getMode() != Durability.Mode.ASYNC) {
+                                GroupCommitWriter.await(written);
+                            }
+                            own[i] = System.nanoTime() - started;
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }));
+            }
+            long started = System.nanoTime();
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            writer.close();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%-12s %8.0f записей/с, задержка p50 %.0f мкс, p99 %.0f мкс%n", durability,
+                    all.length / seconds, all[all.length / 2] / 1e3, all[all.length * 99 / 100] / 1e3);
+        } finally {
+            file.delete();
+        }
+    }
+}
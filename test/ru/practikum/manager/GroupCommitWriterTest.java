@@ -0,0 +1,126 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitWriterTest {
+    private File file;
+
+    @AfterEach
+    void delete() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    private List<String> writeConcurrently(Durability durability, int threads, int perThread) throws Exception {
+        file = File.createTempFile("group_commit", ".log");
+        GroupCommitWriter writer = new GroupCommitWriter(file.toPath(), durability);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        CompletableFuture<Void> written = writer.append(
+                                StandardCharsets.UTF_8.encode(thread + ":" + i + "\n"));
+                        if (durability.getMode() != Durability.Mode.ASYNC) {
+                            GroupCommitWriter.await(written);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        writer.close();
+        return Files.readAllLines(file.toPath());
+    }
+
+    @Test
+    void everyModeShouldKeepAllRecordsInCallOrder() throws Exception {
+        for (Durability durability : List.of(Durability.perWrite(), Durability.batched(Duration.ofMillis(2)),
+                Durability.async())) {
+            int threads = 4;
+            int perThread = 200;
+            List<String> lines = writeConcurrently(durability, threads, perThread);
+
+            assertEquals(threads * perThread, lines.size(), durability.toString());
+            int[] next = new int[threads];
+            for (String line : lines) {
+                String[] parts = line.split(":");
+                int thread = Integer.parseInt(parts[0]);
+                assertEquals(next[thread]++, Integer.parseInt(parts[1]), "Порядок записей потока " + durability);
+            }
+        }
+    }
+
+    @Test
+    void batchedModeShouldWaitForMaxDelay() throws Exception {
+        file = File.createTempFile("group_commit", ".log");
+        GroupCommitWriter writer = new GroupCommitWriter(file.toPath(), Durability.batched(Duration.ofMillis(200)));
+        long started = System.nanoTime();
+        CompletableFuture<Void> first;
+        CompletableFuture<Void> second;
+        // Пишущий поток не заберёт очередь, пока в ней не окажутся обе записи, как при двух одновременных потоках
+        synchronized (writer) {
+            first = writer.append(StandardCharsets.UTF_8.encode("1\n"));
+            second = writer.append(StandardCharsets.UTF_8.encode("2\n"));
+        }
+        GroupCommitWriter.await(second);
+
+        assertTrue(first.isDone(), "Записи одной пачки завершаются вместе");
+        assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(150), "Пачка копится до maxDelay");
+        writer.close();
+        assertEquals(List.of("1", "2"), Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void batchedModeShouldNotDelaySingleWriter() throws Exception {
+        file = File.createTempFile("group_commit", ".log");
+        GroupCommitWriter writer = new GroupCommitWriter(file.toPath(), Durability.batched(Duration.ofSeconds(5)));
+        long started = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            GroupCommitWriter.await(writer.append(StandardCharsets.UTF_8.encode(i + "\n")));
+        }
+
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5),
+                "Единственному пишущему потоку некого ждать");
+        writer.close();
+        assertEquals(List.of("0", "1", "2"), Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void closedWriterShouldRejectAppends() throws IOException {
+        file = File.createTempFile("group_commit", ".log");
+        GroupCommitWriter writer = new GroupCommitWriter(file.toPath(), Durability.perWrite());
+        writer.close();
+
+        assertThrows(IOException.class, () -> writer.append(StandardCharsets.UTF_8.encode("1\n")));
+        assertThrows(IllegalArgumentException.class, () -> Durability.batched(Duration.ofMillis(-1)));
+    }
+}
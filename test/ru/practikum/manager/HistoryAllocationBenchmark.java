@@ -0,0 +1,64 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Байты, выделяемые на одну операцию истории, и время операции: InMemoryHistoryManager (узлы и HashMap)
+ * против ArrayHistoryManager (массивы и IntIntHashMap). Поток операций — просмотры с редкими удалениями.
+ * Запуск: java ru.practikum.manager.HistoryAllocationBenchmark [число разных задач] [ёмкость истории]
+ */
+public class HistoryAllocationBenchmark {
+    private static final int OPERATIONS = 2_000_000;
+
+    public static void main(String[] args) {
+        int distinct = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Task[] tasks = new Task[distinct];
+        for (int i = 0; i < distinct; i++) {
+            tasks[i] = new Task("Задача " + i, "", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+        Random random = new Random(42);
+        int[] operations = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            operations[i] = random.nextInt(distinct * 10);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            measure("узлы", () -> new InMemoryHistoryManager(capacity), tasks, operations);
+            measure("массивы", () -> new ArrayHistoryManager(capacity), tasks, operations);
+        }
+    }
+
+    private static void measure(String name, Supplier<HistoryManager> factory, Task[] tasks, int[] operations) {
+        HistoryManager history = factory.get();
+        // Первый проход заполняет историю до рабочего размера, измеряется второй
+        run(history, tasks, operations);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        run(history, tasks, operations);
+        long nanos = System.nanoTime() - started;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-8s %.1f нс/операция, %.2f байт/операция%n",
+                name, (double) nanos / operations.length, (double) allocated / operations.length);
+    }
+
+    private static void run(HistoryManager history, Task[] tasks, int[] operations) {
+        for (int operation : operations) {
+            Task task = tasks[operation % tasks.length];
+            if (operation >= tasks.length * 9) {
+                history.remove(task.getId());
+            } else {
+                history.add(task);
+            }
+        }
+    }
+}
@@ -160,4 +160,35 @@ public class InMemoryHistoryManagerTest extends TaskManagerTest<InMemoryTaskMana
         assertEquals(2, history.size());
         assertEquals(List.of(task1, task2), history);
     }
-}
\ No newline at end of file
+
+    @Test
+    void boundedHistoryShouldEvictLeastRecentlyViewed() {
+        HistoryManager bounded = Managers.getDefaultHistory(2);
+        bounded.add(task1);
+        bounded.add(task2);
+        bounded.add(task1);
+        bounded.add(task3);
+        assertEquals(List.of(task1, task3), bounded.getHistory(),
+                "Вытесняться должна задача, которую давнее всех просматривали");
+
+        bounded.remove(task1.getId());
+        bounded.add(task2);
+        assertEquals(List.of(task3, task2), bounded.getHistory());
+    }
+
+    @Test
+    void nonPositiveCapacityShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
+
+    @Test
+    void getHistoryWithLimitShouldReturnMostRecent() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        assertEquals(List.of(task2, task3), historyManager.getHistory(2));
+        assertEquals(List.of(task1, task2, task3), historyManager.getHistory(10));
+        assertTrue(historyManager.getHistory(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1));
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practikum.manager;
 
 import org.junit.jupiter.api.Test;
+import ru.practikum.exception.TaskTimeConflictException;
 import ru.practikum.model.Epic;
 import ru.practikum.model.Status;
 import ru.practikum.model.Subtask;
@@ -8,6 +9,11 @@ import ru.practikum.model.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +23,19 @@ public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager
         return new InMemoryTaskManager();
     }
 
+    @Test
+    void defaultEnginesAcceptTimeBeyondNanosecondRange() {
+        LocalDateTime farFuture = LocalDateTime.of(2300, 1, 1, 0, 0);
+        for (TaskManager manager : List.of(Managers.getDefault(), new ConcurrentTaskManager())) {
+            Task task = manager.createTask(new Task("Задача", "Описание", Status.NEW, Duration.ofHours(1), farFuture));
+
+            assertEquals(List.of(task), manager.getPrioritizedTasks());
+            assertThrows(TaskTimeConflictException.class, () -> manager.createTask(new Task("Пересекается",
+                    "Описание", Status.NEW, Duration.ofHours(1), farFuture.plusMinutes(30))));
+            assertEquals(farFuture.plusHours(1), manager.findNextFreeSlot(Duration.ofHours(1), farFuture));
+        }
+    }
+
     @Test
     void subtaskCannotReferenceItselfAsEpic() {
         TaskManager manager = Managers.getDefault();
@@ -78,4 +97,83 @@ public class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager
         assertEquals(Duration.ofHours(2), task2.getDuration());
         assertEquals(LocalDateTime.of(2025, 1, 1, 12, 0), task2.getStartTime());
     }
-}
\ No newline at end of file
+
+    @Test
+    void incrementalEpicRollupShouldMatchFullRecalculation() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Random random = new Random(42);
+        Status[] statuses = Status.values();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Epic> createdEpics = new ArrayList<>();
+        List<Subtask> createdSubtasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            createdEpics.add(manager.createEpic(new Epic("Эпик " + i, "Описание")));
+        }
+
+        for (int step = 0; step < 500; step++) {
+            int action = random.nextInt(4);
+            if (action == 0 || createdSubtasks.isEmpty()) {
+                Epic target = createdEpics.get(random.nextInt(createdEpics.size()));
+                createdSubtasks.add(manager.createSubtask(new Subtask("Подзадача", "Описание",
+                        statuses[random.nextInt(statuses.length)], target.getId(),
+                        Duration.ofMinutes(10 + random.nextInt(50)), base.plusHours(step))));
+            } else if (action == 1) {
+                Subtask subtask = createdSubtasks.get(random.nextInt(createdSubtasks.size()));
+                subtask.setStatus(statuses[random.nextInt(statuses.length)]);
+                subtask.setStartTime(random.nextBoolean() ? base.plusHours(1000 + step) : null);
+                manager.updateSubtask(subtask);
+            } else if (action == 2) {
+                Subtask subtask = createdSubtasks.remove(random.nextInt(createdSubtasks.size()));
+                manager.deleteSubtaskById(subtask.getId());
+            } else if (random.nextInt(20) == 0) {
+                manager.deleteAllSubtasks();
+                createdSubtasks.clear();
+            }
+
+            for (Epic epic : createdEpics) {
+                List<Subtask> epicSubtasks = manager.getSubtasksByEpicId(epic.getId());
+                assertEquals(recalculateEpicStatus(manager, epic.getId()), epic.getStatus(),
+                        "Статус эпика должен совпадать с пересчётом с нуля на шаге " + step);
+                assertEquals(epicSubtasks.stream().map(Subtask::getDuration)
+                                .reduce(Duration.ZERO, Duration::plus),
+                        Objects.requireNonNullElse(epic.getDuration(), Duration.ZERO),
+                        "Длительность эпика должна совпадать с суммой подзадач на шаге " + step);
+                assertEquals(epicSubtasks.stream().map(Subtask::getStartTime).filter(Objects::nonNull)
+                                .min(Comparator.naturalOrder()).orElse(null), epic.getStartTime(),
+                        "Начало эпика должно совпадать с самой ранней подзадачей на шаге " + step);
+                assertEquals(epicSubtasks.stream().map(Subtask::getEndTime).filter(Objects::nonNull)
+                                .max(Comparator.naturalOrder()).orElse(null), epic.getEndTime(),
+                        "Конец эпика должен совпадать с самой поздней подзадачей на шаге " + step);
+            }
+        }
+    }
+
+    /**
+     * Статус эпика, посчитанный с нуля полным проходом по подзадачам, — эталон для инкрементального пересчёта.
+     */
+    static Status recalculateEpicStatus(InMemoryTaskManager manager, int epicId) {
+        Epic epic = manager.epics.get(epicId);
+        if (epic == null) return null;
+
+        List<Status> statuses = epic.getSubtaskIds().stream()
+                .map(manager.subtasks::get)
+                .filter(Objects::nonNull)
+                .map(Subtask::getStatus)
+                .toList();
+
+        if (statuses.isEmpty()) {
+            return Status.NEW;
+        }
+
+        boolean allNew = statuses.stream().allMatch(Status.NEW::equals);
+        boolean allDone = statuses.stream().allMatch(Status.DONE::equals);
+
+        if (allDone) {
+            return Status.DONE;
+        } else if (allNew) {
+            return Status.NEW;
+        } else {
+            return Status.IN_PROGRESS;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Сравнение линейной проверки пересечений (как было в InMemoryTaskManager) с IntervalIndex.
+ * Запуск: java ru.practikum.manager.IntervalIndexBenchmark [количество задач] [количество проверок]
+ */
+public class IntervalIndexBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int probes = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        TreeSet<Task> sortedTasks = new TreeSet<>(
+                Comparator.comparing(Task::getStartTime).thenComparing(Task::getId));
+        IntervalIndex index = new IntervalIndex();
+        for (int i = 1; i <= size; i++) {
+            Task task = new Task("Задача " + i, "", Status.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(i));
+            task.setId(i);
+            sortedTasks.add(task);
+            index.add(task);
+        }
+
+        Task[] candidates = new Task[probes];
+        for (int i = 0; i < probes; i++) {
+            long hour = (long) i * size / probes;
+            Task task = new Task("Кандидат", "", Status.NEW, Duration.ofMinutes(20),
+                    BASE.plusHours(hour).plusMinutes(i % 2 == 0 ? 10 : 35));
+            task.setId(size + i + 1);
+            candidates[i] = task;
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long linearConflicts = 0;
+            long started = System.nanoTime();
+            for (Task candidate : candidates) {
+                if (linearScan(sortedTasks, candidate)) {
+                    linearConflicts++;
+                }
+            }
+            long linearNanos = System.nanoTime() - started;
+
+            long indexConflicts = 0;
+            started = System.nanoTime();
+            for (Task candidate : candidates) {
+                if (index.hasConflictWith(candidate)) {
+                    indexConflicts++;
+                }
+            }
+            long indexNanos = System.nanoTime() - started;
+
+            System.out.printf("задач=%d проверок=%d: линейно %.1f мкс/проверка (%d конфликтов), " +
+                            "индекс %.3f мкс/проверка (%d конфликтов)%n",
+                    size, probes, linearNanos / 1000.0 / probes, linearConflicts,
+                    indexNanos / 1000.0 / probes, indexConflicts);
+        }
+    }
+
+    private static boolean linearScan(TreeSet<Task> sortedTasks, Task task) {
+        for (Task existing : sortedTasks) {
+            if (!existing.equals(task)
+                    && task.getStartTime().isBefore(existing.getEndTime())
+                    && task.getEndTime().isAfter(existing.getStartTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalIndexTest {
+    protected TimeIndex index;
+
+    protected TimeIndex createIndex() {
+        return new IntervalIndex();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = createIndex();
+    }
+
+    private Task task(int id, int startHour, int startMinute, long minutes) {
+        Task task = new Task("Задача " + id, "Описание", Status.NEW,
+                Duration.ofMinutes(minutes), LocalDateTime.of(2025, 1, 1, startHour, startMinute));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void shouldDetectOverlapWithNeighbours() {
+        index.add(task(1, 10, 0, 60));
+        index.add(task(2, 12, 0, 60));
+
+        assertTrue(index.hasConflictWith(task(3, 10, 30, 60)), "Пересечение с предыдущей задачей");
+        assertTrue(index.hasConflictWith(task(3, 11, 30, 60)), "Пересечение со следующей задачей");
+        assertTrue(index.hasConflictWith(task(3, 9, 0, 300)), "Задача накрывает обе существующие");
+        assertFalse(index.hasConflictWith(task(3, 11, 0, 60)), "Задача встаёт ровно в промежуток");
+        assertFalse(index.hasConflictWith(task(3, 13, 0, 60)), "Задача после всех существующих");
+    }
+
+    @Test
+    void shouldIgnoreTaskItself() {
+        Task task = task(1, 10, 0, 60);
+        index.add(task);
+
+        assertFalse(index.hasConflictWith(task(1, 10, 30, 60)),
+                "Обновляемая задача не должна конфликтовать сама с собой");
+    }
+
+    @Test
+    void shouldNotIndexTasksWithoutTime() {
+        index.add(new Task("Без времени", "Описание", Status.NEW));
+        Task withoutDuration = new Task("Без длительности", "Описание", Status.NEW,
+                null, LocalDateTime.of(2025, 1, 1, 10, 0));
+        withoutDuration.setId(2);
+        index.add(withoutDuration);
+
+        assertEquals(0, index.size());
+        assertFalse(index.hasConflictWith(task(3, 10, 0, 60)));
+    }
+
+    @Test
+    void shouldLookPastEmptyIntervals() {
+        index.add(task(1, 10, 0, 120));
+        index.add(task(2, 10, 0, 0));
+
+        assertTrue(index.hasConflictWith(task(3, 11, 30, 60)),
+                "Задача нулевой длительности не должна скрывать длинную задачу перед ней");
+    }
+
+    @Test
+    void shouldForgetRemovedTasks() {
+        index.add(task(1, 10, 0, 60));
+        index.remove(1);
+
+        assertEquals(0, index.size());
+        assertFalse(index.hasConflictWith(task(2, 10, 0, 60)));
+    }
+
+    @Test
+    void shouldReindexTaskWithNewTime() {
+        Task task = task(1, 10, 0, 60);
+        index.add(task);
+        task.setStartTime(LocalDateTime.of(2025, 1, 1, 15, 0));
+        index.add(task);
+
+        assertEquals(1, index.size());
+        assertFalse(index.hasConflictWith(task(2, 10, 0, 60)), "Старый интервал должен быть удалён");
+        assertTrue(index.hasConflictWith(task(2, 15, 30, 60)));
+    }
+
+    @Test
+    void shouldFindConflictInsideBatchOfNewTasks() {
+        index.add(task(1, 8, 0, 60));
+        Task first = task(0, 10, 0, 60);
+        Task second = task(0, 11, 0, 60);
+        Task overlapping = task(0, 11, 30, 60);
+
+        assertNull(index.findBatchConflict(List.of(first, second), id -> false),
+                "Задачи без id не должны считаться одной и той же задачей");
+        assertSame(overlapping, index.findBatchConflict(List.of(first, second, overlapping), id -> false));
+        Task overlappingIndexed = task(0, 8, 30, 60);
+        assertSame(overlappingIndexed, index.findBatchConflict(List.of(first, overlappingIndexed), id -> false),
+                "Пересечение с индексом тоже должно находиться");
+    }
+
+    @Test
+    void shouldIgnoreReplacedIntervalsInBatch() {
+        index.add(task(1, 10, 0, 60));
+        index.add(task(2, 11, 0, 60));
+        List<Task> swapped = List.of(task(1, 11, 0, 60), task(2, 10, 0, 60));
+
+        assertNotNull(index.findBatchConflict(swapped, id -> false));
+        assertNull(index.findBatchConflict(swapped, id -> id == 1 || id == 2),
+                "Старые интервалы задач пакета не должны мешать обмену");
+    }
+
+    @Test
+    void shouldFindTaskRunningAtMoment() {
+        index.add(task(1, 10, 0, 120));
+        index.add(task(2, 12, 30, 0));
+
+        assertEquals(1, index.findRunningAt(LocalDateTime.of(2025, 1, 1, 11, 0)).getId());
+        assertNull(index.findRunningAt(LocalDateTime.of(2025, 1, 1, 10, 0)),
+                "Задача, которая начинается ровно в этот момент, не считается начавшейся раньше");
+        assertNull(index.findRunningAt(LocalDateTime.of(2025, 1, 1, 12, 0)), "Задача уже закончилась");
+        assertNull(index.findRunningAt(LocalDateTime.of(2025, 1, 1, 13, 0)));
+    }
+
+    @Test
+    void shouldFindFirstGapBigEnough() {
+        index.add(task(1, 10, 0, 60));
+        index.add(task(2, 11, 30, 60));
+        index.add(task(3, 13, 0, 60));
+        LocalDateTime morning = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+        assertEquals(morning, index.findFreeSlot(Duration.ofMinutes(60), morning));
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0),
+                index.findFreeSlot(Duration.ofMinutes(30), LocalDateTime.of(2025, 1, 1, 10, 15)),
+                "Поиск начинается с конца задачи, идущей в момент notBefore");
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 0),
+                index.findFreeSlot(Duration.ofMinutes(45), LocalDateTime.of(2025, 1, 1, 10, 15)),
+                "Промежутки короче длительности пропускаются");
+    }
+
+    @Test
+    void freeSlotShouldRespectEmptyIntervals() {
+        index.add(task(1, 10, 30, 0));
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 30), index.findFreeSlot(Duration.ofMinutes(60), start),
+                "Пустой интервал внутри окна мешает");
+        assertFalse(index.hasConflictWith(task(5, 10, 30, 60)));
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Время одного updateTask на доске из многих задач: полная перезапись CSV против записи в журнал.
+ * Запуск: java ru.practikum.manager.JournalBenchmark [число задач]
+ */
+public class JournalBenchmark {
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        File file = File.createTempFile("journal_benchmark", ".csv");
+        try {
+            // Доска собирается в режиме журнала, иначе каждое создание переписывало бы файл
+            FileBackedTaskManager builder = new FileBackedTaskManager(file, StorageEngine.HASH_MAP,
+                    PersistenceMode.JOURNAL);
+            for (int i = 0; i < count; i++) {
+                builder.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+            }
+            builder.awaitSnapshot();
+
+            for (int round = 0; round < 3; round++) {
+                measure("снимок", FileBackedTaskManager.loadFromFile(file, StorageEngine.HASH_MAP,
+                        PersistenceMode.SNAPSHOT), 20);
+                measure("журнал", FileBackedTaskManager.loadFromFile(file, StorageEngine.HASH_MAP,
+                        PersistenceMode.JOURNAL), 20_000);
+            }
+        } finally {
+            file.delete();
+            TaskJournal.journalFileOf(file).delete();
+            TaskJournal.rotatedFileOf(file).delete();
+            FileBackedTaskManager.historyFileOf(file).delete();
+        }
+    }
+
+    private static void measure(String name, FileBackedTaskManager manager, int updates) {
+        List<Task> tasks = manager.getAllTasks();
+        long started = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            Task task = tasks.get(i % tasks.size());
+            task.setStatus(task.getStatus() == Status.NEW ? Status.IN_PROGRESS : Status.NEW);
+            manager.updateTask(task);
+        }
+        manager.awaitSnapshot();
+        double micros = (System.nanoTime() - started) / 1e3 / updates;
+        System.out.printf("%-7s задач: %d, %.1f мкс на updateTask%n", name, tasks.size(), micros);
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.exception.ManagerSaveException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournaledTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    File file;
+
+    @Override
+    protected FileBackedTaskManager createTaskManager() {
+        try {
+            file = File.createTempFile("test_journal", ".csv");
+            return new FileBackedTaskManager(file, StorageEngine.HASH_MAP, PersistenceMode.JOURNAL);
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось создать временный файл", e);
+        }
+    }
+
+    @AfterEach
+    void delete() {
+        if (file != null) {
+            file.delete();
+            TaskJournal.journalFileOf(file).delete();
+            TaskJournal.rotatedFileOf(file).delete();
+            FileBackedTaskManager.historyFileOf(file).delete();
+        }
+    }
+
+    private FileBackedTaskManager reload() {
+        return FileBackedTaskManager.loadFromFile(file, StorageEngine.HASH_MAP, PersistenceMode.JOURNAL);
+    }
+
+    @Test
+    void mutationsShouldGoToJournalInsteadOfFile() throws IOException {
+        long snapshotLength = file.length();
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+
+        assertEquals(snapshotLength, file.length(), "Файл задач не должен переписываться");
+        List<String> records = Files.readAllLines(TaskJournal.journalFileOf(file).toPath());
+        assertEquals(3, records.size(), "Эпик из setUp, создание и изменение задачи");
+        assertTrue(records.get(2).startsWith("U," + task.getId() + ",TASK,Задача,DONE"));
+    }
+
+    @Test
+    void reloadShouldReplaySnapshotAndJournal() {
+        Task kept = taskManager.createTask(new Task("Задача", "Описание", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        Task removed = taskManager.createTask(new Task("Удалённая", "Описание", Status.NEW));
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание"));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.NEW,
+                epic.getId(), Duration.ofHours(2), LocalDateTime.of(2025, 1, 2, 10, 0)));
+        subtask.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask);
+        taskManager.deleteTaskById(removed.getId());
+
+        FileBackedTaskManager loaded = reload();
+
+        assertEquals(List.of(kept), loaded.getAllTasks());
+        assertEquals(List.of(subtask), loaded.getAllSubtasks());
+        assertEquals(Status.DONE, loaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(subtask.getStartTime(), loaded.getEpicById(epic.getId()).getStartTime());
+        assertEquals(List.of(kept, subtask), loaded.getPrioritizedTasks());
+        assertFalse(TaskJournal.exists(file), "После загрузки журнал сводится в файл");
+        assertTrue(loaded.createTask(new Task("Новая", "Описание", Status.NEW)).getId() > subtask.getId());
+    }
+
+    @Test
+    void largeJournalShouldBeCheckpointedInBackground() throws IOException {
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        for (int i = 0; i < 30_000; i++) {
+            task.setDescription("Описание " + i);
+            taskManager.updateTask(task);
+        }
+        taskManager.awaitSnapshot();
+
+        assertTrue(Files.size(TaskJournal.journalFileOf(file).toPath()) < 1 << 20, "Журнал должен усекаться");
+        assertFalse(TaskJournal.rotatedFileOf(file).exists());
+        assertTrue(Files.readString(file.toPath()).contains("Описание "), "Снимок должен попасть в файл");
+        assertEquals("Описание 29999", reload().getTaskById(task.getId()).getDescription());
+    }
+
+    @Test
+    void failedSnapshotShouldBeReportedOnceAndRetried() throws IOException {
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        // Каталог на месте временного файла снимка: фоновая запись снимка падает
+        File blocker = new File(file.getPath() + ".tmp");
+        assertTrue(blocker.mkdir());
+        try {
+            for (int i = 0; i < 30_000; i++) {
+                task.setDescription("Описание " + i);
+                taskManager.updateTask(task);
+            }
+            assertThrows(ManagerSaveException.class, () -> taskManager.awaitSnapshot());
+            assertDoesNotThrow(() -> taskManager.awaitSnapshot(), "Ошибка снимка сообщается один раз");
+            assertEquals("Описание 29999", reload().getTaskById(task.getId()).getDescription(),
+                    "Отложенный журнал не должен теряться, пока снимок не записан");
+        } finally {
+            blocker.delete();
+        }
+
+        for (int i = 0; i < 30_000; i++) {
+            task.setDescription("Повтор " + i);
+            taskManager.updateTask(task);
+        }
+        taskManager.awaitSnapshot();
+
+        assertFalse(TaskJournal.rotatedFileOf(file).exists(), "Следующий снимок должен записаться");
+        assertEquals("Повтор 29999", reload().getTaskById(task.getId()).getDescription());
+    }
+
+    @Test
+    void truncatedLastRecordShouldBeIgnored() throws IOException {
+        Task task = taskManager.createTask(new Task("Задача", "Описание", Status.NEW));
+        Files.writeString(TaskJournal.journalFileOf(file).toPath(), "U," + (task.getId() + 1) + ",TASK,Об",
+                StandardOpenOption.APPEND);
+
+        assertEquals(List.of(task), reload().getAllTasks());
+    }
+
+    @Test
+    void asyncJournalShouldBeReadableAfterFlush() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, StorageEngine.HASH_MAP,
+                PersistenceMode.JOURNAL, Durability.async());
+        Task task = manager.createTask(new Task("Задача", "Описание", Status.NEW));
+        manager.flushJournal();
+
+        assertEquals(List.of(task), reload().getAllTasks());
+    }
+}
@@ -12,4 +12,11 @@ class ManagersTest {
         assertNotNull(historyManager, "HistoryManager должен быть проинициализирован");
         assertNotNull(taskManager, "TaskManager должен быть проинициализирован");
     }
-}
\ No newline at end of file
+
+    @Test
+    void managersShouldCreateManagerWithSelectedEngine() {
+        TaskManager taskManager = Managers.getDefault(StorageEngine.OPEN_ADDRESSING);
+        assertNotNull(taskManager, "TaskManager должен быть проинициализирован");
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Паузы сборщика мусора и занятая куча для InMemoryTaskManager и OffHeapTaskManager на большой доске.
+ * Для каждого менеджера: полная сборка с живой доской и время GC за смешанную нагрузку (чтения и обновления).
+ * Запуск: java -Xmx4g ru.practikum.manager.OffHeapGcBenchmark [количество задач] [количество операций]
+ */
+public class OffHeapGcBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        for (int round = 0; round < 2; round++) {
+            measure("в куче", new InMemoryTaskManager(StorageEngine.OPEN_ADDRESSING), size, operations);
+            measure("вне кучи", new OffHeapTaskManager(), size, operations);
+        }
+    }
+
+    private static void measure(String name, TaskManager manager, int size, int operations) {
+        long emptyHeap = usedHeapAfterGc();
+        long started = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи номер " + i, Status.NEW,
+                    Duration.ofMinutes(30), BASE.plusHours(i)));
+        }
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        long boardHeap = Math.max(usedHeapAfterGc() - emptyHeap, 0);
+
+        started = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - started) / 1_000_000;
+
+        long gcBefore = totalGcMillis();
+        Random random = new Random(1);
+        started = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            int id = random.nextInt(size) + 1;
+            Task task = manager.getTaskById(id);
+            if (i % 4 == 0) {
+                task.setStatus(Status.IN_PROGRESS);
+                task.setDescription("Обновлено " + i);
+                manager.updateTask(task);
+            }
+        }
+        long workloadMillis = (System.nanoTime() - started) / 1_000_000;
+        long workloadGcMillis = totalGcMillis() - gcBefore;
+
+        System.out.printf("%-9s задач=%d: загрузка %d мс, куча под доской %.1f МБ, полная сборка %d мс, " +
+                        "нагрузка %d мс, из них GC %d мс%n",
+                name, size, loadMillis, boardHeap / 1024.0 / 1024.0, fullGcMillis, workloadMillis, workloadGcMillis);
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(collector.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
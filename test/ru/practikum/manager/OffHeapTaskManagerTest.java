@@ -0,0 +1,209 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practikum.exception.TaskTimeConflictException;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OffHeapTaskManager отдаёт копии, поэтому проверки, читавшие эпик из теста как живой объект,
+ * здесь перечитывают его из менеджера.
+ */
+public class OffHeapTaskManagerTest extends TaskManagerTest<OffHeapTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected OffHeapTaskManager createTaskManager() {
+        return new OffHeapTaskManager();
+    }
+
+    @Test
+    void testTimeOutsideSupportedRangeIsRejected() {
+        Task farFuture = new Task("Далёкое будущее", "Описание", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.of(3000, 1, 1, 10, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTask(farFuture));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createAll(List.of(farFuture)));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+
+    private Epic storedEpic() {
+        return taskManager.getAllEpics().get(0);
+    }
+
+    @Test
+    @Override
+    void testCreateAllCreatesMixedBatch() {
+        List<Task> created = taskManager.createAll(List.of(task, subtask1, subtask2));
+
+        assertEquals(3, created.size());
+        assertNotEquals(0, subtask1.getId(), "Подзадача пакета должна получить id");
+        assertEquals(List.of(task), taskManager.getAllTasks());
+        assertEquals(2, taskManager.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(3, taskManager.getPrioritizedTasks().size());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), storedEpic().getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 13, 0), storedEpic().getEndTime());
+    }
+
+    @Test
+    @Override
+    void testUpdateAllSwapsTimesOfTwoTasks() {
+        taskManager.createAll(List.of(subtask1, subtask2));
+        Subtask first = new Subtask(subtask1.getTitle(), subtask1.getDescription(), Status.DONE,
+                epic.getId(), subtask2.getDuration(), subtask2.getStartTime());
+        first.setId(subtask1.getId());
+        Subtask second = new Subtask(subtask2.getTitle(), subtask2.getDescription(), Status.DONE,
+                epic.getId(), subtask1.getDuration(), subtask1.getStartTime());
+        second.setId(subtask2.getId());
+
+        assertDoesNotThrow(() -> taskManager.updateAll(List.of(first, second)),
+                "Задачи пакета могут поменяться местами во времени");
+        assertEquals(List.of(second, first), taskManager.getPrioritizedTasks());
+        assertEquals(Status.DONE, storedEpic().getStatus());
+    }
+
+    @Test
+    @Override
+    void testDeleteAllRemovesMixedIds() {
+        taskManager.createAll(List.of(task, subtask1, subtask2, subtask3));
+        Epic otherEpic = taskManager.createEpic(new Epic("Другой эпик", "Описание"));
+
+        taskManager.deleteAll(Set.of(task.getId(), subtask1.getId(), subtask3.getId(), otherEpic.getId()));
+
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertEquals(List.of(epic), taskManager.getAllEpics());
+        assertEquals(List.of(subtask2), taskManager.getSubtasksByEpicId(epic.getId()));
+        assertEquals(subtask2.getStartTime(), storedEpic().getStartTime());
+        assertEquals(subtask2.getEndTime(), storedEpic().getEndTime());
+    }
+
+    @Test
+    void returnedTasksShouldBeCopies() {
+        taskManager.createTask(task);
+
+        Task copy = taskManager.getTaskById(task.getId());
+        copy.setTitle("Изменено снаружи");
+
+        assertEquals("Задача", taskManager.getTaskById(task.getId()).getTitle(),
+                "Изменение копии без updateTask не должно попадать в менеджер");
+    }
+
+    @Test
+    void shouldKeepTextAndTimesExactly() {
+        Task stored = taskManager.createTask(new Task("Ёлка 🎄 и «кавычки»", null, Status.IN_PROGRESS,
+                Duration.ofSeconds(90, 123), LocalDateTime.of(1969, 12, 31, 23, 59, 30, 7)));
+
+        Task loaded = taskManager.getTaskById(stored.getId());
+
+        assertEquals("Ёлка 🎄 и «кавычки»", loaded.getTitle());
+        assertNull(loaded.getDescription());
+        assertEquals(Status.IN_PROGRESS, loaded.getStatus());
+        assertEquals(Duration.ofSeconds(90, 123), loaded.getDuration());
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 30, 7), loaded.getStartTime());
+    }
+
+    @Test
+    void rewrittenTextShouldSurviveArenaCompaction() {
+        taskManager.createTask(task);
+        Task other = taskManager.createTask(new Task("Соседняя", "Не меняется", Status.NEW));
+        String longText = "х".repeat(10_000);
+
+        for (int i = 0; i < 300; i++) {
+            task.setDescription(longText + i);
+            taskManager.updateTask(task);
+        }
+
+        assertEquals(longText + 299, taskManager.getTaskById(task.getId()).getDescription());
+        assertEquals("Не меняется", taskManager.getTaskById(other.getId()).getDescription());
+        assertEquals(List.of(epic), taskManager.search("тестовый эпик"));
+    }
+
+    @Test
+    void shouldRejectTimeOutsideSupportedRange() {
+        Task tooLate = new Task("Слишком поздно", "", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(3000, 1, 1, 0, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTask(tooLate));
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    void shouldMatchInMemoryManagerOnRandomOperations() {
+        InMemoryTaskManager expected = new InMemoryTaskManager();
+        Random random = new Random(7);
+        List<Integer> ids = new ArrayList<>();
+        for (int step = 0; step < 30_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 6 || ids.isEmpty()) {
+                LocalDateTime start = random.nextInt(10) == 0 ? null : BASE.plusMinutes(random.nextInt(100_000));
+                Duration duration = random.nextInt(10) == 0 ? null : Duration.ofMinutes(random.nextInt(5) * 15);
+                Task created = new Task("Задача " + step, "", Status.NEW, duration, start);
+                Task copy = new Task("Задача " + step, "", Status.NEW, duration, start);
+                boolean rejected = false;
+                try {
+                    expected.createTask(created);
+                } catch (TaskTimeConflictException e) {
+                    rejected = true;
+                }
+                if (rejected) {
+                    assertThrows(TaskTimeConflictException.class, () -> taskManager.createTask(copy));
+                    continue;
+                }
+                taskManager.createTask(copy);
+                assertEquals(created.getId() + 1, copy.getId(), "id сдвинуты на эпик из setUp");
+                ids.add(copy.getId());
+            } else if (operation < 8) {
+                int id = ids.get(random.nextInt(ids.size()));
+                Task moved = new Task("Перенос", "", Status.DONE, Duration.ofMinutes(random.nextInt(4) * 15),
+                        BASE.plusMinutes(random.nextInt(100_000)));
+                moved.setId(id - 1);
+                Task movedCopy = new Task("Перенос", "", Status.DONE, moved.getDuration(), moved.getStartTime());
+                movedCopy.setId(id);
+                boolean rejected = false;
+                try {
+                    expected.updateTask(moved);
+                } catch (TaskTimeConflictException e) {
+                    rejected = true;
+                }
+                if (rejected) {
+                    assertThrows(TaskTimeConflictException.class, () -> taskManager.updateTask(movedCopy));
+                } else {
+                    taskManager.updateTask(movedCopy);
+                }
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                expected.deleteTaskById(id - 1);
+                taskManager.deleteTaskById(id);
+            }
+
+            if (step % 1_000 == 0) {
+                assertEquals(startsOf(expected.getPrioritizedTasks()), startsOf(taskManager.getPrioritizedTasks()));
+                LocalDateTime from = BASE.plusMinutes(random.nextInt(100_000));
+                assertEquals(startsOf(expected.getTasksBetween(from, from.plusDays(3))),
+                        startsOf(taskManager.getTasksBetween(from, from.plusDays(3))));
+                assertEquals(expected.findNextFreeSlot(Duration.ofHours(2), from),
+                        taskManager.findNextFreeSlot(Duration.ofHours(2), from));
+            }
+        }
+        assertEquals(expected.getAllTasks().size(), taskManager.getAllTasks().size());
+    }
+
+    private static List<String> startsOf(List<Task> tasks) {
+        List<String> starts = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            starts.add(task.getStartTime() + "/" + task.getDuration() + "/" + task.getStatus());
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practikum.manager;
+
+public class OpenAddressingTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
+    @Override
+    protected InMemoryTaskManager createTaskManager() {
+        return new InMemoryTaskManager(StorageEngine.OPEN_ADDRESSING);
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+    }
+
+    private Task task(int id, String title, String description) {
+        Task task = new Task(title, description, Status.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void shouldTokenizeByLettersAndDigits() {
+        assertEquals(Set.of("релиз", "2", "0", "api", "docs"), SearchIndex.tokenize("Релиз 2.0: API-docs!"));
+        assertTrue(SearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void shouldMatchPrefixesOfEveryQueryWord() {
+        index.update(task(1, "Починить авторизацию", "Ошибка входа"));
+        index.update(task(2, "Авторизация через OAuth", null));
+        index.update(task(3, "Обновить документацию", "Раздел про вход"));
+
+        assertArrayEquals(new int[]{1, 2}, index.search("автор"));
+        assertArrayEquals(new int[]{1}, index.search("АВТОР вход"), "Все слова запроса должны найтись");
+        assertArrayEquals(new int[]{1, 3}, index.search("вход"));
+        assertArrayEquals(new int[0], index.search("деплой"));
+        assertArrayEquals(new int[0], index.search("  "));
+    }
+
+    @Test
+    void shouldForgetOldWordsOfTaskChangedInPlace() {
+        Task task = task(1, "Старое название", "Описание");
+        index.update(task);
+
+        task.setTitle("Новое название");
+        index.update(task);
+
+        assertArrayEquals(new int[0], index.search("стар"));
+        assertArrayEquals(new int[]{1}, index.search("нов назв"));
+
+        index.remove(1);
+        assertArrayEquals(new int[0], index.search("назв"));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Время loadFromFile для одной и той же доски в CSV и в двоичном снимке на движках HASH_MAP и COMPACT.
+ * Запуск: java ru.practikum.manager.SnapshotLoadBenchmark [число задач]
+ */
+public class SnapshotLoadBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        File source = File.createTempFile("snapshot_benchmark", ".csv");
+        File csv = File.createTempFile("snapshot_benchmark", ".csv");
+        File binary = File.createTempFile("snapshot_benchmark", ".bin");
+        try {
+            // Доска собирается через асинхронный журнал, чтобы не переписывать файл на каждое создание
+            FileBackedTaskManager builder = new FileBackedTaskManager(source, StorageEngine.HASH_MAP,
+                    PersistenceMode.JOURNAL, Durability.async());
+            Epic epic = null;
+            for (int i = 0; i < count; i++) {
+                LocalDateTime start = BASE.plusMinutes(30L * i);
+                if (i % 10 == 0) {
+                    epic = builder.createEpic(new Epic("Эпик " + i, "Описание эпика " + i));
+                } else if (i % 2 == 0) {
+                    builder.createSubtask(new Subtask("Подзадача " + i, "Описание подзадачи " + i, Status.NEW,
+                            epic.getId(), Duration.ofMinutes(20), start));
+                } else {
+                    builder.createTask(new Task("Задача " + i, "Описание задачи " + i, Status.IN_PROGRESS,
+                            Duration.ofMinutes(20), start));
+                }
+            }
+            builder.export(csv, SnapshotFormat.CSV);
+            builder.export(binary, SnapshotFormat.BINARY);
+            builder.flushJournal();
+            builder.awaitSnapshot();
+            System.out.printf("задач: %d, CSV %d КБ, двоичный %d КБ%n", count, csv.length() / 1024,
+                    binary.length() / 1024);
+
+            for (int round = 0; round < 3; round++) {
+                for (StorageEngine engine : new StorageEngine[]{StorageEngine.HASH_MAP, StorageEngine.COMPACT}) {
+                    measure("CSV", csv, engine);
+                    measure("двоичный", binary, engine);
+                }
+            }
+        } finally {
+            for (File file : new File[]{source, csv, binary}) {
+                file.delete();
+                TaskJournal.journalFileOf(file).delete();
+                TaskJournal.rotatedFileOf(file).delete();
+                FileBackedTaskManager.historyFileOf(file).delete();
+            }
+        }
+    }
+
+    private static void measure(String name, File file, StorageEngine engine) {
+        System.gc();
+        long started = System.nanoTime();
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, engine);
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("%-9s %-8s %d мс, задач в приоритете: %d%n", name, engine, millis,
+                loaded.getPrioritizedTasks().size());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Время statistics() на больших досках: задачи и подзадачи на год вперёд, часть без начала.
+ * Запуск: java ru.practikum.manager.StatisticsBenchmark [количество задач]
+ */
+public class StatisticsBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final Status[] STATUSES = Status.values();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        run("InMemoryTaskManager", InMemoryTaskManager::new, size);
+        run("ConcurrentTaskManager", ConcurrentTaskManager::new, size);
+        run("OffHeapTaskManager", OffHeapTaskManager::new, size);
+    }
+
+    private static void run(String name, Supplier<TaskManager> factory, int size) {
+        TaskManager manager = factory.get();
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            epics.add(manager.createEpic(new Epic("Эпик " + i, "")));
+        }
+        List<Task> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = i % 10 == 0 ? null : BASE.plusMinutes(30L * i);
+            Status status = STATUSES[i % STATUSES.length];
+            if (i % 2 == 0) {
+                batch.add(new Task("Задача " + i, "", status, Duration.ofMinutes(20), start));
+            } else {
+                batch.add(new Subtask("Подзадача " + i, "", status, epics.get(i % epics.size()).getId(),
+                        Duration.ofMinutes(20), start));
+            }
+        }
+        manager.createAll(batch);
+        batch = null;
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            manager.statistics();
+        }
+        long best = Long.MAX_VALUE;
+        TaskStatistics stats = null;
+        for (int round = 0; round < 5; round++) {
+            long started = System.nanoTime();
+            stats = manager.statistics();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        System.out.printf("%s: %d задач, %d дней, %.1f мс%n", name, stats.getTotal(),
+                stats.getWorkloadByDay().size(), best / 1e6);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+/**
+ * Занимаемая память и время поиска для разных StorageEngine на большом числе задач.
+ * Запуск: java -Xmx2g ru.practikum.manager.StorageEngineMemoryBenchmark [количество задач]
+ */
+public class StorageEngineMemoryBenchmark {
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        for (StorageEngine engine : StorageEngine.values()) {
+            measure(engine, size);
+        }
+        for (StorageEngine engine : StorageEngine.values()) {
+            measure(engine, size);
+        }
+    }
+
+    private static void measure(StorageEngine engine, int size) {
+        Task[] prepared = new Task[size];
+        for (int i = 0; i < size; i++) {
+            prepared[i] = new Task("", "", Status.NEW);
+        }
+        long before = usedMemory();
+        InMemoryTaskManager manager = new InMemoryTaskManager(engine);
+        for (Task task : prepared) {
+            manager.createTask(task);
+        }
+        long after = usedMemory();
+
+        long started = System.nanoTime();
+        long found = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int id = 1; id <= size; id++) {
+                if (manager.tasks.get(id) != null) {
+                    found++;
+                }
+            }
+        }
+        long lookupNanos = System.nanoTime() - started;
+
+        System.out.printf("%-16s задач=%d: хранилище %.1f МБ (%.1f байт на задачу), поиск %.1f нс (%d)%n",
+                engine, size, (after - before) / 1024.0 / 1024.0, (after - before) / (double) size,
+                lookupNanos / (double) found, found);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
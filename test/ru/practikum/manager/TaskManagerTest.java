@@ -6,8 +6,14 @@ import ru.practikum.exception.TaskTimeConflictException;
 import ru.practikum.model.*;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -166,6 +172,21 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(epicFromManager.getSubtaskIds().contains(createdSubtask.getId()));
     }
 
+    @Test
+    void testEpicSubtasksKeepInsertionOrderAfterDelete() {
+        Subtask subtask0 = taskManager.createSubtask(new Subtask("Подзадача 0", "Описание 0", Status.NEW,
+                epic.getId(), Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 8, 0)));
+        taskManager.createSubtask(subtask1);
+        taskManager.createSubtask(subtask2);
+        taskManager.createSubtask(subtask3);
+
+        taskManager.deleteSubtaskById(subtask0.getId());
+
+        assertEquals(List.of(subtask1.getId(), subtask2.getId(), subtask3.getId()),
+                taskManager.getEpicById(epic.getId()).getSubtaskIds(), "Удаление не должно менять порядок подзадач");
+        assertEquals(List.of(subtask1, subtask2, subtask3), taskManager.getSubtasksByEpicId(epic.getId()));
+    }
+
     @Test
     void testEpicStatusMixedSubtasks() {
         Subtask createdSubtask1 = taskManager.createSubtask(subtask1);
@@ -215,4 +236,428 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 null, null);
         assertDoesNotThrow(() -> taskManager.createTask(taskWithoutTime));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCreateAllCreatesMixedBatch() {
+        List<Task> created = taskManager.createAll(List.of(task, subtask1, subtask2));
+
+        assertEquals(3, created.size());
+        assertNotEquals(0, subtask1.getId(), "Подзадача пакета должна получить id");
+        assertEquals(List.of(task), taskManager.getAllTasks());
+        assertEquals(2, taskManager.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(3, taskManager.getPrioritizedTasks().size());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 13, 0), epic.getEndTime());
+    }
+
+    @Test
+    void testCreateAllRejectsWholeBatchOnConflict() {
+        taskManager.createTask(task);
+        Task overlapping = new Task("Пересекается", "Описание", Status.NEW,
+                Duration.ofHours(1), task.getStartTime().plusMinutes(30));
+
+        assertThrows(TaskTimeConflictException.class,
+                () -> taskManager.createAll(List.of(subtask1, overlapping)));
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Пакет с конфликтом не должен создавать ничего");
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testCreateAllRejectsConflictInsideBatch() {
+        Subtask overlapping = new Subtask("Пересекается", "Описание", Status.NEW, epic.getId(),
+                Duration.ofHours(1), subtask1.getStartTime().plusMinutes(30));
+
+        assertThrows(TaskTimeConflictException.class,
+                () -> taskManager.createAll(List.of(subtask1, subtask2, overlapping)));
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+        assertNull(epic.getStartTime());
+    }
+
+    @Test
+    void testUpdateAllSwapsTimesOfTwoTasks() {
+        taskManager.createAll(List.of(subtask1, subtask2));
+        Subtask first = new Subtask(subtask1.getTitle(), subtask1.getDescription(), Status.DONE,
+                epic.getId(), subtask2.getDuration(), subtask2.getStartTime());
+        first.setId(subtask1.getId());
+        Subtask second = new Subtask(subtask2.getTitle(), subtask2.getDescription(), Status.DONE,
+                epic.getId(), subtask1.getDuration(), subtask1.getStartTime());
+        second.setId(subtask2.getId());
+
+        assertDoesNotThrow(() -> taskManager.updateAll(List.of(first, second)),
+                "Задачи пакета могут поменяться местами во времени");
+        assertEquals(List.of(second, first), taskManager.getPrioritizedTasks());
+        assertEquals(Status.DONE, epic.getStatus());
+    }
+
+    @Test
+    void testUpdateAllRejectsWholeBatchOnConflict() {
+        taskManager.createAll(List.of(task, subtask1, subtask2));
+        Task movedTask = new Task(task.getTitle(), task.getDescription(), Status.DONE,
+                task.getDuration(), task.getStartTime().plusDays(1));
+        movedTask.setId(task.getId());
+        Subtask overlapping = new Subtask(subtask1.getTitle(), subtask1.getDescription(), Status.DONE,
+                epic.getId(), Duration.ofHours(1), subtask2.getStartTime());
+        overlapping.setId(subtask1.getId());
+
+        assertThrows(TaskTimeConflictException.class,
+                () -> taskManager.updateAll(List.of(movedTask, overlapping)));
+        assertEquals(task.getStartTime(), taskManager.getAllTasks().get(0).getStartTime(),
+                "Задача из отклонённого пакета не должна измениться");
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+
+    @Test
+    void testUpdateSubtaskKeepsItsEpic() {
+        Epic otherEpic = taskManager.createEpic(new Epic("Другой эпик", "Описание"));
+        subtask1.setStatus(Status.DONE);
+        taskManager.createSubtask(subtask1);
+        Subtask moved = new Subtask(subtask1.getTitle(), subtask1.getDescription(), Status.DONE,
+                otherEpic.getId(), subtask1.getDuration(), subtask1.getStartTime());
+        moved.setId(subtask1.getId());
+
+        taskManager.updateSubtask(moved);
+        assertEquals(epic.getId(), taskManager.getSubtaskById(subtask1.getId()).getEpicId());
+        taskManager.deleteSubtaskById(subtask1.getId());
+
+        Epic savedEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(Status.NEW, savedEpic.getStatus(), "Эпик без подзадач должен вернуться в NEW");
+        assertNull(savedEpic.getStartTime());
+        assertEquals(0, savedEpic.getSubtaskIds().size());
+        assertEquals(Status.NEW, taskManager.getEpicById(otherEpic.getId()).getStatus());
+    }
+
+    @Test
+    void testUpdateAllKeepsSubtaskEpic() {
+        Epic otherEpic = taskManager.createEpic(new Epic("Другой эпик", "Описание"));
+        subtask1.setStatus(Status.DONE);
+        taskManager.createSubtask(subtask1);
+        Subtask moved = new Subtask(subtask1.getTitle(), subtask1.getDescription(), Status.DONE,
+                otherEpic.getId(), subtask1.getDuration(), subtask1.getStartTime());
+        moved.setId(subtask1.getId());
+
+        taskManager.updateAll(List.of(moved));
+        taskManager.deleteSubtaskById(subtask1.getId());
+
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).getStatus());
+        assertNull(taskManager.getEpicById(epic.getId()).getStartTime());
+    }
+
+    @Test
+    void testUpdateAllRejectsDuplicateIds() {
+        taskManager.createTask(task);
+        Task atNoon = new Task(task.getTitle(), task.getDescription(), Status.NEW,
+                task.getDuration(), task.getStartTime().plusHours(2));
+        atNoon.setId(task.getId());
+        Task later = new Task(task.getTitle(), task.getDescription(), Status.NEW,
+                task.getDuration(), task.getStartTime().plusHours(4));
+        later.setId(task.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> taskManager.updateAll(List.of(atNoon, later)));
+        assertEquals(List.of(task), taskManager.getPrioritizedTasks(),
+                "Отклонённый пакет не должен оставить лишних записей в приоритетном списке");
+        assertEquals(task.getStartTime(), taskManager.getPrioritizedTasks().get(0).getStartTime());
+    }
+
+    @Test
+    void testDeleteAllRemovesMixedIds() {
+        taskManager.createAll(List.of(task, subtask1, subtask2, subtask3));
+        Epic otherEpic = taskManager.createEpic(new Epic("Другой эпик", "Описание"));
+
+        taskManager.deleteAll(Set.of(task.getId(), subtask1.getId(), subtask3.getId(), otherEpic.getId()));
+
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertEquals(List.of(epic), taskManager.getAllEpics());
+        assertEquals(List.of(subtask2), taskManager.getSubtasksByEpicId(epic.getId()));
+        assertEquals(subtask2.getStartTime(), epic.getStartTime());
+        assertEquals(subtask2.getEndTime(), epic.getEndTime());
+    }
+
+    @Test
+    void testGetTasksBetweenIncludesStraddlingTask() {
+        Task longTask = new Task("Длинная", "Описание", Status.NEW,
+                Duration.ofHours(5), LocalDateTime.of(2025, 3, 1, 8, 0));
+        Task inside = new Task("Внутри", "Описание", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 14, 0));
+        Task atEnd = new Task("На границе", "Описание", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 18, 0));
+        Task before = new Task("Раньше", "Описание", Status.NEW,
+                Duration.ofHours(1), LocalDateTime.of(2025, 3, 1, 6, 0));
+        Task withoutDuration = new Task("Без длительности", "Описание", Status.NEW,
+                null, LocalDateTime.of(2025, 3, 1, 16, 0));
+        taskManager.createAll(List.of(longTask, inside, atEnd, before, withoutDuration));
+        taskManager.createSubtask(subtask1);
+
+        List<Task> window = taskManager.getTasksBetween(LocalDateTime.of(2025, 3, 1, 10, 0),
+                LocalDateTime.of(2025, 3, 1, 18, 0));
+
+        assertEquals(List.of(longTask, inside, withoutDuration), window);
+    }
+
+    @Test
+    void testGetTasksBetweenEmptyAndInvalidWindow() {
+        taskManager.createTask(task);
+        LocalDateTime moment = task.getStartTime().plusMinutes(10);
+
+        assertEquals(List.of(task), taskManager.getTasksBetween(moment, moment),
+                "В пустой промежуток попадает только уже идущая задача");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksBetween(moment, moment.minusDays(1)));
+    }
+
+    @Test
+    void testFindNextFreeSlotSkipsBusyTime() {
+        taskManager.createAll(List.of(subtask1, subtask2, subtask3));
+
+        LocalDateTime slot = taskManager.findNextFreeSlot(Duration.ofMinutes(90), subtask1.getStartTime());
+
+        assertEquals(LocalDateTime.of(2025, 1, 1, 15, 0), slot);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0),
+                taskManager.findNextFreeSlot(Duration.ofHours(1), subtask1.getStartTime()));
+    }
+
+    @Test
+    void testCreateInFreeSlotPlacesTaskWithoutConflict() {
+        taskManager.createAll(List.of(subtask1, subtask2));
+        Task placed = new Task("Авто", "Описание", Status.NEW, Duration.ofHours(2), null);
+
+        taskManager.createTaskInFreeSlot(placed, subtask1.getStartTime());
+        Subtask placedSubtask = taskManager.createSubtaskInFreeSlot(new Subtask("Авто 2", "Описание", Status.NEW,
+                epic.getId(), Duration.ofMinutes(30), null), subtask1.getStartTime());
+
+        assertEquals(LocalDateTime.of(2025, 1, 1, 13, 0), placed.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0), placedSubtask.getStartTime());
+        assertEquals(4, taskManager.getPrioritizedTasks().size());
+        assertNull(taskManager.createSubtaskInFreeSlot(new Subtask("Без эпика", "Описание", Status.NEW,
+                -1, Duration.ofMinutes(30), null), subtask1.getStartTime()));
+    }
+
+    @Test
+    void testGetByStatusFollowsMutations() {
+        taskManager.createTask(task);
+        taskManager.createSubtask(subtask1);
+        taskManager.createSubtask(subtask2);
+
+        assertEquals(List.of(task), taskManager.getTasksByStatus(Status.NEW));
+        assertEquals(2, taskManager.getSubtasksByStatus(Status.NEW).size());
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.NEW));
+
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateSubtask(subtask1);
+        task.setStatus(Status.IN_PROGRESS);
+        taskManager.updateTask(task);
+
+        assertTrue(taskManager.getTasksByStatus(Status.NEW).isEmpty(), "Задача изменена на месте и должна уйти из NEW");
+        assertEquals(List.of(task), taskManager.getTasksByStatus(Status.IN_PROGRESS));
+        assertEquals(List.of(subtask1), taskManager.getSubtasksByStatus(Status.DONE));
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.IN_PROGRESS),
+                "Статус эпика, пересчитанный из подзадач, тоже должен попасть в индекс");
+        assertTrue(taskManager.getEpicsByStatus(Status.NEW).isEmpty());
+
+        taskManager.deleteSubtaskById(subtask2.getId());
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.DONE));
+        assertTrue(taskManager.getSubtasksByStatus(Status.NEW).isEmpty());
+    }
+
+    @Test
+    void testGetByStatusAfterBulkDeletes() {
+        taskManager.createAll(List.of(task, subtask1, subtask2));
+
+        taskManager.deleteAllSubtasks();
+        assertTrue(taskManager.getSubtasksByStatus(Status.NEW).isEmpty());
+        assertEquals(List.of(epic), taskManager.getEpicsByStatus(Status.NEW));
+
+        taskManager.deleteAllTasks();
+        taskManager.deleteAllEpics();
+        for (Status status : Status.values()) {
+            assertTrue(taskManager.getTasksByStatus(status).isEmpty());
+            assertTrue(taskManager.getEpicsByStatus(status).isEmpty());
+        }
+    }
+
+    @Test
+    void testSearchByTitleAndDescriptionPrefixes() {
+        taskManager.createTask(task);
+        taskManager.createSubtask(subtask1);
+        taskManager.createSubtask(subtask2);
+
+        assertEquals(List.of(epic, task, subtask1, subtask2), taskManager.search("описан"));
+        assertEquals(List.of(subtask2), taskManager.search("подзадача 2"));
+        assertEquals(List.of(task), taskManager.search("ЗАДАЧ описание задачи"));
+
+        taskManager.deleteSubtaskById(subtask2.getId());
+        assertTrue(taskManager.search("подзадача 2").isEmpty());
+    }
+
+    @Test
+    void testSearchFollowsInPlaceEpicUpdate() {
+        Epic renamed = new Epic("Миграция базы", "Перенос на новый кластер");
+        renamed.setId(epic.getId());
+
+        taskManager.updateEpic(renamed);
+
+        assertEquals(List.of(epic), taskManager.search("миграц клас"));
+        assertTrue(taskManager.search("тестовый").isEmpty(), "Старое название эпика не должно находиться");
+
+        taskManager.deleteAllEpics();
+        assertTrue(taskManager.search("миграц").isEmpty());
+    }
+
+    @Test
+    void testForEachVisitsSameElementsAsListMethods() {
+        taskManager.createAll(List.of(task, subtask1, subtask2, subtask3));
+        taskManager.getSubtaskById(subtask2.getId());
+        taskManager.getTaskById(task.getId());
+
+        List<Task> visitedTasks = new ArrayList<>();
+        taskManager.forEachTask(visitedTasks::add);
+        List<Epic> visitedEpics = new ArrayList<>();
+        taskManager.forEachEpic(visitedEpics::add);
+        List<Subtask> visitedSubtasks = new ArrayList<>();
+        taskManager.forEachSubtask(visitedSubtasks::add);
+        List<Subtask> visitedEpicSubtasks = new ArrayList<>();
+        taskManager.forEachSubtaskOfEpic(epic.getId(), visitedEpicSubtasks::add);
+        List<Task> visitedPrioritized = new ArrayList<>();
+        taskManager.forEachPrioritized(visitedPrioritized::add);
+        List<Task> visitedHistory = new ArrayList<>();
+        taskManager.forEachInHistory(visitedHistory::add);
+
+        assertEquals(taskManager.getAllTasks(), visitedTasks);
+        assertEquals(taskManager.getAllEpics(), visitedEpics);
+        assertEquals(taskManager.getAllSubtasks(), visitedSubtasks);
+        assertEquals(taskManager.getSubtasksByEpicId(epic.getId()), visitedEpicSubtasks);
+        assertEquals(taskManager.getPrioritizedTasks(), visitedPrioritized);
+        assertEquals(List.of(subtask2, task), visitedHistory);
+
+        taskManager.forEachSubtaskOfEpic(-1, subtask -> fail("У несуществующего эпика нет подзадач"));
+    }
+
+    @Test
+    void testSubscriberReceivesOneBatchPerOperation() {
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.subscribe(batches::add);
+
+        taskManager.createAll(List.of(task, subtask1, subtask2));
+
+        assertEquals(1, batches.size(), "Пакетная операция должна дать один пакет событий");
+        List<TaskEvent> events = batches.get(0);
+        assertEquals(4, events.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(TaskEvent.Kind.CREATED, events.get(i).getKind());
+            assertNull(events.get(i).getBefore());
+        }
+        assertEquals(List.of(task.getId(), subtask1.getId(), subtask2.getId()),
+                List.of(events.get(0).getId(), events.get(1).getId(), events.get(2).getId()));
+        TaskEvent rollup = events.get(3);
+        assertEquals(TaskEvent.Kind.UPDATED, rollup.getKind());
+        assertEquals(epic.getId(), rollup.getId());
+        assertNull(rollup.getBefore().getStartTime());
+        assertEquals(subtask1.getStartTime(), rollup.getAfter().getStartTime());
+        assertEquals(0, ((Epic) rollup.getAfter()).getSubtaskIds().size(),
+                "Пересчёт эпика не копирует список его подзадач");
+    }
+
+    @Test
+    void testUpdateEventCarriesBeforeAndAfter() {
+        taskManager.createTask(task);
+        List<TaskEvent> events = new ArrayList<>();
+        taskManager.subscribe(events::addAll);
+
+        Task renamed = new Task("Новое название", "Описание задачи", Status.DONE,
+                Duration.ofHours(1), LocalDateTime.of(2025, 2, 2, 10, 0));
+        renamed.setId(task.getId());
+        taskManager.updateTask(renamed);
+
+        assertEquals(1, events.size());
+        assertEquals(TaskEvent.Kind.UPDATED, events.get(0).getKind());
+        assertEquals("Задача", events.get(0).getBefore().getTitle());
+        assertEquals(Status.NEW, events.get(0).getBefore().getStatus());
+        assertEquals("Новое название", events.get(0).getAfter().getTitle());
+        assertEquals(Status.DONE, events.get(0).getAfter().getStatus());
+    }
+
+    @Test
+    void testDeleteEpicReportsEpicAndSubtasks() {
+        taskManager.createAll(List.of(subtask1, subtask2));
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.subscribe(batches::add);
+
+        taskManager.deleteEpicById(epic.getId());
+
+        assertEquals(1, batches.size());
+        Set<Integer> deleted = new HashSet<>();
+        for (TaskEvent event : batches.get(0)) {
+            assertEquals(TaskEvent.Kind.DELETED, event.getKind());
+            assertNull(event.getAfter());
+            deleted.add(event.getId());
+        }
+        assertEquals(Set.of(epic.getId(), subtask1.getId(), subtask2.getId()), deleted);
+    }
+
+    @Test
+    void testUnsubscribedListenerGetsNothing() {
+        List<TaskEvent> events = new ArrayList<>();
+        TaskEventListener listener = events::addAll;
+        taskManager.subscribe(listener);
+        taskManager.unsubscribe(listener);
+
+        taskManager.createTask(task);
+        taskManager.getTaskById(task.getId());
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testAsyncSubscriberGetsBoundedBatchesOnExecutor() {
+        List<Runnable> scheduled = new ArrayList<>();
+        Executor executor = scheduled::add;
+        List<List<TaskEvent>> batches = new ArrayList<>();
+        taskManager.subscribeAsync(batches::add, executor, 2);
+
+        for (int i = 0; i < 3; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+
+        assertTrue(batches.isEmpty(), "Асинхронный подписчик не должен вызываться в потоке операции");
+        assertEquals(1, scheduled.size(), "Пока очередь не разобрана, задача на Executor ставится один раз");
+        scheduled.get(0).run();
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.subscribeAsync(events -> {}, executor, 0));
+    }
+
+    @Test
+    void testStatisticsSummarizesBoard() {
+        taskManager.createAll(List.of(task, subtask1, subtask2, subtask3));
+        taskManager.createTask(new Task("Без начала", "", Status.DONE, Duration.ofHours(5), null));
+
+        TaskStatistics stats = taskManager.statistics();
+
+        assertEquals(6, stats.getTotal());
+        assertEquals(1, stats.getCount(TaskType.TASK, Status.NEW));
+        assertEquals(1, stats.getCount(TaskType.TASK, Status.DONE));
+        assertEquals(3, stats.getCount(TaskType.SUBTASK, Status.NEW));
+        assertEquals(1, stats.getCount(TaskType.EPIC, Status.NEW));
+        assertEquals(Map.of(epic.getId(), Duration.ofHours(3)), stats.getPlannedByEpic());
+        assertEquals(Map.of(LocalDate.of(2025, 1, 1), Duration.ofHours(3),
+                LocalDate.of(2025, 2, 2), Duration.ofHours(1)), stats.getWorkloadByDay());
+
+        taskManager.deleteSubtaskById(subtask1.getId());
+        stats = taskManager.statistics();
+
+        assertEquals(5, stats.getTotal());
+        assertEquals(Duration.ofHours(2), stats.getPlannedByEpic().get(epic.getId()));
+        assertEquals(Duration.ofHours(2), stats.getWorkloadByDay().get(LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    void testGetHistoryWithLimitReturnsMostRecentViews() {
+        taskManager.createAll(List.of(task, subtask1, subtask2));
+        taskManager.getTaskById(task.getId());
+        taskManager.getSubtaskById(subtask1.getId());
+        taskManager.getEpicById(epic.getId());
+        taskManager.getTaskById(task.getId());
+
+        assertEquals(List.of(epic.getId(), task.getId()),
+                taskManager.getHistory(2).stream().map(Task::getId).toList());
+        assertEquals(taskManager.getHistory(), taskManager.getHistory(100));
+        assertTrue(taskManager.getHistory(0).isEmpty());
+    }
+}
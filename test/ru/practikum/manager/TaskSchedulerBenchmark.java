@@ -0,0 +1,45 @@
+package ru.practikum.manager;
+
+import ru.practikum.model.Status;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Время построения плана TaskScheduler: половина задач уже стоит в расписании, вторая половина ждёт места.
+ * Запуск: java ru.practikum.manager.TaskSchedulerBenchmark [количество задач без начала]
+ */
+public class TaskSchedulerBenchmark {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 6, 0, 0);
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        TaskManager manager = new InMemoryTaskManager();
+        List<Task> batch = new ArrayList<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            batch.add(new Task("Занято " + i, "", Status.NEW, Duration.ofMinutes(20), BASE.plusMinutes(60L * i)));
+            batch.add(new Task("Ждёт " + i, "", Status.NEW, Duration.ofMinutes(10 + i % 50), null));
+        }
+        manager.createAll(batch);
+
+        TaskScheduler[] schedulers = {
+                new TaskScheduler(TaskScheduler.Policy.FIFO),
+                new TaskScheduler(TaskScheduler.Policy.SHORTEST_FIRST, LocalTime.of(9, 0), LocalTime.of(18, 0))
+        };
+        for (TaskScheduler scheduler : schedulers) {
+            for (int warmup = 0; warmup < 5; warmup++) {
+                scheduler.plan(manager, BASE);
+            }
+            long started = System.nanoTime();
+            TaskScheduler.Plan plan = scheduler.plan(manager, BASE);
+            long elapsed = System.nanoTime() - started;
+            System.out.printf("%d задач: расставлено %d, не поместилось %d, %.1f мс%n", size,
+                    plan.getScheduled().size(), plan.getUnscheduled().size(), elapsed / 1e6);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practikum.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practikum.model.Epic;
+import ru.practikum.model.Status;
+import ru.practikum.model.Subtask;
+import ru.practikum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSchedulerTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 0, 0);
+
+    private TaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager();
+    }
+
+    private Task unscheduled(String title, long minutes) {
+        return manager.createTask(new Task(title, "", Status.NEW, Duration.ofMinutes(minutes), null));
+    }
+
+    @Test
+    void testFifoFillsGapsAroundBusyTime() {
+        manager.createTask(new Task("Занято", "", Status.NEW, Duration.ofHours(1), MONDAY.plusHours(1)));
+        Task first = unscheduled("Первая", 60);
+        Task second = unscheduled("Вторая", 30);
+        Task third = unscheduled("Третья", 30);
+
+        TaskScheduler.Plan plan = new TaskScheduler(TaskScheduler.Policy.FIFO).plan(manager, MONDAY);
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()),
+                plan.getScheduled().stream().map(Task::getId).toList());
+        assertEquals(MONDAY, plan.getScheduled().get(0).getStartTime());
+        assertEquals(MONDAY.plusHours(2), plan.getScheduled().get(1).getStartTime());
+        assertEquals(MONDAY.plusHours(2).plusMinutes(30), plan.getScheduled().get(2).getStartTime());
+        assertTrue(plan.getUnscheduled().isEmpty());
+    }
+
+    @Test
+    void testShortestFirstUsesGapThatFifoSkips() {
+        manager.createTask(new Task("Занято", "", Status.NEW, Duration.ofHours(1), MONDAY.plusMinutes(30)));
+        Task longTask = unscheduled("Длинная", 60);
+        Task shortTask = unscheduled("Короткая", 30);
+
+        List<Task> fifo = new TaskScheduler(TaskScheduler.Policy.FIFO).plan(manager, MONDAY).getScheduled();
+        List<Task> shortest = new TaskScheduler(TaskScheduler.Policy.SHORTEST_FIRST).plan(manager, MONDAY)
+                .getScheduled();
+
+        assertEquals(longTask.getId(), fifo.get(0).getId());
+        assertEquals(MONDAY.plusMinutes(90), fifo.get(0).getStartTime());
+        assertEquals(shortTask.getId(), shortest.get(0).getId());
+        assertEquals(MONDAY, shortest.get(0).getStartTime());
+        assertEquals(MONDAY.plusMinutes(90), shortest.get(1).getStartTime());
+    }
+
+    @Test
+    void testWorkingHoursMoveTasksToNextDay() {
+        unscheduled("Утро", 240);
+        unscheduled("После обеда", 240);
+        unscheduled("Не помещается сегодня", 120);
+        Task tooLong = unscheduled("Длиннее рабочего дня", 600);
+
+        TaskScheduler scheduler = new TaskScheduler(TaskScheduler.Policy.FIFO, LocalTime.of(9, 0), LocalTime.of(18, 0));
+        TaskScheduler.Plan plan = scheduler.plan(manager, MONDAY.plusHours(7));
+
+        assertEquals(List.of(MONDAY.plusHours(9), MONDAY.plusHours(13), MONDAY.plusDays(1).plusHours(9)),
+                plan.getScheduled().stream().map(Task::getStartTime).toList());
+        assertEquals(List.of(tooLong.getId()), plan.getUnscheduled().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void testDryRunLeavesManagerUntouched() {
+        Task task = unscheduled("Задача", 30);
+
+        new TaskScheduler(TaskScheduler.Policy.FIFO).plan(manager, MONDAY);
+
+        assertNull(manager.getTaskById(task.getId()).getStartTime());
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
+
+    @Test
+    void testApplyPlacesTasksAndSubtasksWithoutConflicts() {
+        Epic epic = manager.createEpic(new Epic("Эпик", ""));
+        manager.createTask(new Task("Занято", "", Status.NEW, Duration.ofMinutes(45), MONDAY.plusMinutes(20)));
+        unscheduled("Задача", 30);
+        Subtask subtask = manager.createSubtask(new Subtask("Подзадача", "", Status.NEW, epic.getId(),
+                Duration.ofMinutes(15), null));
+        manager.createTask(new Task("Без длительности", "", Status.NEW));
+
+        TaskScheduler.Plan plan = new TaskScheduler(TaskScheduler.Policy.SHORTEST_FIRST).apply(manager, MONDAY);
+
+        assertEquals(2, plan.getScheduled().size());
+        assertEquals(3, manager.getPrioritizedTasks().size());
+        assertEquals(MONDAY, manager.getSubtaskById(subtask.getId()).getStartTime());
+        assertEquals(MONDAY, manager.getEpicById(epic.getId()).getStartTime());
+        assertTrue(plan.getUnscheduled().isEmpty());
+    }
+
+    @Test
+    void testBusyTimeBeyondNanosecondRangeDoesNotBreakPlan() {
+        manager.createTask(new Task("Далеко", "", Status.NEW, Duration.ofDays(1), LocalDateTime.of(2300, 1, 1, 0, 0)));
+        Task huge = unscheduled("Огромная", 0);
+        huge.setDuration(ChronoUnit.FOREVER.getDuration());
+        manager.updateTask(huge);
+        Task first = unscheduled("Первая", 60);
+
+        TaskScheduler.Plan plan = new TaskScheduler(TaskScheduler.Policy.SHORTEST_FIRST).plan(manager, MONDAY);
+
+        assertEquals(first.getId(), plan.getScheduled().get(0).getId());
+        assertEquals(MONDAY, plan.getScheduled().get(0).getStartTime());
+    }
+
+    @Test
+    void testInvalidWorkingHoursRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TaskScheduler(TaskScheduler.Policy.FIFO, LocalTime.of(18, 0), LocalTime.of(9, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new TaskScheduler(TaskScheduler.Policy.FIFO, LocalTime.of(9, 0), null));
+    }
+}
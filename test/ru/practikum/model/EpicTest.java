@@ -83,4 +83,65 @@ class EpicTest {
         taskManager.updateSubtask(subtask1);
         assertEquals(Status.DONE, epic.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    void statusCountersShouldFollowSubtaskChanges() {
+        Epic standalone = new Epic("Эпик", "Описание");
+        Subtask first = new Subtask("Подзадача 1", "Описание", Status.NEW, 1, null, null);
+        first.setId(2);
+        Subtask second = new Subtask("Подзадача 2", "Описание", Status.DONE, 1, null, null);
+        second.setId(3);
+        standalone.trackSubtask(first);
+        standalone.trackSubtask(second);
+        assertEquals(1, standalone.getSubtaskCount(Status.NEW));
+        assertEquals(1, standalone.getSubtaskCount(Status.DONE));
+        assertEquals(Status.IN_PROGRESS, standalone.calculateStatus());
+
+        first.setStatus(Status.DONE);
+        standalone.trackSubtask(first);
+        assertEquals(0, standalone.getSubtaskCount(Status.NEW));
+        assertEquals(Status.DONE, standalone.calculateStatus());
+
+        standalone.untrackSubtask(second.getId());
+        standalone.untrackSubtask(first.getId());
+        assertEquals(Status.NEW, standalone.calculateStatus(), "Эпик без подзадач должен быть NEW");
+    }
+
+    @Test
+    void epicTimeShouldFollowSubtaskChanges() {
+        Subtask early = taskManager.createSubtask(new Subtask("Подзадача 1", "Описание", Status.NEW,
+                epic.getId(), Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        Subtask late = taskManager.createSubtask(new Subtask("Подзадача 2", "Описание", Status.NEW,
+                epic.getId(), Duration.ofHours(2), LocalDateTime.of(2025, 1, 1, 12, 0)));
+        assertEquals(Duration.ofHours(3), epic.getDuration());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 0), epic.getEndTime());
+
+        late.setStartTime(LocalDateTime.of(2025, 1, 1, 8, 0));
+        taskManager.updateSubtask(late);
+        assertEquals(LocalDateTime.of(2025, 1, 1, 8, 0), epic.getStartTime(),
+                "Начало эпика должно сдвинуться на новую самую раннюю подзадачу");
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 0), epic.getEndTime(),
+                "Конец эпика должен пересчитаться после переноса самой поздней подзадачи");
+
+        taskManager.deleteSubtaskById(late.getId());
+        assertEquals(Duration.ofHours(1), epic.getDuration());
+        assertEquals(early.getStartTime(), epic.getStartTime());
+        assertEquals(early.getEndTime(), epic.getEndTime());
+
+        taskManager.deleteSubtaskById(early.getId());
+        assertEquals(Duration.ZERO, epic.getDuration());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+    }
+
+    @Test
+    void testEpicStatusAfterDeleteAllSubtasks() {
+        taskManager.createSubtask(new Subtask("Подзадача", "Описание", Status.DONE, epic.getId(),
+                Duration.ofHours(1), LocalDateTime.of(2025, 1, 1, 10, 0)));
+        assertEquals(Status.DONE, epic.getStatus());
+        taskManager.deleteAllSubtasks();
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(0, epic.getSubtaskCount(Status.DONE));
+    }
+}
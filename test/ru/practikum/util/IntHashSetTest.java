@@ -0,0 +1,83 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    @Test
+    void shouldBehaveLikeHashSet() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(11);
+
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value), "remove(" + value + ")");
+            } else {
+                assertEquals(expected.add(value), set.add(value), "add(" + value + ")");
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        for (int value = 0; value < 300; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "contains(" + value + ")");
+        }
+        assertEquals(expected, set, "Содержимое должно совпадать с HashSet");
+    }
+
+    @Test
+    void shouldKeepInsertionOrderWithoutRemovals() {
+        IntHashSet set = new IntHashSet();
+        for (int value = 10; value > 0; value--) {
+            set.add(value);
+        }
+        List<Integer> values = new ArrayList<>();
+        set.forEachInt(values::add);
+        assertEquals(List.of(10, 9, 8, 7, 6, 5, 4, 3, 2, 1), values);
+        assertEquals(values, new ArrayList<>(set));
+    }
+
+    @Test
+    void shouldKeepInsertionOrderAcrossRemovals() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+        Random random = new Random(17);
+
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(200);
+            if (random.nextInt(2) == 0) {
+                assertEquals(expected.remove(value), set.remove(value), "remove(" + value + ")");
+            } else {
+                assertEquals(expected.add(value), set.add(value), "add(" + value + ")");
+            }
+            if (step % 100 == 0) {
+                assertEquals(new ArrayList<>(expected), new ArrayList<>(set), "Порядок на шаге " + step);
+            }
+        }
+        List<Integer> values = new ArrayList<>();
+        set.forEachInt(values::add);
+        assertEquals(new ArrayList<>(expected), values);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), set.toIntArray());
+    }
+
+    @Test
+    void clearShouldEmptySet() {
+        IntHashSet set = new IntHashSet();
+        set.add(1);
+        set.add(2);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(1));
+        assertTrue(set.add(1));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(512) - 16;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.getOrDefault(key, IntIntHashMap.MISSING), map.remove(key), "remove(" + key + ")");
+                expected.remove(key);
+            } else {
+                int value = random.nextInt(1000);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous == null ? IntIntHashMap.MISSING : previous, map.put(key, value),
+                        "put(" + key + ")");
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int key = -16; key < 512; key++) {
+            assertEquals(expected.getOrDefault(key, IntIntHashMap.MISSING), map.get(key), "get(" + key + ")");
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void shouldStoreZeroKeyAndValueAndClear() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(0, 0);
+        assertEquals(0, map.get(0));
+        assertTrue(map.containsKey(0));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(IntIntHashMap.MISSING, map.get(0));
+    }
+
+    @Test
+    void shouldRejectNegativeValues() {
+        IntIntHashMap map = new IntIntHashMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, -1));
+    }
+}
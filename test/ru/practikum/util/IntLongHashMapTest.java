@@ -0,0 +1,50 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLongHashMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        IntLongHashMap map = new IntLongHashMap();
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(13);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(512) - 16;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key), "remove(" + key + ")");
+            } else {
+                long value = random.nextLong();
+                expected.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int key = -16; key < 512; key++) {
+            assertEquals(expected.getOrDefault(key, -1L), map.getOrDefault(key, -1L), "get(" + key + ")");
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void shouldStoreExtremeValuesAndClear() {
+        IntLongHashMap map = new IntLongHashMap();
+        map.put(0, Long.MIN_VALUE);
+        map.put(1, 0);
+        assertEquals(Long.MIN_VALUE, map.getOrDefault(0, 7));
+        assertEquals(0, map.getOrDefault(1, 7));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+        assertEquals(7, map.getOrDefault(1, 7));
+    }
+}
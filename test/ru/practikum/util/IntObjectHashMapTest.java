@@ -0,0 +1,55 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(512) - 16;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "remove(" + key + ")");
+            } else {
+                String value = "v" + step;
+                assertEquals(expected.put(key, value), map.put(key, value), "put(" + key + ")");
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int key = -16; key < 512; key++) {
+            assertEquals(expected.get(key), map.get(key), "get(" + key + ")");
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(expected, map, "Содержимое должно совпадать с HashMap");
+    }
+
+    @Test
+    void shouldSupportZeroKeyAndClear() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(0, "ноль");
+        assertEquals("ноль", map.get(0));
+        assertTrue(map.keySet().contains(0));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0));
+        assertFalse(map.values().iterator().hasNext());
+    }
+
+    @Test
+    void shouldRejectNullValues() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+}
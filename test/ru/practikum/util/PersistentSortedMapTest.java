@@ -0,0 +1,81 @@
+package ru.practikum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void shouldBehaveLikeTreeMap() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(3);
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(1_000);
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                String value = "v" + step;
+                map = map.put(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()),
+                "Значения должны идти в порядке ключей");
+        List<String> values = map.values();
+        for (int i = 0; i < values.size(); i += 37) {
+            assertEquals(new ArrayList<>(expected.values()).get(i), values.get(i));
+        }
+        for (int key = 0; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void oldVersionsShouldStayUnchanged() {
+        PersistentSortedMap<Integer, String> first = PersistentSortedMap.<Integer, String>empty()
+                .put(1, "один").put(2, "два");
+        List<String> firstValues = first.values();
+
+        PersistentSortedMap<Integer, String> second = first.remove(1).put(3, "три");
+
+        assertEquals(List.of("один", "два"), firstValues, "Старая версия не должна меняться");
+        assertEquals(List.of("два", "три"), second.values());
+        assertSame(first, first.remove(42), "Удаление отсутствующего ключа не создаёт новую версию");
+    }
+
+    @Test
+    void valuesViewShouldBeReadOnly() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.<Integer, String>empty().put(1, "один");
+        assertThrows(UnsupportedOperationException.class, () -> map.values().add("два"));
+    }
+
+    @Test
+    void valuesBetweenShouldMatchSubMap() {
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(2_000);
+            map = map.put(key, "v" + key);
+            expected.put(key, "v" + key);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            int from = random.nextInt(2_100) - 50;
+            int to = from + random.nextInt(300);
+            assertEquals(new ArrayList<>(expected.subMap(from, to).values()), map.valuesBetween(from, to));
+        }
+        assertTrue(map.valuesBetween(10, 10).isEmpty());
+    }
+}